@@ -0,0 +1,114 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+
+import com.getcapacitor.plugin.util.HttpRequestHandler;
+import com.getcapacitor.plugin.util.HttpTransport;
+import com.getcapacitor.util.KeyValueStore;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente HTTP mínimo para hablar con la API sin la WebView.
+ *
+ * Usa Cronet si ya se instaló (ver {@link CronetHttpTransport}) y si no el
+ * transporte keep-alive de CapacitorHttp, así varias acciones seguidas reusan
+ * la conexión. La URL
+ * de la API y el token de sesión los pasa JS con {@link CallOutboxPlugin} y
+ * quedan guardados para cuando la app no está abierta.
+ */
+final class ApiClient implements CallOutbox.Sender {
+    static final String STORE_NAME = "mozo_api";
+    private static final String KEY_BASE_URL = "base_url";
+    private static final String KEY_TOKEN = "token";
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final int READ_TIMEOUT_MS = 5_000;
+
+    /** Null hasta que Cronet esté listo. */
+    private static volatile HttpTransport transport;
+
+    private final KeyValueStore store;
+    private volatile String baseUrl;
+    private volatile String token;
+
+    ApiClient(Context context) {
+        this.store = KeyValueStore.open(context, STORE_NAME);
+        this.baseUrl = store.getString(KEY_BASE_URL, null);
+        this.token = store.getString(KEY_TOKEN, null);
+    }
+
+    void configure(String baseUrl, String token) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+        store.putString(KEY_BASE_URL, baseUrl);
+        store.putString(KEY_TOKEN, token);
+        store.flush();
+    }
+
+    /** Cierre de sesión: olvidar el token. */
+    void clear() {
+        token = null;
+        store.remove(KEY_TOKEN);
+        store.flush();
+    }
+
+    @Override
+    public boolean isReady() {
+        return baseUrl != null && token != null;
+    }
+
+    @Override
+    public int post(String path, JSONObject body) throws IOException {
+        String base = baseUrl;
+        URL url = new URL(base.endsWith("/") ? base + path : base + "/" + path);
+        HttpTransport current = transport;
+        HttpURLConnection connection = (current != null ? current : HttpRequestHandler.getTransport()).open(url);
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Content-Type", "application/json");
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+            int status = connection.getResponseCode();
+            // Leer la respuesta completa deja la conexión lista para reusar
+            discard(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
+            return status;
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Transporte propio de la API. No se instala en CapacitorHttp: el plugin
+     * depende de java.net.CookieHandler para las cookies de la WebView, y
+     * Cronet no lo usa. La API se autentica con el token, sin cookies.
+     */
+    static void setTransport(HttpTransport httpTransport) {
+        transport = httpTransport;
+    }
+
+    private static void discard(InputStream in) throws IOException {
+        if (in == null) return;
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[1024];
+            while (stream.read(buffer) != -1) {
+                // nada
+            }
+        }
+    }
+}
@@ -3,47 +3,111 @@ package com.mozoqr.app;
 import android.app.Application;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
+import android.content.Context;
 import android.os.Build;
-import android.util.Log;
+import com.getcapacitor.CapConfig;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginHandle;
+import com.getcapacitor.PluginLoadException;
+import com.getcapacitor.PluginManager;
 import com.google.firebase.FirebaseApp;
+import java.util.ArrayList;
+import java.util.List;
 
 public class App extends Application {
-    private static final String TAG = "App";
+    private static final AppLog.Tag LOG = AppLog.tag("App");
+
+    // Tareas del arranque (ver StartupOrchestrator)
+    static final String TASK_CAPACITOR = "capacitor";
+    static final String TASK_FIREBASE = "firebase";
+    static final String TASK_CHANNELS = "channels";
+    static final String TASK_HTTP = "http";
+    static final String TASK_TOKEN_STORE = "token_store";
+    static final String TASK_PIPELINE = "pipeline";
+    static final String TASK_LOG = "log";
+
+    private static StartupTrace trace;
+    private static StartupOrchestrator startup;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        Log.d(TAG, "🚀 Application CREATED - " + getPackageName());
-        
+        trace = new StartupTrace();
+        trace.mark("app_create");
+        AppLog.d(LOG, "🚀 Application CREATED - {}", getPackageName());
+
+        // Nada de esto depende entre sí salvo el pipeline, que publica en los canales:
+        // corre en paralelo fuera del hilo principal
+        final Context app = this;
+        startup = new StartupOrchestrator(trace)
+                // Lo que se loguee antes espera en el ring de AppLog
+                .add(TASK_LOG, () -> {
+                    AppLog.init(app);
+                    return null;
+                })
+                .add(TASK_CAPACITOR, () -> preloadCapacitor(app))
+                .add(TASK_FIREBASE, () -> initFirebase(app))
+                .add(TASK_CHANNELS, () -> {
+                    createNotificationChannels(app);
+                    return null;
+                })
+                .add(TASK_HTTP, () -> {
+                    CronetHttpTransport.install(app);
+                    return null;
+                })
+                .add(TASK_TOKEN_STORE, () -> FCMTokenHelper.tokenStore(app))
+                .add(TASK_PIPELINE, () -> CallEventPipeline.get(app), TASK_CHANNELS);
+        startup.start();
+
+        trace.mark("app_created");
+        AppLog.d(LOG, "🚀 Application setup COMPLETED");
+    }
+
+    static StartupOrchestrator startup() {
+        return startup;
+    }
+
+    static StartupTrace trace() {
+        return trace;
+    }
+
+    private static FirebaseApp initFirebase(Context context) {
         // CRÍTICO: Inicializar Firebase
-        try {
-            FirebaseApp.initializeApp(this);
-            Log.d(TAG, "✅ Firebase initialized successfully");
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Firebase initialization failed", e);
+        FirebaseApp firebase = FirebaseApp.initializeApp(context);
+        AppLog.d(LOG, "✅ Firebase initialized successfully");
+        return firebase;
+    }
+
+    /**
+     * Lee capacitor.config.json y capacitor.plugins.json e indexa los métodos
+     * de los plugins antes de que MainActivity cree el Bridge.
+     */
+    private static CapConfig preloadCapacitor(Context context) throws PluginLoadException {
+        CapConfig config = CapConfig.loadDefault(context);
+        List<Class<? extends Plugin>> plugins = new ArrayList<>(new PluginManager(context.getAssets()).loadPluginClasses());
+        plugins.add(com.getcapacitor.plugin.CapacitorCookies.class);
+        plugins.add(com.getcapacitor.plugin.WebView.class);
+        plugins.add(com.getcapacitor.plugin.CapacitorHttp.class);
+        for (Class<? extends Plugin> plugin : plugins) {
+            PluginHandle.preindex(plugin);
         }
-        
-        createNotificationChannels();
-        Log.d(TAG, "🚀 Application setup COMPLETED");
+        return config;
     }
 
-    private void createNotificationChannels() {
+    private static void createNotificationChannels(Context context) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationManager nm = getSystemService(NotificationManager.class);
-            if (nm == null) return;
-            createIfMissing(nm, "waiter_normal", "Llamadas Mesa", "Llamadas de mesas (normal)");
-            createIfMissing(nm, "waiter_urgent", "Llamadas Urgentes", "Llamadas urgentes / alta prioridad");
-            createIfMissing(nm, "mozo_waiter", "Compatibilidad", "Canal legado de notificaciones de mozo");
+            List<NotificationChannel> channels = new ArrayList<>();
+            channels.add(channel("waiter_normal", "Llamadas Mesa", "Llamadas de mesas (normal)"));
+            channels.add(channel("waiter_urgent", "Llamadas Urgentes", "Llamadas urgentes / alta prioridad"));
+            channels.add(channel("mozo_waiter", "Compatibilidad", "Canal legado de notificaciones de mozo"));
+            CallNotifier.ensureChannels(context, channels);
         }
     }
 
-    private void createIfMissing(NotificationManager nm, String id, String name, String desc) {
-        if (nm.getNotificationChannel(id) == null) {
-            NotificationChannel ch = new NotificationChannel(id, name, NotificationManager.IMPORTANCE_HIGH);
-            ch.setDescription(desc);
-            ch.enableVibration(true);
-            nm.createNotificationChannel(ch);
-            Log.d(TAG, "NotificationChannel creado: " + id);
-        }
+    private static NotificationChannel channel(String id, String name, String desc) {
+        NotificationChannel ch = new NotificationChannel(id, name, NotificationManager.IMPORTANCE_HIGH);
+        ch.setDescription(desc);
+        ch.enableVibration(true);
+        return ch;
     }
 }
@@ -0,0 +1,786 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import com.getcapacitor.Logger;
+import com.getcapacitor.util.KeyValueStore;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log estructurado y asíncrono para los caminos calientes (push FCM, arranque, bridge).
+ *
+ * Quien loguea sólo guarda el formato y hasta tres argumentos en un slot de un
+ * ring buffer preasignado (sin locks: cada productor reserva su slot con un CAS).
+ * El texto se arma después, en un hilo escritor, que lo manda a logcat y a
+ * {@code files/logs/app.log} como una línea JSON por evento. Al pasar
+ * {@link #MAX_FILE_BYTES} el archivo se comprime a {@code app-<ms>.log.gz} y se
+ * conservan los últimos {@link #MAX_ARCHIVES}.
+ *
+ * Cada tag tiene su nivel, que se puede cambiar en caliente ({@link #setLevel})
+ * y queda guardado. Con el nivel apagado una llamada cuesta una lectura volátil
+ * y no reserva memoria, siempre que los argumentos ya sean objetos: los
+ * primitivos se boxean antes de entrar, así que ahí conviene preguntar
+ * {@link Tag#isLoggable} primero. Los argumentos se formatean más tarde: tienen
+ * que ser inmutables (String, números) o se verá su estado al escribirse.
+ *
+ * Los placeholders son {@code {}}. Si sobra un último argumento y es un
+ * Throwable, se toma como el error del evento.
+ *
+ * Si el ring se llena (el escritor no da abasto o todavía no arrancó) los eventos
+ * nuevos se descartan y se cuentan en {@link #dropped}.
+ */
+public final class AppLog {
+    private static final String TAG = "AppLog";
+
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+    /** Nivel que apaga un tag. */
+    public static final int OFF = Log.ASSERT + 1;
+
+    static final String DIRECTORY = "logs";
+    static final String CURRENT = "app.log";
+    static final String ARCHIVE_PREFIX = "app-";
+    static final String ARCHIVE_SUFFIX = ".log.gz";
+    /** Store con los niveles elegidos en caliente: tag → nivel. */
+    static final String STORE_NAME = "AppLogLevels";
+    /** Clave del nivel por defecto, para los tags sin uno propio. */
+    static final String DEFAULT_KEY = "*";
+    static final int CAPACITY = 2048;
+    static final long MAX_FILE_BYTES = 256 * 1024;
+    static final int MAX_ARCHIVES = 8;
+    /** Cuánto espera un export a que el escritor vacíe el ring. */
+    private static final long EXPORT_WAIT_MS = 500;
+    private static final int MAX_STACK_CHARS = 4096;
+
+    private static final AppLog DEFAULT = new AppLog(CAPACITY);
+
+    /** Un tag con su nivel. Se crea una vez por clase y se guarda en un campo estático. */
+    public static final class Tag {
+        final AppLog owner;
+        final String name;
+        volatile int level;
+        /** Si el nivel lo eligió alguien para este tag y no viene del default. */
+        volatile boolean pinned;
+
+        Tag(AppLog owner, String name, int level, boolean pinned) {
+            this.owner = owner;
+            this.name = name;
+            this.level = level;
+            this.pinned = pinned;
+        }
+
+        public boolean isLoggable(int level) {
+            return level >= this.level;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** Un evento en el ring. {@code seq} dice de quién es el turno (ver {@link #publish}). */
+    private static final class Slot {
+        volatile long seq;
+        long timeMs;
+        int level;
+        Tag tag;
+        String thread;
+        String format;
+        int argc;
+        Object a1;
+        Object a2;
+        Object a3;
+        Throwable error;
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    /** Sólo la escribe el hilo escritor. */
+    private volatile long tail;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long written;
+
+    private final ConcurrentHashMap<String, Tag> tags = new ConcurrentHashMap<>();
+    private volatile int defaultLevel = DEBUG;
+    private volatile KeyValueStore levelStore;
+
+    private volatile Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean echo = true;
+
+    // Del hilo escritor; el archivo además se toca bajo fileLock desde export
+    private final Object fileLock = new Object();
+    private File dir;
+    private Writer out;
+    private long fileBytes;
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder message = new StringBuilder(256);
+    private final SimpleDateFormat time = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.US);
+
+    AppLog(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity debe ser potencia de 2");
+        }
+        ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+            ring[i].seq = i;
+        }
+        mask = capacity - 1;
+    }
+
+    public static AppLog get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Arranca el escritor en {@code files/logs}, aplica los niveles guardados y
+     * toma los logs de Capacitor. Lo llama App al crearse; lo logueado antes
+     * espera en el ring.
+     */
+    static void init(Context context) {
+        boolean debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        AppLog log = DEFAULT;
+        log.setDefaultLevel(debuggable ? DEBUG : INFO);
+        log.loadLevels(KeyValueStore.open(context, STORE_NAME));
+        log.start(new File(context.getFilesDir(), DIRECTORY));
+        Logger.setSink(new CapacitorSink(log));
+    }
+
+    public static Tag tag(String name) {
+        return DEFAULT.newTag(name);
+    }
+
+    Tag newTag(String name) {
+        Tag t = tags.get(name);
+        if (t == null) {
+            Tag created = new Tag(this, name, defaultLevel, false);
+            t = tags.putIfAbsent(name, created);
+            if (t == null) {
+                t = created;
+            }
+        }
+        return t;
+    }
+
+    public static boolean isLoggable(Tag tag, int level) {
+        return level >= tag.level;
+    }
+
+    // Aridad fija en vez de varargs: con el nivel apagado no se crea ningún array
+
+    public static void v(Tag tag, String format) {
+        if (VERBOSE >= tag.level) tag.owner.publish(tag, VERBOSE, format, 0, null, null, null);
+    }
+
+    public static void v(Tag tag, String format, Object a1) {
+        if (VERBOSE >= tag.level) tag.owner.publish(tag, VERBOSE, format, 1, a1, null, null);
+    }
+
+    public static void v(Tag tag, String format, Object a1, Object a2) {
+        if (VERBOSE >= tag.level) tag.owner.publish(tag, VERBOSE, format, 2, a1, a2, null);
+    }
+
+    public static void v(Tag tag, String format, Object a1, Object a2, Object a3) {
+        if (VERBOSE >= tag.level) tag.owner.publish(tag, VERBOSE, format, 3, a1, a2, a3);
+    }
+
+    public static void d(Tag tag, String format) {
+        if (DEBUG >= tag.level) tag.owner.publish(tag, DEBUG, format, 0, null, null, null);
+    }
+
+    public static void d(Tag tag, String format, Object a1) {
+        if (DEBUG >= tag.level) tag.owner.publish(tag, DEBUG, format, 1, a1, null, null);
+    }
+
+    public static void d(Tag tag, String format, Object a1, Object a2) {
+        if (DEBUG >= tag.level) tag.owner.publish(tag, DEBUG, format, 2, a1, a2, null);
+    }
+
+    public static void d(Tag tag, String format, Object a1, Object a2, Object a3) {
+        if (DEBUG >= tag.level) tag.owner.publish(tag, DEBUG, format, 3, a1, a2, a3);
+    }
+
+    public static void i(Tag tag, String format) {
+        if (INFO >= tag.level) tag.owner.publish(tag, INFO, format, 0, null, null, null);
+    }
+
+    public static void i(Tag tag, String format, Object a1) {
+        if (INFO >= tag.level) tag.owner.publish(tag, INFO, format, 1, a1, null, null);
+    }
+
+    public static void i(Tag tag, String format, Object a1, Object a2) {
+        if (INFO >= tag.level) tag.owner.publish(tag, INFO, format, 2, a1, a2, null);
+    }
+
+    public static void i(Tag tag, String format, Object a1, Object a2, Object a3) {
+        if (INFO >= tag.level) tag.owner.publish(tag, INFO, format, 3, a1, a2, a3);
+    }
+
+    public static void w(Tag tag, String format) {
+        if (WARN >= tag.level) tag.owner.publish(tag, WARN, format, 0, null, null, null);
+    }
+
+    public static void w(Tag tag, String format, Object a1) {
+        if (WARN >= tag.level) tag.owner.publish(tag, WARN, format, 1, a1, null, null);
+    }
+
+    public static void w(Tag tag, String format, Object a1, Object a2) {
+        if (WARN >= tag.level) tag.owner.publish(tag, WARN, format, 2, a1, a2, null);
+    }
+
+    public static void w(Tag tag, String format, Object a1, Object a2, Object a3) {
+        if (WARN >= tag.level) tag.owner.publish(tag, WARN, format, 3, a1, a2, a3);
+    }
+
+    public static void e(Tag tag, String format) {
+        if (ERROR >= tag.level) tag.owner.publish(tag, ERROR, format, 0, null, null, null);
+    }
+
+    public static void e(Tag tag, String format, Object a1) {
+        if (ERROR >= tag.level) tag.owner.publish(tag, ERROR, format, 1, a1, null, null);
+    }
+
+    public static void e(Tag tag, String format, Object a1, Object a2) {
+        if (ERROR >= tag.level) tag.owner.publish(tag, ERROR, format, 2, a1, a2, null);
+    }
+
+    public static void e(Tag tag, String format, Object a1, Object a2, Object a3) {
+        if (ERROR >= tag.level) tag.owner.publish(tag, ERROR, format, 3, a1, a2, a3);
+    }
+
+    /**
+     * Reserva el próximo slot y lo publica. Cola acotada de Vyukov: el slot de la
+     * posición {@code p} está libre cuando su seq vale {@code p}, tiene un evento
+     * cuando vale {@code p + 1} y vuelve a estar libre, una vuelta después, cuando
+     * el escritor lo deja en {@code p + capacity}.
+     */
+    private void publish(Tag tag, int level, String format, int argc, Object a1, Object a2, Object a3) {
+        publish(tag, level, format, argc, a1, a2, a3, null);
+    }
+
+    private void publish(Tag tag, int level, String format, int argc, Object a1, Object a2, Object a3,
+                         Throwable error) {
+        Slot slot;
+        long pos = head.get();
+        for (;;) {
+            slot = ring[(int) pos & mask];
+            long diff = slot.seq - pos;
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) break;
+                pos = head.get();
+            } else if (diff < 0) {
+                // Lleno: el escritor todavía no liberó este slot
+                dropped.incrementAndGet();
+                return;
+            } else {
+                pos = head.get();
+            }
+        }
+        slot.timeMs = System.currentTimeMillis();
+        slot.level = level;
+        slot.tag = tag;
+        slot.thread = Thread.currentThread().getName();
+        slot.format = format;
+        slot.argc = argc;
+        slot.a1 = a1;
+        slot.a2 = a2;
+        slot.a3 = a3;
+        slot.error = error;
+        slot.seq = pos + 1;
+        if (writerParked) {
+            Thread w = writer;
+            if (w != null) LockSupport.unpark(w);
+        }
+    }
+
+    /** Para el sink de Capacitor, que ya trae el mensaje armado. */
+    private void publishMessage(Tag tag, int level, String message, Throwable error) {
+        publish(tag, level, message, 0, null, null, null, error);
+    }
+
+    // ---- Niveles ----
+
+    void setDefaultLevel(int level) {
+        defaultLevel = level;
+        for (Tag t : tags.values()) {
+            if (!t.pinned) t.level = level;
+        }
+    }
+
+    int getDefaultLevel() {
+        return defaultLevel;
+    }
+
+    /**
+     * Cambia el nivel de un tag, o el default con {@link #DEFAULT_KEY}. Vale para
+     * los tags ya creados y los que se creen después, y se guarda si hay store.
+     */
+    public void setLevel(String name, int level) {
+        if (DEFAULT_KEY.equals(name)) {
+            setDefaultLevel(level);
+        } else {
+            Tag t = newTag(name);
+            t.pinned = true;
+            t.level = level;
+        }
+        KeyValueStore store = levelStore;
+        if (store != null) store.putInt(name, level);
+    }
+
+    /** Vuelve el tag al nivel por defecto. */
+    public void resetLevel(String name) {
+        Tag t = tags.get(name);
+        if (t != null) {
+            t.pinned = false;
+            t.level = defaultLevel;
+        }
+        KeyValueStore store = levelStore;
+        if (store != null) store.remove(name);
+    }
+
+    /** Los tags con nivel propio. */
+    public Map<String, Integer> pinnedLevels() {
+        Map<String, Integer> levels = new HashMap<>();
+        for (Tag t : tags.values()) {
+            if (t.pinned) levels.put(t.name, t.level);
+        }
+        return levels;
+    }
+
+    void loadLevels(KeyValueStore store) {
+        for (String key : store.keys()) {
+            int level = store.getInt(key, defaultLevel);
+            if (DEFAULT_KEY.equals(key)) {
+                setDefaultLevel(level);
+            } else {
+                Tag t = newTag(key);
+                t.pinned = true;
+                t.level = level;
+            }
+        }
+        levelStore = store;
+    }
+
+    void setEcho(boolean echo) {
+        this.echo = echo;
+    }
+
+    // ---- Escritor ----
+
+    /** Arranca el hilo escritor sobre {@code dir}. Llamarlo de nuevo no hace nada. */
+    synchronized void start(File dir) {
+        if (writer != null) return;
+        this.dir = dir;
+        Thread t = new Thread(this::writeLoop, "AppLog");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        writer = t;
+        t.start();
+    }
+
+    private void writeLoop() {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "❌ No se pudo crear " + dir + ", sólo logcat");
+        }
+        while (true) {
+            if (drain() > 0) continue;
+            synchronized (fileLock) {
+                flushFile();
+            }
+            writerParked = true;
+            if (!hasPending()) {
+                LockSupport.park(this);
+            }
+            writerParked = false;
+        }
+    }
+
+    private boolean hasPending() {
+        long pos = tail;
+        return ring[(int) pos & mask].seq == pos + 1;
+    }
+
+    /** Escribe lo publicado hasta ahora. Sólo desde el hilo escritor. */
+    private int drain() {
+        long pos = tail;
+        int n = 0;
+        synchronized (fileLock) {
+            while (true) {
+                Slot slot = ring[(int) pos & mask];
+                if (slot.seq != pos + 1) break;
+                write(slot);
+                slot.tag = null;
+                slot.format = null;
+                slot.a1 = slot.a2 = slot.a3 = null;
+                slot.error = null;
+                slot.seq = pos + ring.length;
+                pos++;
+                n++;
+                if ((n & 63) == 0) tail = pos;
+            }
+        }
+        tail = pos;
+        written += n;
+        return n;
+    }
+
+    private void write(Slot slot) {
+        format(slot, message);
+        String text = message.toString();
+        Throwable error = slot.error;
+        if (echo) {
+            Log.println(slot.level, slot.tag.name, error != null ? text + '\n' + Log.getStackTraceString(error) : text);
+        }
+
+        line.setLength(0);
+        line.append("{\"t\":").append(slot.timeMs)
+                .append(",\"time\":");
+        quote(time.format(new Date(slot.timeMs)), line);
+        line.append(",\"level\":\"").append(levelName(slot.level)).append('"');
+        line.append(",\"tag\":");
+        quote(slot.tag.name, line);
+        line.append(",\"thread\":");
+        quote(slot.thread, line);
+        line.append(",\"msg\":");
+        quote(text, line);
+        if (error != null) {
+            line.append(",\"error\":");
+            quote(stackTrace(error), line);
+        }
+        line.append("}\n");
+        appendLine(line);
+    }
+
+    /**
+     * Reemplaza cada {@code {}} por el próximo argumento. Un último argumento
+     * Throwable que no usó ningún placeholder queda como error del evento.
+     */
+    private static void format(Slot slot, StringBuilder out) {
+        out.setLength(0);
+        String format = slot.format;
+        int argc = slot.argc;
+        int used = 0;
+        int from = 0;
+        if (format == null) format = "null";
+        while (used < argc) {
+            int at = format.indexOf("{}", from);
+            if (at < 0) break;
+            out.append(format, from, at);
+            Object arg = used == 0 ? slot.a1 : used == 1 ? slot.a2 : slot.a3;
+            out.append(arg);
+            used++;
+            from = at + 2;
+        }
+        out.append(format, from, format.length());
+        if (used < argc) {
+            Object last = argc == 1 ? slot.a1 : argc == 2 ? slot.a2 : slot.a3;
+            if (last instanceof Throwable) {
+                slot.error = (Throwable) last;
+                argc--;
+            }
+            // Argumentos de más sin placeholder: se agregan al final para no perderlos
+            for (int i = used; i < argc; i++) {
+                out.append(i == used ? " [" : ", ");
+                out.append(i == 0 ? slot.a1 : i == 1 ? slot.a2 : slot.a3);
+                if (i == argc - 1) out.append(']');
+            }
+        }
+    }
+
+    private void appendLine(CharSequence text) {
+        if (dir == null) return;
+        try {
+            if (out == null) {
+                File file = new File(dir, CURRENT);
+                fileBytes = file.length();
+                out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 16 * 1024);
+            }
+            out.append(text);
+            // Aproximado (cuenta chars, no bytes): alcanza para decidir la rotación
+            fileBytes += text.length();
+            if (fileBytes >= MAX_FILE_BYTES) {
+                rotate();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "❌ No se pudo escribir el log", e);
+            closeFile();
+        }
+    }
+
+    private void flushFile() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "❌ No se pudo escribir el log", e);
+            closeFile();
+        }
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+    }
+
+    /** Comprime el archivo actual a un .gz con la hora y borra los más viejos. */
+    private void rotate() throws IOException {
+        closeFile();
+        File current = new File(dir, CURRENT);
+        File archive = new File(dir, ARCHIVE_PREFIX + System.currentTimeMillis() + ARCHIVE_SUFFIX);
+        try (InputStream in = new FileInputStream(current);
+             OutputStream gz = new GZIPOutputStream(new FileOutputStream(archive))) {
+            byte[] buf = new byte[16 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                gz.write(buf, 0, n);
+            }
+        }
+        current.delete();
+        fileBytes = 0;
+        List<File> archives = archives(dir);
+        for (int i = 0; i < archives.size() - MAX_ARCHIVES; i++) {
+            archives.get(i).delete();
+        }
+    }
+
+    /** Los .gz del directorio, del más viejo al más nuevo. */
+    static List<File> archives(File dir) {
+        List<File> list = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) return list;
+        for (File f : files) {
+            String name = f.getName();
+            if (name.startsWith(ARCHIVE_PREFIX) && name.endsWith(ARCHIVE_SUFFIX)) list.add(f);
+        }
+        File[] sorted = list.toArray(new File[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(archiveTime(a), archiveTime(b)));
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    private static long archiveTime(File f) {
+        String name = f.getName();
+        try {
+            return Long.parseLong(name.substring(ARCHIVE_PREFIX.length(), name.length() - ARCHIVE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ---- Export ----
+
+    /**
+     * Junta en {@code dest} (gzip, una línea JSON por evento) lo logueado desde
+     * {@code sinceMs}. Antes espera un poco a que el escritor vacíe el ring para
+     * que entre lo último.
+     *
+     * @return cantidad de eventos exportados
+     */
+    public int export(long sinceMs, File dest) throws IOException {
+        if (writer == null) {
+            throw new IOException("El log no está iniciado");
+        }
+        awaitDrained(EXPORT_WAIT_MS);
+        int count = 0;
+        synchronized (fileLock) {
+            flushFile();
+            List<File> sources = new ArrayList<>();
+            for (File archive : archives(dir)) {
+                // Un .gz se cerró a la hora de su nombre: si es anterior, no tiene nada del rango
+                if (archiveTime(archive) >= sinceMs) sources.add(archive);
+            }
+            File current = new File(dir, CURRENT);
+            if (current.isFile()) sources.add(current);
+
+            try (Writer w = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(dest)), StandardCharsets.UTF_8)) {
+                for (File source : sources) {
+                    InputStream in = new FileInputStream(source);
+                    if (source.getName().endsWith(".gz")) in = new GZIPInputStream(in);
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                        String l;
+                        while ((l = reader.readLine()) != null) {
+                            if (eventTime(l) >= sinceMs) {
+                                w.write(l);
+                                w.write('\n');
+                                count++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Espera a que el escritor procese lo publicado hasta ahora. */
+    boolean awaitDrained(long timeoutMs) {
+        long target = head.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (tail < target) {
+            Thread w = writer;
+            if (w == null || System.nanoTime() >= deadline) return false;
+            LockSupport.unpark(w);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /** Lee {@code "t"} del principio de la línea sin parsear el JSON; -1 si no está. */
+    static long eventTime(String line) {
+        if (!line.startsWith("{\"t\":")) return -1;
+        long t = 0;
+        int i = 5;
+        boolean digits = false;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c < '0' || c > '9') break;
+            t = t * 10 + (c - '0');
+            digits = true;
+        }
+        return digits ? t : -1;
+    }
+
+    // ---- Estadísticas ----
+
+    public long written() {
+        return written;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long pending() {
+        return head.get() - tail;
+    }
+
+    // ---- Helpers ----
+
+    static String levelName(int level) {
+        switch (level) {
+            case VERBOSE: return "V";
+            case DEBUG: return "D";
+            case INFO: return "I";
+            case WARN: return "W";
+            case ERROR: return "E";
+            default: return level >= OFF ? "OFF" : "A";
+        }
+    }
+
+    /** "debug", "warn"... → nivel; -1 si no se reconoce. */
+    static int parseLevel(String name) {
+        if (name == null) return -1;
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "verbose": return VERBOSE;
+            case "debug": return DEBUG;
+            case "info": return INFO;
+            case "warn": return WARN;
+            case "error": return ERROR;
+            case "off": return OFF;
+            default: return -1;
+        }
+    }
+
+    static String levelLabel(int level) {
+        switch (level) {
+            case VERBOSE: return "verbose";
+            case DEBUG: return "debug";
+            case INFO: return "info";
+            case WARN: return "warn";
+            case ERROR: return "error";
+            default: return "off";
+        }
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter sw = new StringWriter();
+        error.printStackTrace(new PrintWriter(sw));
+        String s = sw.toString();
+        return s.length() > MAX_STACK_CHARS ? s.substring(0, MAX_STACK_CHARS) : s;
+    }
+
+    private static void quote(String s, StringBuilder out) {
+        out.append('"');
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': out.append("\\\""); break;
+                    case '\\': out.append("\\\\"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\t': out.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                        } else {
+                            out.append(c);
+                        }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Los logs de Capacitor entran al mismo ring: salen del hilo del bridge, usan
+     * los niveles por tag ({@code Capacitor}, {@code Capacitor/Plugin}...) y se
+     * exportan con el resto.
+     */
+    static final class CapacitorSink implements Logger.Sink {
+        private final AppLog log;
+
+        CapacitorSink(AppLog log) {
+            this.log = log;
+        }
+
+        @Override
+        public boolean isLoggable(String tag, int level) {
+            return log.newTag(tag).isLoggable(level);
+        }
+
+        @Override
+        public void log(int level, String tag, String message, Throwable error) {
+            Tag t = log.newTag(tag);
+            if (t.isLoggable(level)) log.publishMessage(t, level, message, error);
+        }
+    }
+}
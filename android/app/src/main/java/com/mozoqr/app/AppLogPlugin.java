@@ -0,0 +1,104 @@
+package com.mozoqr.app;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginLane;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Expone a JS el log nativo ({@link AppLog}): niveles por tag en caliente y el
+ * export de los últimos minutos, para adjuntar cuando un mozo avisa que no le
+ * llegó una llamada.
+ */
+@CapacitorPlugin(name = "AppLog")
+public class AppLogPlugin extends Plugin {
+    private static final AppLog.Tag LOG = AppLog.tag("AppLogPlugin");
+    static final String EXPORT_FILE = "logs-export.log.gz";
+    static final int DEFAULT_EXPORT_MINUTES = 30;
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("setLevel", (plugin, call) -> setLevel(call));
+        invokers.put("getLevels", (plugin, call) -> getLevels(call));
+        invokers.put("export", (plugin, call) -> export(call));
+    }
+
+    /**
+     * { tag?: string, level: 'verbose' | 'debug' | 'info' | 'warn' | 'error' | 'off' | null }
+     * Sin tag cambia el nivel por defecto; con level null el tag vuelve al default.
+     */
+    @PluginMethod
+    public void setLevel(PluginCall call) {
+        String tag = call.getString("tag", AppLog.DEFAULT_KEY);
+        String name = call.getString("level");
+        AppLog log = AppLog.get();
+        if (name == null && !AppLog.DEFAULT_KEY.equals(tag)) {
+            log.resetLevel(tag);
+        } else {
+            int level = AppLog.parseLevel(name);
+            if (level < 0) {
+                call.reject("level inválido: " + name);
+                return;
+            }
+            log.setLevel(tag, level);
+        }
+        AppLog.i(LOG, "🎚️ Nivel de {}: {}", tag, name);
+        call.resolve(toJSON(log));
+    }
+
+    @PluginMethod
+    public void getLevels(PluginCall call) {
+        call.resolve(toJSON(AppLog.get()));
+    }
+
+    /**
+     * { minutes?: number, callId?: string, reason?: string } → { path, webPath, size, events }
+     */
+    @PluginMethod(lane = PluginLane.IO)
+    public void export(PluginCall call) {
+        int minutes = Math.max(1, call.getInt("minutes", DEFAULT_EXPORT_MINUTES));
+        String callId = call.getString("callId");
+        String reason = call.getString("reason", "manual");
+        // Queda en el export como marca de cuándo y por qué se pidió
+        AppLog.w(LOG, "📤 Export de logs ({}), llamada {}", reason, callId);
+
+        File dest = new File(getContext().getCacheDir(), EXPORT_FILE);
+        int events;
+        try {
+            events = AppLog.get().export(System.currentTimeMillis() - minutes * 60_000L, dest);
+        } catch (IOException e) {
+            AppLog.e(LOG, "❌ No se pudo exportar el log", e);
+            call.reject("No se pudo exportar el log: " + e.getMessage(), e);
+            return;
+        }
+        JSObject result = new JSObject();
+        result.put("path", dest.getAbsolutePath());
+        result.put("webPath", bridge.getLocalUrl() + Bridge.CAPACITOR_FILE_START + dest.getAbsolutePath());
+        result.put("size", dest.length());
+        result.put("events", events);
+        call.resolve(result);
+    }
+
+    static JSObject toJSON(AppLog log) {
+        JSObject json = new JSObject();
+        json.put("default", AppLog.levelLabel(log.getDefaultLevel()));
+        JSObject tags = new JSObject();
+        for (Map.Entry<String, Integer> e : log.pinnedLevels().entrySet()) {
+            tags.put(e.getKey(), AppLog.levelLabel(e.getValue()));
+        }
+        json.put("tags", tags);
+        json.put("written", log.written());
+        json.put("dropped", log.dropped());
+        json.put("pending", log.pending());
+        return json;
+    }
+}
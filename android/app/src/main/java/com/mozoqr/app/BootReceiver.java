@@ -4,7 +4,6 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.util.Log;
 
 /**
  * Receiver que asegura que Firebase Cloud Messaging esté habilitado
@@ -14,18 +13,18 @@ import android.util.Log;
  * Este receiver solo asegura que los permisos y configuración estén listos.
  */
 public class BootReceiver extends BroadcastReceiver {
-    private static final String TAG = "BootReceiver";
+    private static final AppLog.Tag LOG = AppLog.tag("BootReceiver");
 
     @Override
     public void onReceive(Context context, Intent intent) {
         String action = intent.getAction();
-        Log.d(TAG, "🔄 Received broadcast: " + action);
+        AppLog.d(LOG, "🔄 Received broadcast: {}", action);
 
         if (Intent.ACTION_BOOT_COMPLETED.equals(action) ||
             Intent.ACTION_MY_PACKAGE_REPLACED.equals(action) ||
             Intent.ACTION_PACKAGE_REPLACED.equals(action)) {
             
-            Log.d(TAG, "🚀 Device booted - ensuring FCM is ready");
+            AppLog.d(LOG, "🚀 Device booted - ensuring FCM is ready");
             ensureFCMReady(context);
         }
     }
@@ -38,19 +37,19 @@ public class BootReceiver extends BroadcastReceiver {
             fcmIntent.setPackage(context.getPackageName());
             
             if (pm.queryIntentServices(fcmIntent, 0).isEmpty()) {
-                Log.w(TAG, "⚠️ FCM service not found in manifest");
+                AppLog.w(LOG, "⚠️ FCM service not found in manifest");
             } else {
-                Log.d(TAG, "✅ FCM service registered correctly");
+                AppLog.d(LOG, "✅ FCM service registered correctly");
             }
             
             // Inicializar canales de notificación si es necesario
             if (context.getApplicationContext() instanceof App) {
-                Log.d(TAG, "✅ App context available - notification channels will be created");
+                AppLog.d(LOG, "✅ App context available - notification channels will be created");
             }
             
-            Log.d(TAG, "✅ FCM setup verification completed");
+            AppLog.d(LOG, "✅ FCM setup verification completed");
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error verifying FCM setup", e);
+            AppLog.e(LOG, "❌ Error verifying FCM setup", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.mozoqr.app;
+
+import android.app.NotificationManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Botones "Voy" y "Listo" de la notificación de una mesa.
+ *
+ * Responde sin abrir MainActivity: quita la notificación al instante y deja
+ * que {@link CallActions} mande la acción a la API en segundo plano.
+ */
+public class CallActionReceiver extends BroadcastReceiver {
+    static final String ACTION_ACKNOWLEDGE = "com.mozoqr.app.action.CALL_ACKNOWLEDGE";
+    static final String ACTION_COMPLETE = "com.mozoqr.app.action.CALL_COMPLETE";
+    static final String EXTRA_CALL_IDS = "callIds";
+    static final String EXTRA_TABLE = "table";
+    static final String EXTRA_NOTIFICATION_ID = "notificationId";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        String kind;
+        if (ACTION_ACKNOWLEDGE.equals(action)) {
+            kind = CallOutbox.KIND_ACK;
+        } else if (ACTION_COMPLETE.equals(action)) {
+            kind = CallOutbox.KIND_COMPLETE;
+        } else {
+            return;
+        }
+        String[] callIds = intent.getStringArrayExtra(EXTRA_CALL_IDS);
+        if (callIds == null || callIds.length == 0) return;
+
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm != null) {
+            nm.cancel(intent.getIntExtra(EXTRA_NOTIFICATION_ID, 0));
+        }
+
+        // Mantiene vivo el proceso hasta que la bandeja terminó el intento
+        PendingResult pending = goAsync();
+        CallActions.get(context).submit(kind, callIds, intent.getStringExtra(EXTRA_TABLE), pending::finish);
+    }
+}
@@ -0,0 +1,199 @@
+package com.mozoqr.app;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Acciones sobre llamadas que la app resuelve sin levantar la WebView.
+ *
+ * Los botones "Voy" y "Listo" de la notificación y el registro del token
+ * FCM pasan por la {@link CallOutbox}: se guardan, se mandan por
+ * {@link ApiClient} en un único hilo (lo que llega mientras tanto sale en la
+ * misma tanda, por la misma conexión) y, si no hay red, se reintentan con un
+ * job que espera conectividad. Lo confirmado por la API se anota en el
+ * {@link CallJournal}, y la WebView se entera en su próximo
+ * {@code syncCallJournal}.
+ */
+final class CallActions implements CallOutbox.Listener {
+    private static final AppLog.Tag LOG = AppLog.tag("CallActions");
+
+    static final String OUTBOX_FILE = "call_outbox.json";
+    static final int RETRY_JOB_ID = 0x4D5A01;
+
+    private static volatile CallActions instance;
+
+    private final Context context;
+    private final CallOutbox outbox;
+    private final ApiClient api;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "MozoCallActions");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Desde el toque en la notificación hasta la respuesta de la API. */
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    static CallActions get(Context context) {
+        CallActions a = instance;
+        if (a == null) {
+            synchronized (CallActions.class) {
+                a = instance;
+                if (a == null) {
+                    a = new CallActions(context.getApplicationContext());
+                    instance = a;
+                }
+            }
+        }
+        return a;
+    }
+
+    private CallActions(Context context) {
+        this.context = context;
+        this.outbox = new CallOutbox(new File(context.getFilesDir(), OUTBOX_FILE));
+        this.api = new ApiClient(context);
+    }
+
+    /**
+     * "Voy" o "Listo" para las llamadas de una notificación.
+     *
+     * @param done se llama en el hilo de la bandeja cuando terminó el intento
+     */
+    void submit(String kind, String[] callIds, String table, Runnable done) {
+        final long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            try {
+                EscalationScheduler escalations = EscalationScheduler.get(context);
+                for (String callId : callIds) {
+                    escalations.cancel(callId);
+                    outbox.add(CallOutbox.Item.call(kind, callId, table, now));
+                }
+                drain();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    /** Registra el token FCM en el backend, ahora o cuando haya sesión. */
+    void registerToken(String token) {
+        final long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            outbox.add(CallOutbox.Item.token(token, now));
+            drain();
+        });
+    }
+
+    /** JS pasa la URL de la API y el token de sesión; manda lo que estaba esperando. */
+    void configure(String baseUrl, String token) {
+        executor.execute(() -> {
+            api.configure(baseUrl, token);
+            drain();
+        });
+        FCMTokenHelper.registerIfNeeded(context);
+    }
+
+    /** Cierre de sesión: lo pendiente era del usuario anterior. */
+    void signOut() {
+        executor.execute(() -> {
+            api.clear();
+            outbox.clear();
+            FCMTokenHelper.clearRegistered(context);
+        });
+    }
+
+    void flush(Runnable done) {
+        executor.execute(() -> {
+            try {
+                drain();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    int pending() {
+        return outbox.size();
+    }
+
+    boolean isConfigured() {
+        return api.isReady();
+    }
+
+    long delivered() {
+        return delivered.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    long retries() {
+        return retries.get();
+    }
+
+    LatencyHistogram ackLatency() {
+        return ackLatency;
+    }
+
+    private void drain() {
+        CallOutbox.Result r = outbox.drain(api, this, System.currentTimeMillis());
+        if (r.retry) {
+            retries.incrementAndGet();
+            scheduleRetry(outbox.retryDelayMs());
+        } else if (r.needsAuth) {
+            AppLog.w(LOG, "🔐 {} acciones esperando sesión", outbox.size());
+        }
+    }
+
+    @Override
+    public void onDelivered(CallOutbox.Item item) {
+        delivered.incrementAndGet();
+        if (!item.isCall()) {
+            FCMTokenHelper.markRegistered(context, item.token);
+            AppLog.d(LOG, "✅ Token FCM registrado en el backend");
+            return;
+        }
+        long latency = System.currentTimeMillis() - item.queuedAtMs;
+        ackLatency.record(latency);
+        boolean ack = CallOutbox.KIND_ACK.equals(item.kind);
+        String table = item.table.isEmpty() ? "Llamada" : "Mesa " + item.table;
+        CallJournal.get(context).append(new CallEvent(item.callId, item.table,
+                ack ? "acknowledged" : "completed", table, ack ? "En camino" : "Atendida",
+                CallEvent.DEFAULT_CHANNEL_ID, 0, 0));
+        AppLog.d(LOG, "✅ {} {} en {} ms", item.kind, item.callId, latency);
+    }
+
+    @Override
+    public void onDropped(CallOutbox.Item item, int status) {
+        dropped.incrementAndGet();
+        if (status > 0) {
+            AppLog.w(LOG, "⚠️ {} {} descartada (HTTP {})", item.kind, item.callId, status);
+        } else {
+            AppLog.w(LOG, "⚠️ {} {} descartada (vencida)", item.kind, item.callId);
+        }
+    }
+
+    /** Un job que espera red y reintenta; reemplaza al que estuviera programado. */
+    private void scheduleRetry(long delayMs) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) return;
+        JobInfo job = new JobInfo.Builder(RETRY_JOB_ID, new ComponentName(context, OutboxJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setMinimumLatency(delayMs)
+                .setPersisted(true)
+                .build();
+        scheduler.schedule(job);
+        AppLog.d(LOG, "🔁 {} acciones pendientes, reintento en {} ms", outbox.size(), delayMs);
+    }
+}
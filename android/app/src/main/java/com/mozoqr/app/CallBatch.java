@@ -0,0 +1,376 @@
+package com.mozoqr.app;
+
+import android.os.SystemClock;
+
+import com.google.firebase.messaging.RemoteMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Push compacto: varias llamadas de mesa en un solo mensaje FCM.
+ *
+ * En hora pico el backend junta las llamadas de un mozo y manda un
+ * {@code CallBatch} de protobuf (src/main/proto/call_batch.proto) en la
+ * clave {@link #DATA_KEY}, en base64url sin relleno, con los tiempos como
+ * diferencias respecto de la llamada anterior. Un push despierta la radio
+ * y el proceso una vez para todo el lote en lugar de una vez por llamada.
+ *
+ * El decoder está escrito a mano sobre el formato de cable de protobuf:
+ * no hay runtime ni objetos intermedios, los strings se crean directo de
+ * los bytes decodificados y los campos que no conoce se saltean, así que
+ * el emisor puede agregar campos sin romper versiones viejas de la app.
+ * Los emisores viejos siguen mandando claves sueltas y las parsea
+ * {@link CallEvent#fromRemoteMessage}.
+ */
+public final class CallBatch {
+    static final String DATA_KEY = "mz";
+    static final int VERSION = 1;
+
+    /** Tipos de {@code Kind} por número; el 0 es el valor por defecto y no viaja. */
+    private static final String[] KIND_TYPES = {
+            "new_call", "call_acknowledged", "call_completed", "call_cancelled"
+    };
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private CallBatch() {}
+
+    /**
+     * Decodifica el lote si el mensaje trae uno.
+     *
+     * @return las llamadas en el orden del lote, o {@code null} si el mensaje no es compacto
+     * @throws IllegalArgumentException si el lote está mal formado o es de una versión desconocida
+     */
+    public static List<CallEvent> fromRemoteMessage(RemoteMessage msg) {
+        Map<String, String> data = msg.getData();
+        String payload = data != null ? data.get(DATA_KEY) : null;
+        if (payload == null) {
+            return null;
+        }
+        return decode(payload, SystemClock.elapsedRealtimeNanos());
+    }
+
+    static List<CallEvent> decode(String payload, long receivedAtNanos) {
+        byte[] buf = base64UrlDecode(payload);
+
+        // Primera pasada sólo por los campos de arriba: protobuf no garantiza que
+        // version y base_time_ms vengan antes que las llamadas
+        int version = 0;
+        long baseTimeMs = 0;
+        int calls = 0;
+        Reader r = new Reader(buf, 0, buf.length);
+        while (r.hasMore()) {
+            int tag = r.varint32();
+            switch (tag) {
+                case (1 << 3) | WIRE_VARINT:
+                    version = r.varint32();
+                    break;
+                case (2 << 3) | WIRE_VARINT:
+                    baseTimeMs = r.varint();
+                    break;
+                case (3 << 3) | WIRE_LENGTH:
+                    r.skip(WIRE_LENGTH);
+                    calls++;
+                    break;
+                default:
+                    r.skip(tag & 7);
+            }
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de lote no soportada: " + version);
+        }
+
+        List<CallEvent> events = new ArrayList<>(calls);
+        long timeMs = baseTimeMs;
+        r = new Reader(buf, 0, buf.length);
+        while (r.hasMore()) {
+            int tag = r.varint32();
+            if (tag != ((3 << 3) | WIRE_LENGTH)) {
+                r.skip(tag & 7);
+                continue;
+            }
+            int len = r.length();
+            Reader call = new Reader(buf, r.pos, r.pos + len);
+            r.pos += len;
+
+            String callId = "";
+            String table = "";
+            String type = null;
+            int kind = 0;
+            String channelId = "";
+            String title = "";
+            String message = "";
+            while (call.hasMore()) {
+                int field = call.varint32();
+                switch (field) {
+                    case (1 << 3) | WIRE_LENGTH:
+                        callId = call.string();
+                        break;
+                    case (2 << 3) | WIRE_LENGTH:
+                        table = call.string();
+                        break;
+                    case (3 << 3) | WIRE_VARINT:
+                        kind = call.varint32();
+                        break;
+                    case (4 << 3) | WIRE_VARINT:
+                        long zigzag = call.varint();
+                        timeMs += (zigzag >>> 1) ^ -(zigzag & 1);
+                        break;
+                    case (5 << 3) | WIRE_LENGTH:
+                        channelId = call.string();
+                        break;
+                    case (6 << 3) | WIRE_LENGTH:
+                        title = call.string();
+                        break;
+                    case (7 << 3) | WIRE_LENGTH:
+                        message = call.string();
+                        break;
+                    case (8 << 3) | WIRE_LENGTH:
+                        type = call.string();
+                        break;
+                    default:
+                        call.skip(field & 7);
+                }
+            }
+
+            if (type == null || type.isEmpty()) {
+                // Un Kind que esta versión no conoce podría cerrar una llamada: no se adivina
+                if (kind < 0 || kind >= KIND_TYPES.length) continue;
+                type = KIND_TYPES[kind];
+            }
+            if (callId.isEmpty() && table.isEmpty()) continue;
+            events.add(new CallEvent(callId, table, type,
+                    title.isEmpty() ? CallEvent.defaultTitle(table) : title,
+                    message.isEmpty() ? CallEvent.DEFAULT_BODY : message,
+                    channelId.isEmpty() ? CallEvent.DEFAULT_CHANNEL_ID : channelId,
+                    baseTimeMs > 0 ? timeMs : 0, receivedAtNanos));
+        }
+        return events;
+    }
+
+    /** Lector del formato de cable sobre un tramo del buffer, sin copiarlo. */
+    private static final class Reader {
+        private final byte[] buf;
+        private final int end;
+        int pos;
+
+        Reader(byte[] buf, int pos, int end) {
+            this.buf = buf;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return pos < end;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= end) throw new IllegalArgumentException("Varint truncado");
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalArgumentException("Varint demasiado largo");
+        }
+
+        int varint32() {
+            return (int) varint();
+        }
+
+        int length() {
+            long len = varint();
+            if (len < 0 || len > end - pos) throw new IllegalArgumentException("Largo fuera del lote: " + len);
+            return (int) len;
+        }
+
+        String string() {
+            int len = length();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT:
+                    varint();
+                    break;
+                case WIRE_FIXED64:
+                    advance(8);
+                    break;
+                case WIRE_LENGTH:
+                    advance(length());
+                    break;
+                case WIRE_FIXED32:
+                    advance(4);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Tipo de campo no soportado: " + wireType);
+            }
+        }
+
+        private void advance(int n) {
+            if (n > end - pos) throw new IllegalArgumentException("Campo truncado");
+            pos += n;
+        }
+    }
+
+    /** Valor de cada carácter base64 (ambos alfabetos); -1 si no es válido. */
+    private static final byte[] SEXTETS = new byte[128];
+
+    static {
+        Arrays.fill(SEXTETS, (byte) -1);
+        for (int i = 0; i < 26; i++) {
+            SEXTETS['A' + i] = (byte) i;
+            SEXTETS['a' + i] = (byte) (26 + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            SEXTETS['0' + i] = (byte) (52 + i);
+        }
+        SEXTETS['-'] = SEXTETS['+'] = 62;
+        SEXTETS['_'] = SEXTETS['/'] = 63;
+    }
+
+    // java.util.Base64 es API 26 y android.util.Base64 no existe en los tests de JVM.
+    // Acepta también el alfabeto estándar y relleno, por si el emisor no usa base64url
+    static byte[] base64UrlDecode(String s) {
+        int len = s.length();
+        while (len > 0 && s.charAt(len - 1) == '=') len--;
+        if (len % 4 == 1) throw new IllegalArgumentException("Base64 truncado");
+        byte[] out = new byte[len * 3 / 4];
+        int full = len - len % 4;
+        int o = 0;
+        for (int i = 0; i < full; i += 4) {
+            int n = sextet(s, i) << 18 | sextet(s, i + 1) << 12 | sextet(s, i + 2) << 6 | sextet(s, i + 3);
+            out[o++] = (byte) (n >>> 16);
+            out[o++] = (byte) (n >>> 8);
+            out[o++] = (byte) n;
+        }
+        if (len - full >= 2) {
+            int n = sextet(s, full) << 18 | sextet(s, full + 1) << 12;
+            if (len - full == 3) n |= sextet(s, full + 2) << 6;
+            out[o++] = (byte) (n >>> 16);
+            if (len - full == 3) out[o] = (byte) (n >>> 8);
+        }
+        return out;
+    }
+
+    private static int sextet(String s, int i) {
+        char c = s.charAt(i);
+        int v = c < 128 ? SEXTETS[c] : -1;
+        if (v < 0) throw new IllegalArgumentException("Carácter inválido en base64: " + c);
+        return v;
+    }
+
+    /**
+     * Arma un lote como lo haría el backend. Lo usan los tests y el simulador
+     * de pico; en producción el emisor es el servidor.
+     */
+    static final class Writer {
+        private final ByteArrayOutputStream calls = new ByteArrayOutputStream();
+        private long baseTimeMs = -1;
+        private long lastTimeMs;
+
+        /** Agrega una llamada; {@code channelId}, {@code title} y {@code message} pueden ser null. */
+        Writer add(String callId, String table, String type, long timeMs,
+                   String channelId, String title, String message) {
+            if (baseTimeMs < 0) {
+                baseTimeMs = timeMs;
+                lastTimeMs = timeMs;
+            }
+            ByteArrayOutputStream call = new ByteArrayOutputStream(64);
+            string(call, 1, callId);
+            string(call, 2, table);
+            int kind = kindOf(type);
+            if (kind > 0) {
+                tag(call, 3, WIRE_VARINT);
+                varint(call, kind);
+            } else if (kind < 0) {
+                string(call, 8, type);
+            }
+            long delta = timeMs - lastTimeMs;
+            lastTimeMs = timeMs;
+            if (delta != 0) {
+                tag(call, 4, WIRE_VARINT);
+                varint(call, (delta << 1) ^ (delta >> 63));
+            }
+            string(call, 5, channelId);
+            string(call, 6, title);
+            string(call, 7, message);
+            tag(calls, 3, WIRE_LENGTH);
+            varint(calls, call.size());
+            calls.write(call.toByteArray(), 0, call.size());
+            return this;
+        }
+
+        byte[] toByteArray() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(calls.size() + 16);
+            tag(out, 1, WIRE_VARINT);
+            varint(out, VERSION);
+            if (baseTimeMs > 0) {
+                tag(out, 2, WIRE_VARINT);
+                varint(out, baseTimeMs);
+            }
+            out.write(calls.toByteArray(), 0, calls.size());
+            return out.toByteArray();
+        }
+
+        /** El valor de {@link #DATA_KEY}. */
+        String encode() {
+            return base64UrlEncode(toByteArray());
+        }
+
+        private static int kindOf(String type) {
+            for (int i = 0; i < KIND_TYPES.length; i++) {
+                if (KIND_TYPES[i].equals(type)) return i;
+            }
+            return -1;
+        }
+
+        private static void string(ByteArrayOutputStream out, int field, String value) {
+            if (value == null || value.isEmpty()) return;
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            tag(out, field, WIRE_LENGTH);
+            varint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private static void tag(ByteArrayOutputStream out, int field, int wireType) {
+            varint(out, (field << 3) | wireType);
+        }
+
+        private static void varint(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static final char[] B64URL =
+                "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+        static String base64UrlEncode(byte[] data) {
+            StringBuilder sb = new StringBuilder((data.length * 4 + 2) / 3);
+            for (int i = 0; i < data.length; i += 3) {
+                int n = (data[i] & 0xFF) << 16;
+                if (i + 1 < data.length) n |= (data[i + 1] & 0xFF) << 8;
+                if (i + 2 < data.length) n |= data[i + 2] & 0xFF;
+                sb.append(B64URL[(n >>> 18) & 63]).append(B64URL[(n >>> 12) & 63]);
+                if (i + 1 < data.length) sb.append(B64URL[(n >>> 6) & 63]);
+                if (i + 2 < data.length) sb.append(B64URL[n & 63]);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mozoqr.app;
+
+import android.os.SystemClock;
+
+import com.google.firebase.messaging.RemoteMessage;
+
+import java.util.Map;
+
+/**
+ * Llamada de mesa ya parseada desde un push FCM.
+ *
+ * Inmutable: se crea en el hilo de FCM y se consume en el worker de
+ * {@link CallEventPipeline}, así que no necesita sincronización.
+ */
+public final class CallEvent {
+    static final String DEFAULT_CHANNEL_ID = "waiter_normal";
+    static final String DEFAULT_BODY = "Nueva llamada de mesa";
+
+    public final String callId;
+    public final String table;
+    public final String type;
+    public final String title;
+    public final String body;
+    public final String channelId;
+    /** Momento de envío según FCM (reloj del servidor, ms epoch); 0 si no se conoce. */
+    public final long sentTimeMs;
+    /** Momento de recepción local ({@link SystemClock#elapsedRealtimeNanos()}). */
+    public final long receivedAtNanos;
+
+    CallEvent(String callId, String table, String type, String title, String body, String channelId,
+              long sentTimeMs, long receivedAtNanos) {
+        this.callId = callId;
+        this.table = table;
+        this.type = type;
+        this.title = title;
+        this.body = body;
+        this.channelId = channelId;
+        this.sentTimeMs = sentTimeMs;
+        this.receivedAtNanos = receivedAtNanos;
+    }
+
+    /**
+     * Parsea el mensaje en una sola pasada sobre el mapa de datos.
+     *
+     * @return el evento, o {@code null} si el mensaje no parece una llamada de mesa
+     */
+    public static CallEvent fromRemoteMessage(RemoteMessage msg) {
+        long receivedAt = SystemClock.elapsedRealtimeNanos();
+        Map<String, String> data = msg.getData();
+
+        String type = value(data, "type", "");
+        String table = value(data, "table_number", "");
+        String callId = value(data, "call_id", null);
+        if (callId == null) callId = value(data, "callId", null);
+        if (callId == null) callId = value(data, "callID", "");
+
+        boolean looksLikeCall = !table.isEmpty() || !callId.isEmpty()
+                || "waiter_call".equalsIgnoreCase(type)
+                || "new_call".equalsIgnoreCase(type)
+                || "unified".equalsIgnoreCase(type);
+        if (!looksLikeCall) {
+            return null;
+        }
+
+        // Canal dinámico si llega; fallback al normal definido por App.java
+        String channelId = value(data, "channel_id", null);
+        if (channelId == null) channelId = value(data, "android_channel_id", DEFAULT_CHANNEL_ID);
+
+        RemoteMessage.Notification notification = msg.getNotification();
+        String title = notification != null ? notification.getTitle() : null;
+        if (title == null) {
+            title = value(data, "title", null);
+            if (title == null) title = defaultTitle(table);
+        }
+        String body = notification != null ? notification.getBody() : null;
+        if (body == null) body = value(data, "message", DEFAULT_BODY);
+
+        return new CallEvent(callId, table, type, title, body, channelId, msg.getSentTime(), receivedAt);
+    }
+
+    static String defaultTitle(String table) {
+        return "Mesa " + (table.isEmpty() ? "?" : table) + " solicita mozo";
+    }
+
+    public boolean hasCallId() {
+        return !callId.isEmpty();
+    }
+
+    private static String value(Map<String, String> data, String key, String def) {
+        if (data == null) return def;
+        String v = data.get(key);
+        return v != null ? v : def;
+    }
+}
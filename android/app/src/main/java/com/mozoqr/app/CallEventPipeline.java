@@ -0,0 +1,338 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline de ingesta de llamadas de mesa recibidas por FCM.
+ *
+ * El hilo de FCM sólo parsea y encola ({@link #submit}); un único worker
+ * drena la cola, descarta duplicados por call_id dentro de una ventana
+ * deslizante, agrupa las ráfagas por mesa y publica una notificación por
+ * mesa. Así una ráfaga de 50+ pushes por segundo no se convierte en 50
+ * notificaciones ni en 50 IPC a NotificationManager.
+ *
+ * La cola es acotada y sin locks: si se llena el evento se descarta y se
+ * cuenta en {@link #dropped()}.
+ *
+ * Reloj y notificador se inyectan por el constructor de paquete para los
+ * tests de JVM; {@link #get} arma los de Android.
+ */
+public final class CallEventPipeline {
+    private static final AppLog.Tag LOG = AppLog.tag("CallPipeline");
+
+    static final int CAPACITY = 256;
+    /** Un call_id repetido dentro de esta ventana desde que se vio por primera vez es duplicado. */
+    static final long DEDUP_WINDOW_MS = 30_000;
+    /** Espera máxima desde el primer evento de una ráfaga hasta publicar. */
+    static final long COALESCE_WINDOW_MS = 50;
+    /** Las llamadas de una mesa se siguen mostrando agrupadas mientras sean más recientes que esto. */
+    static final long TABLE_HISTORY_MS = 60_000;
+    private static final int MAX_TABLE_HISTORY = 20;
+    private static final int STATS_LOG_EVERY = 50;
+
+    private static volatile CallEventPipeline instance;
+
+    /** Reloj monótono del pipeline, en nanos. */
+    interface Clock {
+        long nanos();
+    }
+
+    /** Lo que el worker hace con cada lote. */
+    interface Notifier {
+        /** Publica la notificación de una mesa; {@code false} si no se pudo. */
+        boolean notifyTable(String table, List<CallEvent> shown);
+
+        /** Cada evento del lote antes de notificar, repetido o no. */
+        void onCallEvent(CallEvent event, boolean duplicate);
+
+        /** El lote completo, después de notificar. */
+        void onFlushed(List<CallEvent> batch);
+    }
+
+    private final ConcurrentLinkedQueue<CallEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Clock clock;
+    private final Notifier notifier;
+    private final Thread worker;
+
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+    private final LatencyHistogram localLatency = new LatencyHistogram();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+
+    // Estado propiedad exclusiva del worker: no requiere sincronización.
+    // En orden de primera aparición, que es también el de vencimiento
+    private final LinkedHashMap<String, Long> seenCallIds = new LinkedHashMap<>();
+    private final HashMap<String, ArrayList<CallEvent>> tableHistory = new HashMap<>();
+
+    public static CallEventPipeline get(Context context) {
+        CallEventPipeline p = instance;
+        if (p == null) {
+            synchronized (CallEventPipeline.class) {
+                p = instance;
+                if (p == null) {
+                    p = new CallEventPipeline(SystemClock::elapsedRealtimeNanos,
+                            new AppNotifier(context.getApplicationContext()));
+                    p.start();
+                    instance = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /** Sin arrancar el worker: los tests pueden llamar a {@link #flush} directo. */
+    CallEventPipeline(Clock clock, Notifier notifier) {
+        this.clock = clock;
+        this.notifier = notifier;
+        this.worker = new Thread(this::drainLoop, "MozoCallDrain");
+        this.worker.setDaemon(true);
+    }
+
+    void start() {
+        worker.start();
+    }
+
+    /**
+     * Encola un evento para notificar. No bloquea.
+     *
+     * @return {@code false} si la cola estaba llena y el evento se descartó
+     */
+    public boolean submit(CallEvent event) {
+        received.incrementAndGet();
+        if (depth.incrementAndGet() > CAPACITY) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            AppLog.w(LOG, "⚠️ Cola llena, llamada descartada");
+            return false;
+        }
+        queue.offer(event);
+        LockSupport.unpark(worker);
+        return true;
+    }
+
+    public int queueDepth() {
+        return depth.get();
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    public long duplicates() {
+        return duplicates.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long notifications() {
+        return notifications.get();
+    }
+
+    /** Latencia desde {@code RemoteMessage.getSentTime()} hasta {@code notify()}. */
+    public LatencyHistogram endToEndLatency() {
+        return endToEndLatency;
+    }
+
+    /** Latencia desde la recepción en el dispositivo hasta {@code notify()}. */
+    public LatencyHistogram localLatency() {
+        return localLatency;
+    }
+
+    public String stats() {
+        return "received=" + received.get() + " duplicates=" + duplicates.get() + " dropped=" + dropped.get()
+                + " notifications=" + notifications.get() + " depth=" + depth.get()
+                + " | sent→notify " + endToEndLatency + " | local " + localLatency;
+    }
+
+    private void drainLoop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_FOREGROUND);
+        final long coalesceNanos = TimeUnit.MILLISECONDS.toNanos(COALESCE_WINDOW_MS);
+        ArrayList<CallEvent> batch = new ArrayList<>();
+        while (true) {
+            CallEvent first = poll();
+            if (first == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            batch.add(first);
+
+            // Dar una ventana corta para que el resto de la ráfaga llegue y se agrupe
+            long deadline = first.receivedAtNanos + coalesceNanos;
+            long now;
+            while ((now = clock.nanos()) < deadline) {
+                CallEvent next = poll();
+                if (next == null) {
+                    LockSupport.parkNanos(this, deadline - now);
+                } else {
+                    batch.add(next);
+                }
+            }
+            CallEvent next;
+            while ((next = poll()) != null) {
+                batch.add(next);
+            }
+
+            try {
+                flush(batch);
+            } catch (Exception e) {
+                AppLog.e(LOG, "❌ Error procesando lote de llamadas", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private CallEvent poll() {
+        CallEvent e = queue.poll();
+        if (e != null) depth.decrementAndGet();
+        return e;
+    }
+
+    void flush(List<CallEvent> batch) {
+        long nowMs = TimeUnit.NANOSECONDS.toMillis(clock.nanos());
+        pruneSeen(nowMs);
+
+        // Agrupar por mesa conservando el orden de llegada
+        LinkedHashMap<String, ArrayList<CallEvent>> byTable = new LinkedHashMap<>();
+        for (CallEvent e : batch) {
+            if (e.hasCallId()) {
+                // La ventana corre desde la primera vez: reintentos constantes no la estiran
+                boolean duplicate = seenCallIds.containsKey(e.callId);
+                if (!duplicate) {
+                    seenCallIds.put(e.callId, nowMs);
+                }
+                // Un aviso de atendida con el mismo call_id cierra los recordatorios aunque sea "repetido"
+                notifier.onCallEvent(e, duplicate);
+                if (duplicate) {
+                    duplicates.incrementAndGet();
+                    continue;
+                }
+            }
+            String key = !e.table.isEmpty() ? e.table : "call:" + e.callId;
+            ArrayList<CallEvent> group = byTable.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                byTable.put(key, group);
+            }
+            group.add(e);
+        }
+
+        for (Map.Entry<String, ArrayList<CallEvent>> entry : byTable.entrySet()) {
+            ArrayList<CallEvent> events = entry.getValue();
+            String table = events.get(0).table;
+            List<CallEvent> shown = table.isEmpty() ? events : appendHistory(table, events);
+            if (notifier.notifyTable(table, shown)) {
+                recordLatency(events);
+            }
+        }
+
+        notifier.onFlushed(batch);
+    }
+
+    private List<CallEvent> appendHistory(String table, List<CallEvent> events) {
+        long cutoff = clock.nanos() - TimeUnit.MILLISECONDS.toNanos(TABLE_HISTORY_MS);
+        ArrayList<CallEvent> history = tableHistory.get(table);
+        if (history == null) {
+            history = new ArrayList<>();
+            tableHistory.put(table, history);
+        }
+        Iterator<CallEvent> it = history.iterator();
+        while (it.hasNext()) {
+            if (it.next().receivedAtNanos < cutoff) it.remove();
+        }
+        history.addAll(events);
+        while (history.size() > MAX_TABLE_HISTORY) {
+            history.remove(0);
+        }
+        return history;
+    }
+
+    private void pruneSeen(long nowMs) {
+        Iterator<Map.Entry<String, Long>> it = seenCallIds.entrySet().iterator();
+        while (it.hasNext()) {
+            if (nowMs - it.next().getValue() <= DEDUP_WINDOW_MS) break;
+            it.remove();
+        }
+        if (tableHistory.size() > 64) {
+            // Mesas sin llamadas recientes: liberar
+            long cutoff = clock.nanos() - TimeUnit.MILLISECONDS.toNanos(TABLE_HISTORY_MS);
+            Iterator<ArrayList<CallEvent>> tables = tableHistory.values().iterator();
+            while (tables.hasNext()) {
+                ArrayList<CallEvent> h = tables.next();
+                if (h.isEmpty() || h.get(h.size() - 1).receivedAtNanos < cutoff) tables.remove();
+            }
+        }
+    }
+
+    private void recordLatency(List<CallEvent> events) {
+        long wallNow = System.currentTimeMillis();
+        long localNow = clock.nanos();
+        for (CallEvent e : events) {
+            if (e.sentTimeMs > 0) {
+                endToEndLatency.record(wallNow - e.sentTimeMs);
+            }
+            localLatency.record(TimeUnit.NANOSECONDS.toMillis(localNow - e.receivedAtNanos));
+            long n = notifications.incrementAndGet();
+            if (n % STATS_LOG_EVERY == 0) {
+                AppLog.i(LOG, "📊 {}", stats());
+            }
+        }
+    }
+
+    /** Notificación, recordatorios y diario del dispositivo. */
+    private static final class AppNotifier implements Notifier {
+        private final Context context;
+        private final CallNotifier notifier;
+        // Sólo el worker los usa; se crean en el primer lote
+        private EscalationScheduler escalations;
+        private CallJournal journal;
+
+        AppNotifier(Context context) {
+            this.context = context;
+            this.notifier = new CallNotifier(context);
+        }
+
+        @Override
+        public boolean notifyTable(String table, List<CallEvent> shown) {
+            return notifier.notifyTable(table, shown);
+        }
+
+        @Override
+        public void onCallEvent(CallEvent event, boolean duplicate) {
+            if (escalations == null) {
+                escalations = EscalationScheduler.get(context);
+            }
+            escalations.onCallEvent(event, duplicate);
+        }
+
+        @Override
+        public void onFlushed(List<CallEvent> batch) {
+            // Después de notificar: el diario no suma latencia a la notificación.
+            // Guarda también los repetidos de otro tipo (p. ej. la llamada ya atendida)
+            if (journal == null) {
+                journal = CallJournal.get(context);
+            }
+            for (CallEvent e : batch) {
+                journal.append(e);
+            }
+        }
+    }
+}
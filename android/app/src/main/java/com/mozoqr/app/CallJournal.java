@@ -0,0 +1,471 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Diario persistente de las llamadas de mesa recibidas por FCM.
+ *
+ * Log append-only mapeado en memoria: cada llamada se escribe una sola vez con
+ * un número de secuencia creciente, la haya abierto la WebView o no. Al volver
+ * al frente la WebView pide sólo lo posterior a su cursor ({@link #since}) en
+ * lugar de re-descargar todas las llamadas. En memoria hay un índice por
+ * secuencia, por call_id y por mesa; los datos se leen del mapeo.
+ *
+ * Las escrituras van al mapeo, así que sobreviven a que el sistema mate el
+ * proceso. Un registro cortado por un apagado se detecta por CRC al abrir y se
+ * descarta. Cuando el archivo llega a {@link #MAX_CAPACITY} se reescribe con
+ * los últimos {@link #RETAIN_EVENTS} eventos; las secuencias no se reinician.
+ */
+public final class CallJournal {
+    private static final AppLog.Tag LOG = AppLog.tag("CallJournal");
+
+    static final String FILE_NAME = "call_journal.log";
+    private static final int MAGIC = 0x4d4f5a4a; // "MOZJ"
+    private static final int VERSION = 1;
+    // magic + versión + id del diario + primera secuencia
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    static final int INITIAL_CAPACITY = 64 * 1024;
+    static final int MAX_CAPACITY = 512 * 1024;
+    /** Eventos que se conservan al compactar. */
+    static final int RETAIN_EVENTS = 1000;
+    private static final int MAX_STRING_BYTES = 4096;
+    // largo + secuencia + recibido + enviado ... crc
+    private static final int RECORD_OVERHEAD = 4 + 8 + 8 + 8 + 4;
+
+    private static volatile CallJournal instance;
+
+    /** Un evento del diario. */
+    public static final class Entry {
+        public final long seq;
+        /** Momento de recepción local (ms epoch). */
+        public final long receivedAtMs;
+        /** Momento de envío según FCM (ms epoch); 0 si no se conoce. */
+        public final long sentTimeMs;
+        public final String callId;
+        public final String table;
+        public final String type;
+        public final String title;
+        public final String body;
+
+        Entry(long seq, long receivedAtMs, long sentTimeMs, String callId, String table, String type,
+              String title, String body) {
+            this.seq = seq;
+            this.receivedAtMs = receivedAtMs;
+            this.sentTimeMs = sentTimeMs;
+            this.callId = callId;
+            this.table = table;
+            this.type = type;
+            this.title = title;
+            this.body = body;
+        }
+    }
+
+    /** Resultado de {@link #since}. */
+    public static final class Delta {
+        public final long journalId;
+        /** Cursor a guardar para la próxima lectura. */
+        public final long cursor;
+        /**
+         * {@code true} si el cursor no es de este diario o es anterior a lo que
+         * se conserva: hay que recargar todo desde la API.
+         */
+        public final boolean reset;
+        /** {@code true} si quedaron eventos sin devolver por el límite. */
+        public final boolean more;
+        public final List<Entry> entries;
+
+        Delta(long journalId, long cursor, boolean reset, boolean more, List<Entry> entries) {
+            this.journalId = journalId;
+            this.cursor = cursor;
+            this.reset = reset;
+            this.more = more;
+            this.entries = entries;
+        }
+    }
+
+    /** Se avisa en el hilo que escribió, fuera del lock del diario. */
+    public interface Listener {
+        void onAppended(Entry entry);
+    }
+
+    private final File file;
+    private volatile Listener listener;
+
+    // Protegido por this
+    private RandomAccessFile raf;
+    private MappedByteBuffer map;
+    private long journalId;
+    private long firstSeq = 1;
+    private int[] offsets = new int[256];
+    private int count;
+    private int end = HEADER_SIZE;
+    private final HashMap<String, Long> byCallId = new HashMap<>();
+    private final HashMap<String, ArrayList<Long>> byTable = new HashMap<>();
+
+    public static CallJournal get(Context context) {
+        CallJournal j = instance;
+        if (j == null) {
+            synchronized (CallJournal.class) {
+                j = instance;
+                if (j == null) {
+                    j = open(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                    instance = j;
+                }
+            }
+        }
+        return j;
+    }
+
+    static CallJournal open(File file) {
+        CallJournal j = new CallJournal(file);
+        try {
+            j.load();
+        } catch (IOException e) {
+            AppLog.e(LOG, "❌ Diario de llamadas ilegible, se empieza vacío", e);
+            try {
+                j.create(1);
+            } catch (IOException e2) {
+                AppLog.e(LOG, "❌ No se pudo crear el diario de llamadas", e2);
+            }
+        }
+        return j;
+    }
+
+    private CallJournal(File file) {
+        this.file = file;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Agrega una llamada al diario. Un push repetido (mismo call_id y tipo que
+     * el último evento de esa llamada) no se vuelve a escribir.
+     *
+     * @return el evento escrito, o {@code null} si era repetido o no se pudo escribir
+     */
+    public Entry append(CallEvent event) {
+        Entry entry;
+        synchronized (this) {
+            if (map == null) {
+                return null;
+            }
+            if (event.hasCallId()) {
+                Long last = byCallId.get(event.callId);
+                if (last != null && event.type.equals(read(last).type)) {
+                    return null;
+                }
+            }
+            entry = new Entry(firstSeq + count, System.currentTimeMillis(), event.sentTimeMs,
+                    event.callId, event.table, event.type, event.title, event.body);
+            try {
+                write(entry);
+            } catch (IOException e) {
+                AppLog.e(LOG, "❌ No se pudo escribir en el diario de llamadas", e);
+                return null;
+            }
+        }
+        Listener l = listener;
+        if (l != null) {
+            l.onAppended(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Eventos posteriores a {@code cursor}, en orden.
+     *
+     * @param journalId el id del diario de la lectura anterior, o 0 si no hubo
+     * @param cursor    la secuencia del último evento ya visto, 0 para leer todo
+     * @param limit     máximo de eventos a devolver
+     */
+    public synchronized Delta since(long journalId, long cursor, int limit) {
+        long lastSeq = firstSeq + count - 1;
+        boolean reset = journalId != 0 && journalId != this.journalId
+                || cursor > lastSeq
+                || cursor != 0 && cursor < firstSeq - 1;
+        long from = reset ? firstSeq : Math.max(cursor + 1, firstSeq);
+        int n = (int) Math.max(0, Math.min(lastSeq - from + 1, limit));
+        ArrayList<Entry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            entries.add(read(from + i));
+        }
+        long next = n > 0 ? from + n - 1 : (reset ? firstSeq - 1 : Math.max(cursor, firstSeq - 1));
+        return new Delta(this.journalId, next, reset, next < lastSeq, entries);
+    }
+
+    /** Último evento de una llamada, o {@code null}. */
+    public synchronized Entry latest(String callId) {
+        Long seq = byCallId.get(callId);
+        return seq != null ? read(seq) : null;
+    }
+
+    /** Eventos de una mesa que siguen en el diario, del más viejo al más nuevo. */
+    public synchronized List<Entry> forTable(String table) {
+        ArrayList<Long> seqs = byTable.get(table);
+        ArrayList<Entry> entries = new ArrayList<>(seqs != null ? seqs.size() : 0);
+        if (seqs != null) {
+            for (Long seq : seqs) {
+                entries.add(read(seq));
+            }
+        }
+        return entries;
+    }
+
+    public synchronized long journalId() {
+        return journalId;
+    }
+
+    /** Secuencia del último evento, o la anterior a la primera si está vacío. */
+    public synchronized long lastSeq() {
+        return firstSeq + count - 1;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    synchronized void close() throws IOException {
+        map = null;
+        if (raf != null) {
+            raf.close();
+            raf = null;
+        }
+    }
+
+    // --- Formato ---
+
+    private void write(Entry e) throws IOException {
+        byte[][] strings = {
+                bytes(e.callId), bytes(e.table), bytes(e.type), bytes(e.title), bytes(e.body)
+        };
+        int size = RECORD_OVERHEAD;
+        for (byte[] s : strings) {
+            size += 2 + s.length;
+        }
+        if (end + size > map.capacity()) {
+            makeRoom(size);
+        }
+
+        int start = end;
+        ByteBuffer out = map.duplicate();
+        out.position(start);
+        out.putInt(size - 8);
+        out.putLong(e.seq);
+        out.putLong(e.receivedAtMs);
+        out.putLong(e.sentTimeMs);
+        for (byte[] s : strings) {
+            out.putShort((short) s.length);
+            out.put(s);
+        }
+        out.putInt(crc(start, size));
+        end = start + size;
+        index(e.seq, start, e.callId, e.table);
+    }
+
+    private Entry read(long seq) {
+        ByteBuffer in = map.duplicate();
+        in.position(offsets[(int) (seq - firstSeq)] + 4);
+        long s = in.getLong();
+        long receivedAt = in.getLong();
+        long sent = in.getLong();
+        return new Entry(s, receivedAt, sent, string(in), string(in), string(in), string(in), string(in));
+    }
+
+    private int crc(int start, int size) {
+        byte[] record = new byte[size - 8];
+        ByteBuffer in = map.duplicate();
+        in.position(start + 4);
+        in.get(record);
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return (int) crc.getValue();
+    }
+
+    private void index(long seq, int offset, String callId, String table) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = offset;
+        if (!callId.isEmpty()) {
+            byCallId.put(callId, seq);
+        }
+        if (!table.isEmpty()) {
+            ArrayList<Long> seqs = byTable.get(table);
+            if (seqs == null) {
+                seqs = new ArrayList<>();
+                byTable.put(table, seqs);
+            }
+            seqs.add(seq);
+        }
+    }
+
+    private void clearIndex() {
+        count = 0;
+        byCallId.clear();
+        byTable.clear();
+    }
+
+    /** Compacta si el registro no entra en el máximo y agranda el mapeo si hace falta. */
+    private void makeRoom(int size) throws IOException {
+        if (end + size > MAX_CAPACITY) {
+            compact(size);
+        }
+        int capacity = map.capacity();
+        while (end + size > capacity) {
+            capacity = Math.min(capacity * 2, MAX_CAPACITY);
+        }
+        if (capacity != map.capacity()) {
+            remap(capacity);
+        }
+    }
+
+    /**
+     * Reescribe el diario con los últimos eventos (hasta {@link #RETAIN_EVENTS}
+     * y media capacidad) y lo reemplaza atómicamente.
+     */
+    private void compact(int needed) throws IOException {
+        int keep = 0;
+        int bytes = 0;
+        while (keep < count && keep < RETAIN_EVENTS) {
+            int i = count - 1 - keep;
+            int size = (i + 1 < count ? offsets[i + 1] : end) - offsets[i];
+            if (HEADER_SIZE + bytes + size + needed > MAX_CAPACITY / 2) {
+                break;
+            }
+            bytes += size;
+            keep++;
+        }
+        long keepFrom = firstSeq + count - keep;
+
+        File tmp = new File(file.getPath() + ".tmp");
+        CallJournal copy = new CallJournal(tmp);
+        copy.journalId = journalId;
+        copy.createFile(keepFrom);
+        for (long seq = keepFrom; seq < firstSeq + count; seq++) {
+            copy.write(read(seq));
+        }
+        copy.map.force();
+        copy.close();
+
+        close();
+        if (!tmp.renameTo(file)) {
+            throw new IOException("No se pudo reemplazar " + file);
+        }
+        load();
+    }
+
+    private void load() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        long length = raf.length();
+        if (length < HEADER_SIZE) {
+            create(1);
+            return;
+        }
+        map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+            AppLog.w(LOG, "⚠️ Diario de llamadas con formato desconocido, se empieza vacío");
+            create(1);
+            return;
+        }
+        journalId = map.getLong(8);
+        firstSeq = map.getLong(16);
+        clearIndex();
+
+        int position = HEADER_SIZE;
+        long expected = firstSeq;
+        while (position + RECORD_OVERHEAD <= length) {
+            int bodyLength = map.getInt(position);
+            int size = bodyLength + 8;
+            if (bodyLength <= 0 || size < RECORD_OVERHEAD || position + (long) size > length) {
+                break;
+            }
+            if (crc(position, size) != map.getInt(position + size - 4) || map.getLong(position + 4) != expected) {
+                break;
+            }
+            ByteBuffer in = map.duplicate();
+            in.position(position + 4 + 8 + 8 + 8);
+            String callId = string(in);
+            String table = string(in);
+            index(expected, position, callId, table);
+            expected++;
+            position += size;
+        }
+        end = position;
+
+        // Lo que haya después del último registro válido (ceros o un registro cortado) se pisa
+        if (end < length && map.get(end) != 0) {
+            AppLog.w(LOG, "⚠️ Diario de llamadas con cola dañada, se descartan {} bytes", length - end);
+            ByteBuffer zero = map.duplicate();
+            zero.position(end);
+            while (zero.hasRemaining()) {
+                zero.put((byte) 0);
+            }
+        }
+    }
+
+    /** Crea un diario vacío con un id nuevo. */
+    private void create(long firstSeq) throws IOException {
+        journalId = newJournalId();
+        createFile(firstSeq);
+    }
+
+    private void createFile(long firstSeq) throws IOException {
+        if (raf == null) {
+            raf = new RandomAccessFile(file, "rw");
+        }
+        raf.setLength(0);
+        this.firstSeq = firstSeq;
+        clearIndex();
+        remap(INITIAL_CAPACITY);
+        map.putInt(0, MAGIC);
+        map.putInt(4, VERSION);
+        map.putLong(8, journalId);
+        map.putLong(16, firstSeq);
+        end = HEADER_SIZE;
+    }
+
+    private void remap(int capacity) throws IOException {
+        map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static long newJournalId() {
+        // Mayor que 0, que en since() significa "sin diario previo", y menor que
+        // 2^53 para que llegue intacto a JS
+        return System.currentTimeMillis() * 1024 + new Random().nextInt(1024) + 1;
+    }
+
+    private static byte[] bytes(String s) {
+        byte[] b = (s != null ? s : "").getBytes(StandardCharsets.UTF_8);
+        if (b.length <= MAX_STRING_BYTES) {
+            return b;
+        }
+        // Cortar sin partir un carácter UTF-8 a la mitad
+        int n = MAX_STRING_BYTES;
+        while (n > 0 && (b[n] & 0xc0) == 0x80) {
+            n--;
+        }
+        return Arrays.copyOf(b, n);
+    }
+
+    private static String string(ByteBuffer in) {
+        byte[] b = new byte[in.getShort() & 0xffff];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
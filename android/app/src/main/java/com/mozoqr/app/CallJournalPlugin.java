@@ -0,0 +1,138 @@
+package com.mozoqr.app;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginLane;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expone a JS el diario de llamadas ({@link CallJournal}).
+ *
+ * Al volver al frente la WebView llama a {@code getEventsSince} con el cursor
+ * de la última lectura y recibe sólo las llamadas que llegaron mientras tanto.
+ * Con la WebView viva, cada llamada nueva también se emite como evento
+ * {@code callAppended}.
+ */
+@CapacitorPlugin(name = "CallJournal")
+public class CallJournalPlugin extends Plugin {
+    static final String EVENT_APPENDED = "callAppended";
+    private static final int DEFAULT_LIMIT = 200;
+
+    private volatile CallJournal journal;
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("getEventsSince", (plugin, call) -> getEventsSince(call));
+        invokers.put("getCall", (plugin, call) -> getCall(call));
+        invokers.put("getTableEvents", (plugin, call) -> getTableEvents(call));
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        CallJournal j = journal;
+        if (j != null) {
+            j.setListener(null);
+        }
+    }
+
+    /**
+     * { journalId?: number, cursor?: number, limit?: number }
+     * → { journalId, cursor, reset, more, events }
+     */
+    @PluginMethod(lane = PluginLane.IO)
+    public void getEventsSince(PluginCall call) {
+        JSObject options = call.getData();
+        long journalId = options.optLong("journalId", 0);
+        long cursor = options.optLong("cursor", 0);
+        int limit = Math.max(1, call.getInt("limit", DEFAULT_LIMIT));
+
+        CallJournal.Delta delta = journal().since(journalId, cursor, limit);
+        JSObject result = new JSObject();
+        result.put("journalId", delta.journalId);
+        result.put("cursor", delta.cursor);
+        result.put("reset", delta.reset);
+        result.put("more", delta.more);
+        result.put("events", toJSON(delta.entries));
+        call.resolve(result);
+    }
+
+    /**
+     * { callId: string } → { event }, con el último evento de esa llamada o null
+     */
+    @PluginMethod(lane = PluginLane.IO)
+    public void getCall(PluginCall call) {
+        String callId = call.getString("callId");
+        if (callId == null || callId.isEmpty()) {
+            call.reject("callId requerido");
+            return;
+        }
+        CallJournal.Entry entry = journal().latest(callId);
+        JSObject result = new JSObject();
+        result.put("event", entry != null ? toJSON(entry) : null);
+        call.resolve(result);
+    }
+
+    /**
+     * { table: string } → { events }
+     */
+    @PluginMethod(lane = PluginLane.IO)
+    public void getTableEvents(PluginCall call) {
+        String table = call.getString("table");
+        if (table == null || table.isEmpty()) {
+            call.reject("table requerida");
+            return;
+        }
+        JSObject result = new JSObject();
+        result.put("events", toJSON(journal().forTable(table)));
+        call.resolve(result);
+    }
+
+    /** Abre el diario (disco en la primera lectura) y empieza a reenviar las llamadas nuevas. */
+    private CallJournal journal() {
+        CallJournal j = journal;
+        if (j == null) {
+            synchronized (this) {
+                j = journal;
+                if (j == null) {
+                    final CallJournal opened = CallJournal.get(getContext());
+                    opened.setListener(entry -> {
+                        JSObject data = toJSON(entry);
+                        data.put("journalId", opened.journalId());
+                        notifyListeners(EVENT_APPENDED, data);
+                    });
+                    journal = j = opened;
+                }
+            }
+        }
+        return j;
+    }
+
+    private static JSArray toJSON(List<CallJournal.Entry> entries) {
+        JSArray events = new JSArray();
+        for (CallJournal.Entry entry : entries) {
+            events.put(toJSON(entry));
+        }
+        return events;
+    }
+
+    private static JSObject toJSON(CallJournal.Entry entry) {
+        JSObject json = new JSObject();
+        json.put("seq", entry.seq);
+        json.put("callId", entry.callId);
+        json.put("table", entry.table);
+        json.put("type", entry.type);
+        json.put("title", entry.title);
+        json.put("body", entry.body);
+        json.put("receivedAt", entry.receivedAtMs);
+        json.put("sentTime", entry.sentTimeMs);
+        return json;
+    }
+}
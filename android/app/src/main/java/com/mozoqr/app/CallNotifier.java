@@ -0,0 +1,182 @@
+package com.mozoqr.app;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Color;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Construye y publica las notificaciones de llamadas de mesa.
+ *
+ * Una ráfaga de llamadas de la misma mesa se publica como una única
+ * notificación agrupada, con ID estable por mesa para que los pushes
+ * siguientes la reemplacen en lugar de apilarse. Trae los botones "Voy" y
+ * "Listo", que atienden las llamadas de la mesa sin abrir la app
+ * ({@link CallActionReceiver}).
+ */
+final class CallNotifier {
+    private static final AppLog.Tag LOG = AppLog.tag("CallNotifier");
+    static final String GROUP_KEY = "mozo_calls";
+    private static final int MAX_INBOX_LINES = 5;
+
+    // Canales ya verificados en este proceso: evita el IPC a NotificationManager en cada push
+    private static final Set<String> knownChannels = ConcurrentHashMap.newKeySet();
+
+    private final Context context;
+    private final NotificationManager nm;
+
+    CallNotifier(Context context) {
+        this.context = context.getApplicationContext();
+        this.nm = (NotificationManager) this.context.getSystemService(Context.NOTIFICATION_SERVICE);
+    }
+
+    /**
+     * Publica una notificación para las llamadas pendientes de una mesa.
+     *
+     * @param events llamadas de la mesa, de la más antigua a la más reciente; no vacía
+     * @return {@code true} si la notificación se publicó
+     */
+    boolean notifyTable(String table, List<CallEvent> events) {
+        if (nm == null) {
+            AppLog.e(LOG, "❌ NotificationManager es null!");
+            return false;
+        }
+        CallEvent latest = events.get(events.size() - 1);
+        ensureChannel(context, latest.channelId, "Llamadas", "Canal dinámico auto-creado");
+
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        // Pasar metadata para futura navegación/diagnóstico
+        intent.putExtra("callId", latest.callId);
+        intent.putExtra("table_number", latest.table);
+        intent.putExtra("type", latest.type);
+        int id = notificationId(table, latest);
+        PendingIntent pi = PendingIntent.getActivity(context, id, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        NotificationCompat.Builder b = new NotificationCompat.Builder(context, latest.channelId)
+                .setSmallIcon(android.R.drawable.ic_dialog_info)
+                .setContentTitle(latest.title)
+                .setContentText(latest.body)
+                .setAutoCancel(true)
+                .setContentIntent(pi)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setCategory(NotificationCompat.CATEGORY_CALL)
+                .setGroup(GROUP_KEY)
+                .setDefaults(NotificationCompat.DEFAULT_ALL);
+
+        String[] callIds = openCallIds(events);
+        if (callIds.length > 0) {
+            b.addAction(0, "Voy", actionIntent(CallActionReceiver.ACTION_ACKNOWLEDGE, id, table, callIds))
+                    .addAction(0, "Listo", actionIntent(CallActionReceiver.ACTION_COMPLETE, id, table, callIds));
+        }
+
+        if (events.size() > 1) {
+            NotificationCompat.InboxStyle inbox = new NotificationCompat.InboxStyle()
+                    .setBigContentTitle(latest.title);
+            int from = Math.max(0, events.size() - MAX_INBOX_LINES);
+            for (int i = events.size() - 1; i >= from; i--) {
+                inbox.addLine(events.get(i).body);
+            }
+            if (from > 0) {
+                inbox.setSummaryText("+" + from + " más");
+            }
+            b.setStyle(inbox).setNumber(events.size());
+        }
+
+        try {
+            nm.notify(id, b.build());
+            return true;
+        } catch (Exception e) {
+            AppLog.e(LOG, "❌ ERROR mostrando notificación", e);
+            return false;
+        }
+    }
+
+    private PendingIntent actionIntent(String action, int notificationId, String table, String[] callIds) {
+        Intent intent = new Intent(context, CallActionReceiver.class)
+                .setAction(action)
+                .putExtra(CallActionReceiver.EXTRA_CALL_IDS, callIds)
+                .putExtra(CallActionReceiver.EXTRA_TABLE, table)
+                .putExtra(CallActionReceiver.EXTRA_NOTIFICATION_ID, notificationId);
+        // El request code por notificación separa los extras de cada mesa
+        return PendingIntent.getBroadcast(context, notificationId, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    /** Llamadas de la notificación que todavía se pueden atender, sin repetir. */
+    private static String[] openCallIds(List<CallEvent> events) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (CallEvent e : events) {
+            if (e.hasCallId() && !EscalationScheduler.isClosing(e.type)) {
+                ids.add(e.callId);
+            }
+        }
+        return ids.toArray(new String[0]);
+    }
+
+    /**
+     * ID estable: por mesa si se conoce, si no por callId; fallback timestamp.
+     */
+    private static int notificationId(String table, CallEvent latest) {
+        if (!table.isEmpty()) return ("table:" + table).hashCode();
+        if (latest.hasCallId()) return latest.callId.hashCode();
+        return (int) (System.currentTimeMillis() & 0xFFFFFFF);
+    }
+
+    static void ensureChannel(Context context, String channelId, String name, String description) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O || knownChannels.contains(channelId)) {
+            return;
+        }
+        NotificationManager nm = context.getSystemService(NotificationManager.class);
+        if (nm == null) return;
+        if (nm.getNotificationChannel(channelId) == null) {
+            NotificationChannel ch = new NotificationChannel(channelId, name, NotificationManager.IMPORTANCE_HIGH);
+            ch.setDescription(description);
+            ch.enableLights(true);
+            ch.setLightColor(Color.RED);
+            ch.enableVibration(true);
+            nm.createNotificationChannel(ch);
+            AppLog.d(LOG, "Channel created: {}", channelId);
+        }
+        knownChannels.add(channelId);
+    }
+
+    /**
+     * Crea de una vez los canales que falten: una lectura y una escritura a
+     * NotificationManager en lugar de dos IPC por canal. Requiere API 26.
+     */
+    static void ensureChannels(Context context, List<NotificationChannel> channels) {
+        NotificationManager nm = context.getSystemService(NotificationManager.class);
+        if (nm == null) return;
+        Set<String> existing = new HashSet<>();
+        for (NotificationChannel ch : nm.getNotificationChannels()) {
+            existing.add(ch.getId());
+        }
+        List<NotificationChannel> missing = new ArrayList<>();
+        for (NotificationChannel ch : channels) {
+            if (!existing.contains(ch.getId())) {
+                missing.add(ch);
+            }
+        }
+        if (!missing.isEmpty()) {
+            nm.createNotificationChannels(missing);
+            AppLog.d(LOG, "Channels created: {}", missing.size());
+        }
+        for (NotificationChannel ch : channels) {
+            knownChannels.add(ch.getId());
+        }
+    }
+}
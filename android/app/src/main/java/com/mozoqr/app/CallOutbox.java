@@ -0,0 +1,285 @@
+package com.mozoqr.app;
+
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bandeja de salida persistente de las acciones que la app manda a la API
+ * sin la WebView: "Voy"/"Listo" desde la notificación y el registro del
+ * token FCM.
+ *
+ * Cada acción se guarda en disco antes de intentar mandarla, así un corte de
+ * red o que el sistema mate el proceso no la pierde. {@link #drain} manda
+ * todo lo pendiente en orden de llegada; ante un error transitorio se corta
+ * ahí (un "Listo" no puede adelantarse a su "Voy") y se reintenta más tarde
+ * con espera exponencial. Las acciones repetidas (dos toques en "Voy", un
+ * token que se renueva) se pisan en lugar de acumularse.
+ *
+ * No es thread-safe para drenar: {@link #drain} lo corre un único hilo.
+ */
+final class CallOutbox {
+    private static final AppLog.Tag LOG = AppLog.tag("CallOutbox");
+
+    static final String KIND_ACK = "ack";
+    static final String KIND_COMPLETE = "complete";
+    static final String KIND_TOKEN = "fcm_token";
+
+    /** Un "Voy" de hace más de esto ya no le sirve a nadie. */
+    static final long MAX_CALL_AGE_MS = 60 * 60_000;
+    static final long BASE_BACKOFF_MS = 2_000;
+    static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    /** Una acción pendiente. */
+    static final class Item {
+        final String kind;
+        final String callId;
+        final String table;
+        final String token;
+        /** Momento en que se encoló (ms epoch). */
+        final long queuedAtMs;
+        int attempts;
+
+        private Item(String kind, String callId, String table, String token, long queuedAtMs, int attempts) {
+            this.kind = kind;
+            this.callId = callId;
+            this.table = table;
+            this.token = token;
+            this.queuedAtMs = queuedAtMs;
+            this.attempts = attempts;
+        }
+
+        static Item call(String kind, String callId, String table, long nowMs) {
+            return new Item(kind, callId, table != null ? table : "", null, nowMs, 0);
+        }
+
+        static Item token(String token, long nowMs) {
+            return new Item(KIND_TOKEN, "", "", token, nowMs, 0);
+        }
+
+        boolean isCall() {
+            return !KIND_TOKEN.equals(kind);
+        }
+
+        String key() {
+            return kind + ":" + callId;
+        }
+
+        String path() {
+            switch (kind) {
+                case KIND_ACK:
+                    return "waiter/calls/" + callId + "/acknowledge";
+                case KIND_COMPLETE:
+                    return "waiter/calls/" + callId + "/complete";
+                default:
+                    return "device-token";
+            }
+        }
+
+        JSONObject body() throws JSONException {
+            JSONObject body = new JSONObject();
+            if (!isCall()) {
+                body.put("token", token);
+                body.put("platform", "android");
+            }
+            return body;
+        }
+
+        JSONObject toJSON() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("kind", kind);
+            json.put("callId", callId);
+            json.put("table", table);
+            if (token != null) json.put("token", token);
+            json.put("queuedAt", queuedAtMs);
+            json.put("attempts", attempts);
+            return json;
+        }
+
+        static Item fromJSON(JSONObject json) {
+            return new Item(json.optString("kind"), json.optString("callId"), json.optString("table"),
+                    json.has("token") ? json.optString("token") : null, json.optLong("queuedAt"), json.optInt("attempts"));
+        }
+    }
+
+    /** Lo que hace falta para hablar con la API. */
+    interface Sender {
+        /** {@code false} mientras no haya URL y token de sesión. */
+        boolean isReady();
+
+        /** @return el código HTTP de la respuesta */
+        int post(String path, JSONObject body) throws IOException;
+    }
+
+    interface Listener {
+        void onDelivered(Item item);
+
+        /** La API rechazó la acción (o venció) y no se va a reintentar. */
+        void onDropped(Item item, int status);
+    }
+
+    /** Resultado de un {@link #drain}. */
+    static final class Result {
+        int delivered;
+        int dropped;
+        /** Quedó algo por un error transitorio: reintentar tras {@link #retryDelayMs()}. */
+        boolean retry;
+        /** Quedó algo porque falta o venció la sesión: esperar a que JS la renueve. */
+        boolean needsAuth;
+    }
+
+    private final File file;
+    // Protegido por this; en orden de llegada
+    private final LinkedHashMap<String, Item> items = new LinkedHashMap<>();
+
+    CallOutbox(File file) {
+        this.file = file;
+        load();
+    }
+
+    /** Encola una acción y la deja en disco. Reemplaza a una igual pendiente. */
+    synchronized void add(Item item) {
+        Item previous = items.get(item.key());
+        if (previous != null && previous.isCall()) {
+            // Repetida: la pendiente conserva su lugar en la fila
+            return;
+        }
+        // Un token nuevo reemplaza al anterior y va al final
+        items.remove(item.key());
+        items.put(item.key(), item);
+        persist();
+    }
+
+    synchronized int size() {
+        return items.size();
+    }
+
+    synchronized void clear() {
+        items.clear();
+        persist();
+    }
+
+    /** Espera antes del próximo intento, según los intentos fallidos de la primera pendiente. */
+    synchronized long retryDelayMs() {
+        if (items.isEmpty()) return -1;
+        int attempts = Math.max(1, items.values().iterator().next().attempts);
+        long delay = BASE_BACKOFF_MS << Math.min(attempts - 1, 16);
+        return Math.min(delay, MAX_BACKOFF_MS);
+    }
+
+    /** Manda todo lo pendiente, en orden, hasta terminar o hasta el primer error transitorio. */
+    Result drain(Sender sender, Listener listener, long nowMs) {
+        Result result = new Result();
+        List<Item> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(items.values());
+        }
+        if (pending.isEmpty()) return result;
+        if (!sender.isReady()) {
+            result.needsAuth = true;
+            return result;
+        }
+        for (Item item : pending) {
+            if (item.isCall() && nowMs - item.queuedAtMs > MAX_CALL_AGE_MS) {
+                remove(item);
+                result.dropped++;
+                listener.onDropped(item, 0);
+                continue;
+            }
+            int status;
+            try {
+                JSONObject body = item.body();
+                status = sender.post(item.path(), body);
+            } catch (IOException | JSONException e) {
+                status = -1;
+            }
+            if (status >= 200 && status < 300) {
+                remove(item);
+                result.delivered++;
+                listener.onDelivered(item);
+            } else if (status == 401 || status == 403) {
+                result.needsAuth = true;
+                break;
+            } else if (isTransient(status)) {
+                synchronized (this) {
+                    item.attempts++;
+                    persist();
+                }
+                result.retry = true;
+                break;
+            } else {
+                remove(item);
+                result.dropped++;
+                listener.onDropped(item, status);
+            }
+        }
+        return result;
+    }
+
+    /** Sin respuesta, timeout, rate limit o error del servidor. */
+    static boolean isTransient(int status) {
+        return status < 0 || status == 408 || status == 429 || status >= 500;
+    }
+
+    private synchronized void remove(Item item) {
+        // Si mientras se mandaba llegó una nueva con la misma clave, esa queda
+        if (items.get(item.key()) == item) {
+            items.remove(item.key());
+            persist();
+        }
+    }
+
+    private void persist() {
+        JSONArray array = new JSONArray();
+        try {
+            for (Item item : items.values()) {
+                array.put(item.toJSON());
+            }
+        } catch (JSONException e) {
+            AppLog.e(LOG, "❌ No se pudo serializar la bandeja", e);
+            return;
+        }
+        // Escribir aparte y renombrar: un corte a mitad deja el archivo anterior entero
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(array.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            AppLog.e(LOG, "❌ No se pudo guardar la bandeja", e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            AppLog.e(LOG, "❌ No se pudo reemplazar {}", file.getPath());
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) in.length()];
+            in.readFully(bytes);
+            JSONArray array = new JSONArray(new String(bytes, StandardCharsets.UTF_8));
+            List<Item> loaded = new ArrayList<>();
+            for (int i = 0; i < array.length(); i++) {
+                loaded.add(Item.fromJSON(array.getJSONObject(i)));
+            }
+            Collections.sort(loaded, (a, b) -> Long.compare(a.queuedAtMs, b.queuedAtMs));
+            for (Item item : loaded) {
+                items.put(item.key(), item);
+            }
+        } catch (IOException | JSONException e) {
+            AppLog.w(LOG, "⚠️ Bandeja ilegible, se empieza vacía", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mozoqr.app;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.util.Map;
+
+/**
+ * Le pasa a la parte nativa ({@link CallActions}) la sesión con la que
+ * atender llamadas y registrar el token FCM cuando la WebView no está.
+ */
+@CapacitorPlugin(name = "CallOutbox")
+public class CallOutboxPlugin extends Plugin {
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("configure", (plugin, call) -> configure(call));
+        invokers.put("signOut", (plugin, call) -> signOut(call));
+        invokers.put("getStats", (plugin, call) -> getStats(call));
+    }
+
+    /**
+     * { baseUrl: string, token: string }
+     */
+    @PluginMethod
+    public void configure(PluginCall call) {
+        String baseUrl = call.getString("baseUrl");
+        String token = call.getString("token");
+        if (baseUrl == null || baseUrl.isEmpty() || token == null || token.isEmpty()) {
+            call.reject("baseUrl y token requeridos");
+            return;
+        }
+        CallActions.get(getContext()).configure(baseUrl, token);
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void signOut(PluginCall call) {
+        CallActions.get(getContext()).signOut();
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void getStats(PluginCall call) {
+        call.resolve(toJSON(CallActions.get(getContext())));
+    }
+
+    static JSObject toJSON(CallActions actions) {
+        JSObject json = new JSObject();
+        json.put("configured", actions.isConfigured());
+        json.put("pending", actions.pending());
+        json.put("delivered", actions.delivered());
+        json.put("dropped", actions.dropped());
+        json.put("retries", actions.retries());
+        json.put("ackLatency", MetricsPlugin.toJSON(actions.ackLatency()));
+        return json;
+    }
+}
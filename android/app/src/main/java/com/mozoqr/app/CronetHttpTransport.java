@@ -0,0 +1,64 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+
+import com.getcapacitor.plugin.util.HttpTransport;
+import com.google.android.gms.net.CronetProviderInstaller;
+
+import org.chromium.net.CronetEngine;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Transporte de {@link ApiClient} sobre Cronet (provisto por Google Play Services).
+ *
+ * Cronet multiplexa las peticiones a la API sobre una sola conexión HTTP/2
+ * (o QUIC si el servidor lo ofrece), en lugar de la conexión keep-alive por
+ * petición del HttpURLConnection de la plataforma. Si Play Services no trae
+ * Cronet se mantiene el transporte por defecto.
+ *
+ * No se instala para el plugin CapacitorHttp: el HttpURLConnection de Cronet
+ * ignora java.net.CookieHandler, y el plugin perdería las cookies que comparte
+ * con la WebView.
+ */
+final class CronetHttpTransport implements HttpTransport {
+    private static final AppLog.Tag LOG = AppLog.tag("CronetHttpTransport");
+
+    private final CronetEngine engine;
+
+    private CronetHttpTransport(CronetEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Instala el proveedor de Cronet en segundo plano y, cuando está listo,
+     * lo registra como transporte de {@link ApiClient}. No bloquea.
+     */
+    static void install(Context context) {
+        final Context app = context.getApplicationContext();
+        CronetProviderInstaller.installProvider(app).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                AppLog.w(LOG, "Cronet no disponible, se usa HttpURLConnection", task.getException());
+                return;
+            }
+            try {
+                CronetEngine engine = new CronetEngine.Builder(app)
+                        .enableHttp2(true)
+                        .enableQuic(true)
+                        .enableBrotli(true)
+                        .build();
+                ApiClient.setTransport(new CronetHttpTransport(engine));
+                AppLog.d(LOG, "✅ API sobre Cronet {}", engine.getVersionString());
+            } catch (Exception e) {
+                AppLog.w(LOG, "No se pudo crear CronetEngine", e);
+            }
+        });
+    }
+
+    @Override
+    public HttpURLConnection open(URL url) throws IOException {
+        return (HttpURLConnection) engine.openConnection(url);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mozoqr.app;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Expone a JS los recordatorios de llamadas sin atender ({@link EscalationScheduler}).
+ *
+ * La WebView avisa cuando el mozo atiende una llamada desde la app, así el
+ * recordatorio se cancela sin esperar el push de confirmación.
+ */
+@CapacitorPlugin(name = "Escalation")
+public class EscalationPlugin extends Plugin {
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("acknowledge", (plugin, call) -> acknowledge(call));
+        invokers.put("configure", (plugin, call) -> configure(call));
+        invokers.put("getStats", (plugin, call) -> getStats(call));
+    }
+
+    /**
+     * { callId: string }
+     */
+    @PluginMethod
+    public void acknowledge(PluginCall call) {
+        String callId = call.getString("callId");
+        if (callId == null || callId.isEmpty()) {
+            call.reject("callId requerido");
+            return;
+        }
+        EscalationScheduler.get(getContext()).cancel(callId);
+        call.resolve();
+    }
+
+    /**
+     * { enabled: boolean, stepsSeconds?: number[] }
+     */
+    @PluginMethod
+    public void configure(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        long[] steps = null;
+        JSArray stepsSeconds = call.getArray("stepsSeconds", null);
+        if (stepsSeconds != null && stepsSeconds.length() > 0) {
+            steps = new long[stepsSeconds.length()];
+            long previous = 0;
+            for (int i = 0; i < steps.length; i++) {
+                long ms = Math.round(stepsSeconds.optDouble(i, 0) * 1000);
+                if (ms <= previous) {
+                    call.reject("stepsSeconds debe ser creciente y positivo");
+                    return;
+                }
+                steps[i] = previous = ms;
+            }
+        }
+        EscalationScheduler.get(getContext()).configure(enabled, steps);
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void getStats(PluginCall call) {
+        call.resolve(toJSON(EscalationScheduler.get(getContext())));
+    }
+
+    static JSObject toJSON(EscalationScheduler scheduler) {
+        JSObject json = new JSObject();
+        json.put("pending", scheduler.pending());
+        json.put("reminders", scheduler.reminders());
+        json.put("cancelled", scheduler.cancelled());
+        json.put("wakeups", scheduler.wakeups());
+        json.put("alarmsArmed", scheduler.alarmsArmed());
+        json.put("wakeupsPerHour", Double.parseDouble(String.format(Locale.US, "%.2f", scheduler.wakeupsPerHour())));
+        return json;
+    }
+}
@@ -0,0 +1,16 @@
+package com.mozoqr.app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Recibe la única alarma de {@link EscalationScheduler} y publica los
+ * recordatorios vencidos.
+ */
+public class EscalationReceiver extends BroadcastReceiver {
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        EscalationScheduler.get(context).onAlarm();
+    }
+}
@@ -0,0 +1,287 @@
+package com.mozoqr.app;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recordatorios de llamadas de mesa que nadie atendió.
+ *
+ * Cada llamada nueva programa su próximo recordatorio en una
+ * {@link TimingWheel}; se arma una sola alarma exacta, para el plazo más
+ * cercano, y en cada despertar se publican juntos todos los recordatorios
+ * vencidos (agrupados por mesa) y se rearma la alarma para el siguiente.
+ * Cuando la llamada se atiende el recordatorio se cancela en O(1), venga el
+ * aviso por FCM o desde la app.
+ *
+ * Con 40 llamadas abiertas y 3 escalones esto son, en el peor caso, tantos
+ * despertares como plazos distintos por segundo, en vez de 120 alarmas con
+ * su PendingIntent y su escritura en preferencias cada una.
+ *
+ * Los recordatorios viven en memoria. Si el proceso muere, la alarma ya
+ * armada lo despierta y los pendientes se reconstruyen desde el
+ * {@link CallJournal}.
+ */
+public final class EscalationScheduler {
+    private static final AppLog.Tag LOG = AppLog.tag("Escalation");
+
+    static final long TICK_MS = 1000;
+    /** Pasos por defecto: recordar a los 30 s, al minuto y a los 2 min de la llamada. */
+    static final long[] DEFAULT_STEPS_MS = {30_000, 60_000, 120_000};
+    private static final int ALARM_REQUEST_CODE = 0x4D5A;
+    /** Tipos de push que cierran una llamada. */
+    private static final String[] CLOSING_TYPES = {
+            "acknowledged", "call_acknowledged", "completed", "call_completed", "cancelled", "call_cancelled"
+    };
+
+    private static volatile EscalationScheduler instance;
+
+    /** Lo que queda por recordar de una llamada. */
+    static final class Pending {
+        final CallEvent call;
+        /** Índice en los pasos del recordatorio programado. */
+        final int step;
+        /** Momento de la llamada, en {@link SystemClock#elapsedRealtime()}. */
+        final long calledAtMs;
+
+        Pending(CallEvent call, int step, long calledAtMs) {
+            this.call = call;
+            this.step = step;
+            this.calledAtMs = calledAtMs;
+        }
+    }
+
+    private final Context context;
+    private final CallNotifier notifier;
+    private final TimingWheel<Pending> wheel;
+    private final ArrayList<TimingWheel.Entry<Pending>> due = new ArrayList<>();
+    private long[] stepsMs = DEFAULT_STEPS_MS;
+    private boolean enabled = true;
+    private long armedForMs = -1;
+
+    private final long startedAtMs = SystemClock.elapsedRealtime();
+    private final AtomicLong wakeups = new AtomicLong();
+    private final AtomicLong reminders = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong alarmsArmed = new AtomicLong();
+
+    public static EscalationScheduler get(Context context) {
+        EscalationScheduler s = instance;
+        if (s == null) {
+            synchronized (EscalationScheduler.class) {
+                s = instance;
+                if (s == null) {
+                    s = new EscalationScheduler(context.getApplicationContext());
+                    instance = s;
+                    s.restore();
+                }
+            }
+        }
+        return s;
+    }
+
+    private EscalationScheduler(Context context) {
+        this.context = context;
+        this.notifier = new CallNotifier(context);
+        this.wheel = new TimingWheel<>(TICK_MS, SystemClock.elapsedRealtime());
+    }
+
+    /** Empieza a recordar una llamada nueva. Si ya estaba pendiente, no cambia nada. */
+    public synchronized void start(CallEvent call) {
+        if (!enabled || !call.hasCallId() || wheel.contains(call.callId)) return;
+        long now = SystemClock.elapsedRealtime();
+        if (wheel.size() == 0) {
+            // Rueda vacía: ponerla en hora sin recorrer los ticks
+            wheel.advance(now, due);
+        }
+        wheel.schedule(call.callId, new Pending(call, 0, now), now + stepsMs[0]);
+        rearm();
+    }
+
+    /**
+     * Aplica un evento del pipeline: una llamada abre recordatorios y un
+     * aviso de atendida/cancelada los cierra.
+     */
+    void onCallEvent(CallEvent call, boolean duplicate) {
+        if (!call.hasCallId()) return;
+        if (isClosing(call.type)) {
+            cancel(call.callId);
+        } else if (!duplicate) {
+            start(call);
+        }
+    }
+
+    static boolean isClosing(String type) {
+        for (String closing : CLOSING_TYPES) {
+            if (closing.equalsIgnoreCase(type)) return true;
+        }
+        return false;
+    }
+
+    /** La llamada fue atendida: no recordarla más. */
+    public synchronized void cancel(String callId) {
+        if (callId == null || wheel.cancel(callId) == null) return;
+        cancelled.incrementAndGet();
+        rearm();
+    }
+
+    /**
+     * @param stepsMs demora de cada recordatorio desde la llamada, creciente
+     */
+    public synchronized void configure(boolean enabled, long[] stepsMs) {
+        this.enabled = enabled;
+        if (stepsMs != null && stepsMs.length > 0) {
+            this.stepsMs = stepsMs.clone();
+        }
+        if (!enabled) {
+            // Deshabilitado: soltar todo
+            wheel.clear();
+        }
+        rearm();
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    public long wakeups() {
+        return wakeups.get();
+    }
+
+    public long reminders() {
+        return reminders.get();
+    }
+
+    public long cancelled() {
+        return cancelled.get();
+    }
+
+    public long alarmsArmed() {
+        return alarmsArmed.get();
+    }
+
+    /** Despertares por hora desde que arrancó el proceso. */
+    public double wakeupsPerHour() {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startedAtMs);
+        return wakeups.get() * 3_600_000.0 / elapsed;
+    }
+
+    /** Lo llama {@link EscalationReceiver} cuando suena la alarma. */
+    void onAlarm() {
+        wakeups.incrementAndGet();
+        LinkedHashMap<String, List<CallEvent>> byTable = new LinkedHashMap<>();
+        synchronized (this) {
+            armedForMs = -1;
+            long now = SystemClock.elapsedRealtime();
+            due.clear();
+            wheel.advance(now, due);
+            for (TimingWheel.Entry<Pending> e : due) {
+                Pending p = e.value;
+                CallEvent call = p.call;
+                String table = call.table.isEmpty() ? "call:" + call.callId : call.table;
+                List<CallEvent> calls = byTable.get(table);
+                if (calls == null) {
+                    calls = new ArrayList<>();
+                    byTable.put(table, calls);
+                }
+                calls.add(reminderFor(call, now - p.calledAtMs));
+                int next = p.step + 1;
+                if (next < stepsMs.length) {
+                    wheel.schedule(call.callId, new Pending(call, next, p.calledAtMs), p.calledAtMs + stepsMs[next]);
+                }
+            }
+            due.clear();
+            rearm();
+        }
+        for (Map.Entry<String, List<CallEvent>> entry : byTable.entrySet()) {
+            List<CallEvent> calls = entry.getValue();
+            if (notifier.notifyTable(calls.get(0).table, calls)) {
+                reminders.addAndGet(calls.size());
+            }
+        }
+        if (!byTable.isEmpty() && LOG.isLoggable(AppLog.DEBUG)) {
+            AppLog.d(LOG, "⏰ {} recordatorios, {} despertares ({}/h)", reminders.get(), wakeups.get(),
+                    String.format(Locale.US, "%.1f", wakeupsPerHour()));
+        }
+    }
+
+    private static CallEvent reminderFor(CallEvent call, long waitingMs) {
+        long seconds = waitingMs / 1000;
+        String waited = seconds < 60 ? seconds + " s" : (seconds / 60) + " min";
+        String table = call.table.isEmpty() ? "Una mesa" : "Mesa " + call.table;
+        return new CallEvent(call.callId, call.table, call.type, "⏰ " + table + " sigue esperando",
+                "Llamada sin atender hace " + waited, call.channelId, call.sentTimeMs, call.receivedAtNanos);
+    }
+
+    /** Arma la única alarma para el plazo más cercano, o la cancela si no queda nada. */
+    private void rearm() {
+        long next = wheel.nextDeadlineMs();
+        if (next == armedForMs) return;
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (am == null) return;
+        PendingIntent pi = alarmIntent();
+        if (next < 0) {
+            am.cancel(pi);
+            armedForMs = -1;
+            return;
+        }
+        // Redondear al tick: no despertar dos veces en el mismo segundo
+        long at = (next + TICK_MS - 1) / TICK_MS * TICK_MS;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !am.canScheduleExactAlarms()) {
+            am.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, at, pi);
+        } else {
+            am.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, at, pi);
+        }
+        armedForMs = next;
+        alarmsArmed.incrementAndGet();
+    }
+
+    private PendingIntent alarmIntent() {
+        Intent intent = new Intent(context, EscalationReceiver.class);
+        return PendingIntent.getBroadcast(context, ALARM_REQUEST_CODE, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    /** Tras la muerte del proceso: volver a programar las llamadas sin atender del diario. */
+    private synchronized void restore() {
+        CallJournal journal = CallJournal.get(context);
+        List<CallJournal.Entry> entries = journal.since(0, 0, Integer.MAX_VALUE).entries;
+        HashMap<String, CallJournal.Entry> latest = new HashMap<>();
+        for (CallJournal.Entry e : entries) {
+            if (!e.callId.isEmpty()) latest.put(e.callId, e);
+        }
+        long wallNow = System.currentTimeMillis();
+        long now = SystemClock.elapsedRealtime();
+        long horizon = stepsMs[stepsMs.length - 1];
+        ArrayList<CallJournal.Entry> open = new ArrayList<>();
+        for (CallJournal.Entry e : latest.values()) {
+            long age = wallNow - e.receivedAtMs;
+            if (!isClosing(e.type) && age >= 0 && age < horizon) open.add(e);
+        }
+        Collections.sort(open, (a, b) -> Long.compare(a.seq, b.seq));
+        for (CallJournal.Entry e : open) {
+            long calledAt = now - (wallNow - e.receivedAtMs);
+            int step = 0;
+            while (step < stepsMs.length - 1 && calledAt + stepsMs[step] <= now) step++;
+            CallEvent call = new CallEvent(e.callId, e.table, e.type, e.title, e.body,
+                    CallEvent.DEFAULT_CHANNEL_ID, e.sentTimeMs, 0);
+            wheel.schedule(e.callId, new Pending(call, step, calledAt), calledAt + stepsMs[step]);
+        }
+        if (!open.isEmpty()) {
+            AppLog.d(LOG, "♻️ {} recordatorios restaurados del diario", open.size());
+        }
+        rearm();
+    }
+}
@@ -3,36 +3,45 @@ package com.mozoqr.app;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginLane;
 import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
 import com.getcapacitor.annotation.CapacitorPlugin;
-import android.content.SharedPreferences;
-import android.content.Context;
-import android.util.Log;
+import java.util.Map;
 
 @CapacitorPlugin(name = "FCMPlugin")
 public class FCMPlugin extends Plugin {
-    private static final String TAG = "FCMPlugin";
+    private static final AppLog.Tag LOG = AppLog.tag("FCMPlugin");
 
-    @PluginMethod
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("getStoredToken", (plugin, call) -> getStoredToken(call));
+    }
+
+    // Abre el store de tokens (disco en la primera lectura): va al pool de I/O
+    @PluginMethod(lane = PluginLane.IO)
     public void getStoredToken(PluginCall call) {
         try {
-            SharedPreferences prefs = getContext().getSharedPreferences("capacitor_preferences", Context.MODE_PRIVATE);
-            String token = prefs.getString("fcm_token", null);
+            String token = FCMTokenHelper.getStoredToken(getContext());
             
             JSObject result = new JSObject();
             if (token != null) {
                 result.put("token", token);
                 result.put("success", true);
-                Log.d(TAG, "Token FCM obtenido desde SharedPreferences: " + token.substring(0, 20) + "...");
+                // Nunca el token entero: el archivo de log se exporta
+                if (LOG.isLoggable(AppLog.DEBUG)) {
+                    AppLog.d(LOG, "Token FCM obtenido: {}… ({} chars)", FCMTokenHelper.redact(token), token.length());
+                }
             } else {
                 result.put("success", false);
                 result.put("error", "No FCM token found");
-                Log.w(TAG, "No hay token FCM en SharedPreferences");
+                AppLog.w(LOG, "No hay token FCM guardado");
             }
             
             call.resolve(result);
         } catch (Exception e) {
-            Log.e(TAG, "Error obteniendo token FCM", e);
+            AppLog.e(LOG, "Error obteniendo token FCM", e);
             JSObject result = new JSObject();
             result.put("success", false);
             result.put("error", e.getMessage());
@@ -1,8 +1,7 @@
 package com.mozoqr.app;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-import android.util.Log;
+import com.getcapacitor.util.KeyValueStore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.messaging.FirebaseMessaging;
 
@@ -10,42 +9,95 @@ import com.google.firebase.messaging.FirebaseMessaging;
  * Helper class para obtener y mostrar el token FCM de Android
  */
 public class FCMTokenHelper {
-    private static final String TAG = "FCMTokenHelper";
+    private static final AppLog.Tag LOG = AppLog.tag("FCMTokenHelper");
+    /** Lo que se loguea de un token: alcanza para reconocerlo. */
+    private static final int REDACTED_PREFIX = 12;
+
+    /** Grupo por defecto del plugin Preferences: así JS lee el token con Preferences.get('fcm_token'). */
+    static final String STORE_NAME = "CapacitorStorage";
+    static final String TOKEN_KEY = "fcm_token";
+    /** Último token que el backend confirmó; si coincide no se vuelve a mandar. */
+    static final String REGISTERED_KEY = "fcm_token_registered";
+    /** Archivo SharedPreferences donde versiones anteriores guardaban el token. */
+    private static final String LEGACY_PREFS = "capacitor_preferences";
+
+    /**
+     * Store compartido con el plugin Preferences. La primera vez migra el
+     * token guardado por versiones anteriores en SharedPreferences.
+     */
+    static KeyValueStore tokenStore(Context context) {
+        KeyValueStore store = KeyValueStore.open(context, STORE_NAME);
+        store.migrateFromSharedPreferences(context, LEGACY_PREFS);
+        return store;
+    }
+
+    static String getStoredToken(Context context) {
+        return tokenStore(context).getString(TOKEN_KEY, null);
+    }
+
+    static void saveToken(Context context, String token) {
+        tokenStore(context).putString(TOKEN_KEY, token);
+        registerIfNeeded(context);
+    }
+
+    /**
+     * Encola el registro del token en el backend ({@link CallActions}) si
+     * todavía no se registró este token con la sesión actual.
+     */
+    static void registerIfNeeded(Context context) {
+        KeyValueStore store = tokenStore(context);
+        String token = store.getString(TOKEN_KEY, null);
+        if (token != null && !token.equals(store.getString(REGISTERED_KEY, null))) {
+            CallActions.get(context).registerToken(token);
+        }
+    }
+
+    static void markRegistered(Context context, String token) {
+        tokenStore(context).putString(REGISTERED_KEY, token);
+    }
+
+    /** Otra sesión: el token hay que registrarlo de nuevo para ese usuario. */
+    static void clearRegistered(Context context) {
+        tokenStore(context).remove(REGISTERED_KEY);
+    }
+
+    /** El principio del token, para los logs. */
+    static String redact(String token) {
+        return token.substring(0, Math.min(REDACTED_PREFIX, token.length()));
+    }
 
     public static void logCurrentToken(Context context) {
-        Log.d(TAG, "🔑 Attempting to get FCM token...");
+        AppLog.d(LOG, "🔑 Attempting to get FCM token...");
         
         // Verificar que Firebase esté inicializado
         try {
             FirebaseApp app = FirebaseApp.getInstance();
-            Log.d(TAG, "🔑 Firebase app found: " + app.getName());
+            AppLog.d(LOG, "🔑 Firebase app found: {}", app.getName());
         } catch (Exception e) {
-            Log.e(TAG, "❌ Firebase app not initialized", e);
+            AppLog.e(LOG, "❌ Firebase app not initialized", e);
             return;
         }
         
         FirebaseMessaging.getInstance().getToken()
                 .addOnCompleteListener(task -> {
                     if (!task.isSuccessful()) {
-                        Log.w(TAG, "❌ Fetching FCM registration token failed", task.getException());
+                        AppLog.w(LOG, "❌ Fetching FCM registration token failed", task.getException());
                         return;
                     }
 
                     // Get new FCM registration token
                     String token = task.getResult();
-                    Log.d(TAG, "🔑 CURRENT FCM TOKEN: " + token);
-                    Log.d(TAG, "🔑 Token length: " + token.length());
-                    Log.d(TAG, "🔑 Token prefix: " + token.substring(0, Math.min(50, token.length())));
-                    Log.d(TAG, "📱 IMPORTANTE: Este token debe estar registrado en tu backend para recibir notificaciones");
+                    if (LOG.isLoggable(AppLog.DEBUG)) {
+                        AppLog.d(LOG, "🔑 Token FCM actual: {}… ({} chars)", redact(token), token.length());
+                    }
                     
-                    // TODO: Enviar token al backend aquí
-                    // Para ahora, almacenar en SharedPreferences para que el JS lo pueda leer
+                    // Guardar en el store de Preferences (JS lo lee) y registrarlo en el
+                    // backend por la bandeja nativa si es nuevo
                     try {
-                        SharedPreferences prefs = context.getSharedPreferences("capacitor_preferences", Context.MODE_PRIVATE);
-                        prefs.edit().putString("fcm_token", token).apply();
-                        Log.d(TAG, "✅ Token FCM guardado en SharedPreferences para acceso desde JS");
+                        saveToken(context, token);
+                        AppLog.d(LOG, "✅ Token FCM guardado para acceso desde JS");
                     } catch (Exception e) {
-                        Log.e(TAG, "❌ Error guardando token en SharedPreferences", e);
+                        AppLog.e(LOG, "❌ Error guardando token", e);
                     }
                 });
     }
@@ -2,7 +2,6 @@ package com.mozoqr.app;
 
 import android.app.Activity;
 import android.content.Intent;
-import android.util.Log;
 import androidx.activity.result.ActivityResult;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
@@ -10,6 +9,7 @@ import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
@@ -17,11 +17,13 @@ import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
+import java.util.Map;
 
-@CapacitorPlugin(name = "GoogleAuth")
+// Carril propio: el sign-in puede tardar y no debe frenar al resto de plugins
+@CapacitorPlugin(name = "GoogleAuth", lane = "GoogleAuth")
 public class GoogleAuthPlugin extends Plugin {
 
-    private static final String TAG = "GoogleAuthPlugin";
+    private static final AppLog.Tag LOG = AppLog.tag("GoogleAuthPlugin");
     private GoogleSignInClient googleSignInClient;
     private PluginCall currentCall;
     private ActivityResultLauncher<Intent> signInLauncher;
@@ -29,7 +31,7 @@ public class GoogleAuthPlugin extends Plugin {
     @Override
     public void load() {
         super.load();
-        Log.d(TAG, "GoogleAuthPlugin loaded");
+        AppLog.d(LOG, "GoogleAuthPlugin loaded");
         
         // Configurar Google Sign-In
         String webClientId = "175482362472-sbae126lpnl34rlsf24p8lmdau1obob3.apps.googleusercontent.com";
@@ -49,34 +51,42 @@ public class GoogleAuthPlugin extends Plugin {
             this::handleSignInResult
         );
         
-        Log.d(TAG, "Google Sign-In client configured");
+        AppLog.d(LOG, "Google Sign-In client configured");
+    }
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("signIn", (plugin, call) -> signIn(call));
+        invokers.put("signOut", (plugin, call) -> signOut(call));
+        invokers.put("isSignedIn", (plugin, call) -> isSignedIn(call));
     }
 
     @PluginMethod
     public void signIn(PluginCall call) {
-        Log.d(TAG, "Starting Google Sign-In...");
+        AppLog.d(LOG, "Starting Google Sign-In...");
         
         try {
             currentCall = call;
             Intent signInIntent = googleSignInClient.getSignInIntent();
             signInLauncher.launch(signInIntent);
         } catch (Exception e) {
-            Log.e(TAG, "Error starting Google Sign-In", e);
+            AppLog.e(LOG, "Error starting Google Sign-In", e);
             call.reject("Failed to start Google Sign-In: " + e.getMessage());
         }
     }
 
     private void handleSignInResult(ActivityResult result) {
-        Log.d(TAG, "handleSignInResult called");
+        AppLog.d(LOG, "handleSignInResult called");
         
         if (currentCall == null) {
-            Log.e(TAG, "currentCall is null");
+            AppLog.e(LOG, "currentCall is null");
             return;
         }
         
         Intent data = result.getData();
         if (data == null) {
-            Log.e(TAG, "Intent data is null");
+            AppLog.e(LOG, "Intent data is null");
             currentCall.reject("No data received from Google Sign-In");
             currentCall = null;
             return;
@@ -85,7 +95,7 @@ public class GoogleAuthPlugin extends Plugin {
         Task<GoogleSignInAccount> task = GoogleSignIn.getSignedInAccountFromIntent(data);
         try {
             GoogleSignInAccount account = task.getResult(ApiException.class);
-            Log.d(TAG, "Google Sign-In successful");
+            AppLog.d(LOG, "Google Sign-In successful");
             
             JSObject ret = new JSObject();
             ret.put("success", true);
@@ -96,11 +106,11 @@ public class GoogleAuthPlugin extends Plugin {
             ret.put("uid", account.getId());
             ret.put("serverAuthCode", account.getServerAuthCode());
             
-            Log.d(TAG, "Returning user data: " + ret.toString());
+            AppLog.d(LOG, "Returning user data, id token present: {}", account.getIdToken() != null);
             currentCall.resolve(ret);
             
         } catch (ApiException e) {
-            Log.e(TAG, "Google Sign-In failed with code: " + e.getStatusCode(), e);
+            AppLog.e(LOG, "Google Sign-In failed with code: {}", e.getStatusCode(), e);
             currentCall.reject("Google Sign-In failed: " + e.getMessage());
         } finally {
             currentCall = null;
@@ -109,11 +119,11 @@ public class GoogleAuthPlugin extends Plugin {
 
     @PluginMethod
     public void signOut(PluginCall call) {
-        Log.d(TAG, "Starting Google Sign-Out...");
+        AppLog.d(LOG, "Starting Google Sign-Out...");
         
         googleSignInClient.signOut()
             .addOnCompleteListener(getActivity(), task -> {
-                Log.d(TAG, "Google Sign-Out completed");
+                AppLog.d(LOG, "Google Sign-Out completed");
                 JSObject ret = new JSObject();
                 ret.put("success", true);
                 call.resolve(ret);
@@ -0,0 +1,86 @@
+package com.mozoqr.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en milisegundos con buckets fijos.
+ *
+ * Registrar un valor no reserva memoria ni toma locks, así que se puede
+ * usar desde el camino caliente de notificaciones. Los percentiles se
+ * reportan como el límite superior del bucket que los contiene.
+ */
+public final class LatencyHistogram {
+    private static final long[] BOUNDS_MS = {
+        1, 2, 5, 10, 20, 50, 100, 200, 300, 500, 750,
+        1_000, 1_500, 2_000, 3_000, 5_000, 10_000, 30_000, 60_000
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long millis) {
+        if (millis < 0) millis = 0;
+        counts.incrementAndGet(bucketFor(millis));
+        total.incrementAndGet();
+        sum.addAndGet(millis);
+        long prev;
+        while (millis > (prev = max.get()) && !max.compareAndSet(prev, millis)) {
+            // reintentar
+        }
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public long mean() {
+        long n = total.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    /**
+     * @param p percentil entre 0 y 100
+     * @return límite superior (ms) del bucket del percentil, o -1 si no hay muestras
+     *         o cae en el bucket abierto final
+     */
+    public long percentile(double p) {
+        long n = total.get();
+        if (n == 0) return -1;
+        long target = (long) Math.ceil(n * (p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i < BOUNDS_MS.length ? BOUNDS_MS[i] : -1;
+            }
+        }
+        return -1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "n=" + count() + " mean=" + mean() + "ms p50=" + percentile(50) + "ms p99=" + percentile(99)
+                + "ms max=" + max() + "ms";
+    }
+
+    private static int bucketFor(long millis) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (millis <= BOUNDS_MS[i]) return i;
+        }
+        return BOUNDS_MS.length;
+    }
+}
@@ -2,6 +2,7 @@ package com.mozoqr.app;
 
 import android.annotation.SuppressLint;
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.content.Intent;
 import android.net.Uri;
@@ -9,31 +10,66 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.PowerManager;
 import android.provider.Settings;
-import android.util.Log;
+import android.webkit.WebView;
 
 import com.getcapacitor.BridgeActivity;
+import com.getcapacitor.CapConfig;
+import com.getcapacitor.WebViewListener;
 
 public class MainActivity extends BridgeActivity {
-    private static final String TAG = "MainActivity";
+    private static final AppLog.Tag LOG = AppLog.tag("MainActivity");
+    /** Cuánto esperar la config precargada por App antes de que el Bridge la lea por su cuenta. */
+    private static final long CAPACITOR_PRELOAD_WAIT_MS = 300;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
+        StartupTrace trace = App.trace();
+        trace.mark("activity_create");
+
+        // Config e índice de plugins ya se leen en segundo plano desde App.onCreate
+        CapConfig preloaded = App.startup().await(App.TASK_CAPACITOR, CAPACITOR_PRELOAD_WAIT_MS);
+        if (preloaded != null) {
+            config = preloaded;
+        }
+        // Los plugins propios se registran antes de crear el Bridge
+        registerPlugin(MetricsPlugin.class);
+        registerPlugin(CallJournalPlugin.class);
+        registerPlugin(RealtimePlugin.class);
+        registerPlugin(EscalationPlugin.class);
+        registerPlugin(CallOutboxPlugin.class);
+        registerPlugin(QrSheetPlugin.class);
+        registerPlugin(AppLogPlugin.class);
+        bridgeBuilder.addWebViewListener(new WebViewListener() {
+            private boolean loaded;
+
+            @Override
+            public void onPageLoaded(WebView webView) {
+                if (loaded) return;
+                loaded = true;
+                // Primera página cargada: la app es interactiva
+                trace.mark("first_page");
+                final Context app = getApplicationContext();
+                App.startup().whenReady(() -> trace.export(app));
+            }
+        });
+
         super.onCreate(savedInstanceState);
+        trace.mark("bridge_ready");
         
         // Register custom plugins
         registerPlugin(GoogleAuthPlugin.class);
         
-        Log.d(TAG, "🚀 MainActivity CREATED");
+        AppLog.d(LOG, "🚀 MainActivity CREATED");
         
         // (Opcional) Solicitar ignorar optimizaciones de batería para mejorar recepción en background
         requestBatteryOptimizationDisable();
         // Solicitar permiso de notificaciones (Android 13+)
         requestPostNotificationsPermission();
         
-        // LOG: Mostrar token FCM actual (con delay para que Firebase se inicialice)
-        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-            FCMTokenHelper.logCurrentToken(this);
-        }, 2000);
+        // LOG: Mostrar token FCM actual en cuanto Firebase y el store del token estén listos
+        final Context app = getApplicationContext();
+        App.startup().whenReady(() -> FCMTokenHelper.logCurrentToken(app),
+                App.TASK_FIREBASE, App.TASK_TOKEN_STORE);
         
         // Nota: Ya NO se inicia manualmente MyFirebaseMessagingService. Firebase se encarga.
     }
@@ -45,16 +81,16 @@ public class MainActivity extends BridgeActivity {
             String packageName = getPackageName();
             
             if (!powerManager.isIgnoringBatteryOptimizations(packageName)) {
-                Log.d(TAG, "Solicitando ignorar optimizaciones de batería");
+                AppLog.d(LOG, "Solicitando ignorar optimizaciones de batería");
                 try {
                     Intent intent = new Intent(Settings.ACTION_REQUEST_IGNORE_BATTERY_OPTIMIZATIONS);
                     intent.setData(Uri.parse("package:" + packageName));
                     startActivity(intent);
                 } catch (Exception e) {
-                    Log.w(TAG, "No se pudo abrir configuración de batería", e);
+                    AppLog.w(LOG, "No se pudo abrir configuración de batería", e);
                 }
             } else {
-                Log.d(TAG, "Optimizaciones de batería ya deshabilitadas");
+                AppLog.d(LOG, "Optimizaciones de batería ya deshabilitadas");
             }
         }
     }
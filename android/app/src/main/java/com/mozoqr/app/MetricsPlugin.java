@@ -0,0 +1,105 @@
+package com.mozoqr.app;
+
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+import com.getcapacitor.metrics.BridgeMetrics;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Expone a JS las métricas de rendimiento de la app: latencias del bridge
+ * por plugin/método, tráfico del bridge, hits/misses del servidor de assets,
+ * tiempos del arranque y el pipeline de llamadas FCM.
+ *
+ * Mientras las métricas están activas se vuelcan cada {@code dumpIntervalSeconds}
+ * a {@code files/bridge_metrics.json}, para sacarlas de un teléfono que anduvo
+ * lento durante el servicio aunque la app no esté abierta en ese momento.
+ */
+@CapacitorPlugin(name = "Metrics")
+public class MetricsPlugin extends Plugin {
+    private static final AppLog.Tag LOG = AppLog.tag("MetricsPlugin");
+    static final String DUMP_FILE = "bridge_metrics.json";
+    private static final int DEFAULT_DUMP_INTERVAL_S = 60;
+
+    @Override
+    public void load() {
+        if (BridgeMetrics.isEnabled()) {
+            startDumping(DEFAULT_DUMP_INTERVAL_S);
+        }
+    }
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("getMetrics", (plugin, call) -> getMetrics(call));
+        invokers.put("setEnabled", (plugin, call) -> setEnabled(call));
+        invokers.put("reset", (plugin, call) -> reset(call));
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        JSObject result = new JSObject();
+        result.put("bridge", BridgeMetrics.snapshot());
+        result.put("startup", App.trace().snapshot());
+
+        CallEventPipeline pipeline = CallEventPipeline.get(getContext());
+        JSObject calls = new JSObject();
+        calls.put("received", pipeline.received());
+        calls.put("duplicates", pipeline.duplicates());
+        calls.put("dropped", pipeline.dropped());
+        calls.put("notifications", pipeline.notifications());
+        calls.put("queueDepth", pipeline.queueDepth());
+        calls.put("sentToNotify", toJSON(pipeline.endToEndLatency()));
+        calls.put("local", toJSON(pipeline.localLatency()));
+        result.put("calls", calls);
+        result.put("escalations", EscalationPlugin.toJSON(EscalationScheduler.get(getContext())));
+        result.put("callActions", CallOutboxPlugin.toJSON(CallActions.get(getContext())));
+        result.put("log", AppLogPlugin.toJSON(AppLog.get()));
+
+        call.resolve(result);
+    }
+
+    /**
+     * { enabled: boolean, dumpIntervalSeconds?: number }
+     */
+    @PluginMethod
+    public void setEnabled(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        BridgeMetrics.setEnabled(enabled);
+        if (enabled) {
+            int interval = call.getInt("dumpIntervalSeconds", DEFAULT_DUMP_INTERVAL_S);
+            startDumping(Math.max(1, interval));
+        } else {
+            BridgeMetrics.stopDumping();
+        }
+        AppLog.d(LOG, "📊 Métricas {}", enabled ? "activadas" : "desactivadas");
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void reset(PluginCall call) {
+        BridgeMetrics.reset();
+        call.resolve();
+    }
+
+    private void startDumping(int intervalSeconds) {
+        File file = new File(getContext().getFilesDir(), DUMP_FILE);
+        BridgeMetrics.startDumping(file, intervalSeconds * 1000L);
+    }
+
+    static JSObject toJSON(LatencyHistogram h) {
+        JSObject json = new JSObject();
+        json.put("n", h.count());
+        json.put("mean", h.mean());
+        json.put("p50", h.percentile(50));
+        json.put("p99", h.percentile(99));
+        json.put("max", h.max());
+        return json;
+    }
+}
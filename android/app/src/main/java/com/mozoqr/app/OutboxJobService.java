@@ -0,0 +1,21 @@
+package com.mozoqr.app;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+
+/**
+ * Reintenta la {@link CallOutbox} cuando vuelve la red, sin abrir la app.
+ */
+public class OutboxJobService extends JobService {
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        // Si vuelve a fallar, CallActions programa el siguiente intento
+        CallActions.get(this).flush(() -> jobFinished(params, false));
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        return false;
+    }
+}
@@ -0,0 +1,285 @@
+package com.mozoqr.app;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Arma hojas de códigos QR de mesas en el dispositivo, sin pedirle cada uno a la API.
+ *
+ * Cada página es un buffer ARGB del tamaño de la hoja. Los QR de una página se
+ * codifican y se pintan en paralelo en un {@link ForkJoinPool} (cada mesa tiene su
+ * celda, así que no se pisan), y mientras el {@link PageSink} guarda una página el
+ * pool ya arma la siguiente en el otro buffer. Nunca hay más de dos páginas en
+ * memoria, sea cual sea la cantidad de mesas.
+ *
+ * Es Java puro: lo que depende de Android (texto de las etiquetas, PNG, PDF) lo hace
+ * quien recibe las páginas.
+ */
+final class QrBatch {
+    static final int WHITE = 0xFFFFFFFF;
+    static final int BLACK = 0xFF000000;
+    /** Margen blanco alrededor del QR, en módulos (lo que pide la norma). */
+    static final int QUIET_ZONE = 4;
+
+    private static final Map<EncodeHintType, Object> HINTS = new EnumMap<>(EncodeHintType.class);
+
+    static {
+        HINTS.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    }
+
+    /** Una mesa: qué dice el QR y con qué se rotula. */
+    static final class Item {
+        final String id;
+        final String label;
+        final String content;
+
+        Item(String id, String label, String content) {
+            this.id = id;
+            this.label = label;
+            this.content = content;
+        }
+    }
+
+    /** Hoja en píxeles con una grilla de celdas; cada celda es un QR y su etiqueta abajo. */
+    static final class Layout {
+        final int width;
+        final int height;
+        final int columns;
+        final int rows;
+        final int margin;
+        final int labelHeight;
+
+        Layout(int width, int height, int columns, int rows, int margin, int labelHeight) {
+            if (columns < 1 || rows < 1) {
+                throw new IllegalArgumentException("columns y rows deben ser >= 1");
+            }
+            this.width = width;
+            this.height = height;
+            this.columns = columns;
+            this.rows = rows;
+            this.margin = margin;
+            this.labelHeight = labelHeight;
+        }
+
+        /** A4 vertical a 150 dpi: se imprime nítido y la página pesa ~9 MB en memoria. */
+        static Layout a4(int columns, int rows) {
+            return new Layout(1240, 1754, columns, rows, 48, 56);
+        }
+
+        int perPage() {
+            return columns * rows;
+        }
+
+        int cellWidth() {
+            return (width - 2 * margin) / columns;
+        }
+
+        int cellHeight() {
+            return (height - 2 * margin) / rows;
+        }
+
+        int pages(int items) {
+            return (items + perPage() - 1) / perPage();
+        }
+    }
+
+    /** Dónde quedó una mesa en la página. */
+    static final class Cell {
+        final Item item;
+        /** Cuadrado del QR con su margen, en píxeles. */
+        final int x;
+        final int y;
+        final int size;
+        /** Franja de la etiqueta, debajo del QR y del ancho de la celda. */
+        final int labelX;
+        final int labelY;
+        final int labelWidth;
+        /** {@code null} si se pudo codificar. */
+        final String error;
+
+        Cell(Item item, int x, int y, int size, int labelX, int labelY, int labelWidth, String error) {
+            this.item = item;
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.labelX = labelX;
+            this.labelY = labelY;
+            this.labelWidth = labelWidth;
+            this.error = error;
+        }
+    }
+
+    /** Una página lista. Los píxeles se reusan: valen sólo durante {@link PageSink#accept}. */
+    static final class Page {
+        final int index;
+        final int count;
+        final int width;
+        final int height;
+        final int[] pixels;
+        final List<Cell> cells;
+
+        Page(int index, int count, Layout layout, int[] pixels, List<Cell> cells) {
+            this.index = index;
+            this.count = count;
+            this.width = layout.width;
+            this.height = layout.height;
+            this.pixels = pixels;
+            this.cells = cells;
+        }
+    }
+
+    interface PageSink {
+        /** Se llama en orden, en el hilo que corre {@link #run}. */
+        void accept(Page page) throws IOException;
+    }
+
+    private final ForkJoinPool pool;
+    private final Layout layout;
+
+    QrBatch(ForkJoinPool pool, Layout layout) {
+        this.pool = pool;
+        this.layout = layout;
+    }
+
+    /**
+     * Arma todas las páginas y se las pasa al sink en orden.
+     *
+     * @return cantidad de páginas
+     */
+    int run(List<Item> items, PageSink sink) throws IOException {
+        int pages = layout.pages(items.size());
+        if (pages == 0) return 0;
+        int[][] buffers = new int[pages > 1 ? 2 : 1][];
+        ForkJoinTask<Page> next = pool.submit(renderTask(items, 0, pages, buffers));
+        try {
+            for (int p = 0; p < pages; p++) {
+                Page page = next.join();
+                // La siguiente se arma en el otro buffer mientras el sink guarda esta
+                next = p + 1 < pages ? pool.submit(renderTask(items, p + 1, pages, buffers)) : null;
+                sink.accept(page);
+            }
+        } finally {
+            if (next != null) next.cancel(true);
+        }
+        return pages;
+    }
+
+    private Callable<Page> renderTask(List<Item> items, int index, int pages, int[][] buffers) {
+        return () -> {
+            int slot = index % buffers.length;
+            if (buffers[slot] == null) {
+                buffers[slot] = new int[layout.width * layout.height];
+            }
+            int[] pixels = buffers[slot];
+            Arrays.fill(pixels, WHITE);
+            int from = index * layout.perPage();
+            int to = Math.min(items.size(), from + layout.perPage());
+            Cell[] cells = new Cell[to - from];
+            new RenderRange(items, from, 0, cells.length, cells, pixels).invoke();
+            return new Page(index, pages, layout, pixels, Collections.unmodifiableList(Arrays.asList(cells)));
+        };
+    }
+
+    /** Parte las celdas de una página hasta que cada tarea pinta una sola mesa. */
+    private final class RenderRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Item> items;
+        private final int first;
+        private final int lo;
+        private final int hi;
+        private final Cell[] cells;
+        private final int[] pixels;
+
+        RenderRange(List<Item> items, int first, int lo, int hi, Cell[] cells, int[] pixels) {
+            this.items = items;
+            this.first = first;
+            this.lo = lo;
+            this.hi = hi;
+            this.cells = cells;
+            this.pixels = pixels;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                cells[lo] = renderCell(items.get(first + lo), lo, pixels);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RenderRange(items, first, lo, mid, cells, pixels),
+                    new RenderRange(items, first, mid, hi, cells, pixels));
+        }
+    }
+
+    private Cell renderCell(Item item, int slot, int[] pixels) {
+        int cellW = layout.cellWidth();
+        int cellH = layout.cellHeight();
+        int cellX = layout.margin + (slot % layout.columns) * cellW;
+        int cellY = layout.margin + (slot / layout.columns) * cellH;
+        int area = Math.min(cellW, cellH - layout.labelHeight);
+
+        ByteMatrix matrix;
+        try {
+            matrix = Encoder.encode(item.content, ErrorCorrectionLevel.M, HINTS).getMatrix();
+        } catch (WriterException | IllegalArgumentException e) {
+            return new Cell(item, cellX, cellY, 0, cellX, cellY, cellW, String.valueOf(e.getMessage()));
+        }
+        int modules = matrix.getWidth() + 2 * QUIET_ZONE;
+        // Módulos de un número entero de píxeles: sin bordes borrosos al imprimir
+        int module = Math.max(1, area / modules);
+        int size = module * modules;
+        int x = cellX + (cellW - size) / 2;
+        int y = cellY + (cellH - layout.labelHeight - size) / 2;
+        paint(matrix, module, x + QUIET_ZONE * module, y + QUIET_ZONE * module, pixels);
+        return new Cell(item, x, y, size, cellX, y + size, cellW, null);
+    }
+
+    /** Pinta cada fila de módulos una vez y la copia hacia abajo {@code module - 1} veces. */
+    private void paint(ByteMatrix matrix, int module, int left, int top, int[] pixels) {
+        int n = matrix.getWidth();
+        int stride = layout.width;
+        for (int my = 0; my < n; my++) {
+            int row = (top + my * module) * stride;
+            int mx = 0;
+            while (mx < n) {
+                if (matrix.get(mx, my) != 1) {
+                    mx++;
+                    continue;
+                }
+                int start = mx;
+                while (mx < n && matrix.get(mx, my) == 1) mx++;
+                Arrays.fill(pixels, row + left + start * module, row + left + mx * module, BLACK);
+            }
+            int from = row + left;
+            int length = n * module;
+            for (int r = 1; r < module; r++) {
+                System.arraycopy(pixels, from, pixels, from + r * stride, length);
+            }
+        }
+    }
+
+    /** Para el sink: las celdas que no se pudieron codificar. */
+    static List<Cell> failed(Page page) {
+        List<Cell> failed = new ArrayList<>();
+        for (Cell cell : page.cells) {
+            if (cell.error != null) failed.add(cell);
+        }
+        return failed;
+    }
+}
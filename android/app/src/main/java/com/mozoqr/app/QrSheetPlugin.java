@@ -0,0 +1,250 @@
+package com.mozoqr.app;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.pdf.PdfDocument;
+import android.os.SystemClock;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Genera en el dispositivo las hojas de QR de las mesas ({@link QrBatch}), en PNG
+ * (un archivo por página) o en un único PDF.
+ *
+ * Corre en su propio carril para no trabar otras llamadas. Cada PNG se avisa con
+ * {@code qrSheetPage} apenas queda en disco, así JS lo puede mostrar o compartir sin
+ * esperar al resto; {@code qrSheetProgress} informa cuántas mesas van. Las hojas
+ * quedan en la caché y se pisan en la próxima generación.
+ */
+@CapacitorPlugin(name = "QrSheet", lane = QrSheetPlugin.LANE)
+public class QrSheetPlugin extends Plugin {
+    private static final AppLog.Tag LOG = AppLog.tag("QrSheetPlugin");
+    static final String LANE = "QrSheet";
+    static final String EVENT_PAGE = "qrSheetPage";
+    static final String EVENT_PROGRESS = "qrSheetProgress";
+    static final String DIRECTORY = "qr_sheets";
+    static final int DEFAULT_COLUMNS = 3;
+    static final int DEFAULT_ROWS = 4;
+    /** A4 en puntos PDF. */
+    private static final int PDF_WIDTH = 595;
+    private static final int PDF_HEIGHT = 842;
+
+    private static volatile ForkJoinPool pool;
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("generate", (plugin, call) -> generate(call));
+        invokers.put("clear", (plugin, call) -> clear(call));
+    }
+
+    /**
+     * { items: [{ id, label, content }], format?: 'png' | 'pdf', columns?: number, rows?: number }
+     */
+    @PluginMethod
+    public void generate(PluginCall call) {
+        List<QrBatch.Item> items = items(call.getArray("items"));
+        if (items == null || items.isEmpty()) {
+            call.reject("items requerido");
+            return;
+        }
+        boolean pdf = !"png".equals(call.getString("format", "pdf"));
+        QrBatch.Layout layout;
+        try {
+            layout = QrBatch.Layout.a4(call.getInt("columns", DEFAULT_COLUMNS), call.getInt("rows", DEFAULT_ROWS));
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+
+        File dir = new File(getContext().getCacheDir(), DIRECTORY);
+        deleteSheets(dir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            call.reject("No se pudo crear " + dir);
+            return;
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        Sheets sheets = new Sheets(dir, layout, pdf, items.size());
+        int pages;
+        try {
+            pages = new QrBatch(pool(), layout).run(items, sheets);
+            sheets.finish();
+        } catch (IOException | RuntimeException e) {
+            AppLog.e(LOG, "❌ Error generando hojas QR", e);
+            call.reject("No se pudieron generar las hojas: " + e.getMessage(), e);
+            return;
+        } finally {
+            sheets.close();
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        AppLog.d(LOG, "🧾 {} QR en {} páginas, {} ms", items.size(), pages, elapsed);
+
+        JSObject result = new JSObject();
+        result.put("tables", items.size());
+        result.put("pages", pages);
+        result.put("durationMs", elapsed);
+        result.put("files", sheets.files);
+        result.put("failed", sheets.failed);
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void clear(PluginCall call) {
+        deleteSheets(new File(getContext().getCacheDir(), DIRECTORY));
+        call.resolve();
+    }
+
+    private static List<QrBatch.Item> items(JSArray array) {
+        if (array == null) return null;
+        List<QrBatch.Item> items = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.optJSONObject(i);
+            if (item == null) continue;
+            String content = item.optString("content", "");
+            if (content.isEmpty()) continue;
+            items.add(new QrBatch.Item(item.optString("id", String.valueOf(i)), item.optString("label", ""), content));
+        }
+        return items;
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (QrSheetPlugin.class) {
+                p = pool;
+                if (p == null) {
+                    // Un hilo por núcleo: codificar y pintar es todo CPU
+                    p = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static void deleteSheets(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            f.delete();
+        }
+    }
+
+    /**
+     * Recibe las páginas de {@link QrBatch}: pasa los píxeles a un único Bitmap que se
+     * reusa, le escribe las etiquetas y lo guarda como PNG o como página del PDF.
+     */
+    private final class Sheets implements QrBatch.PageSink {
+        private final File dir;
+        private final QrBatch.Layout layout;
+        private final boolean pdf;
+        private final int total;
+        private final Bitmap bitmap;
+        private final Canvas canvas;
+        private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final PdfDocument document;
+        private int done;
+
+        final JSArray files = new JSArray();
+        final JSArray failed = new JSArray();
+
+        Sheets(File dir, QrBatch.Layout layout, boolean pdf, int total) {
+            this.dir = dir;
+            this.layout = layout;
+            this.pdf = pdf;
+            this.total = total;
+            this.bitmap = Bitmap.createBitmap(layout.width, layout.height, Bitmap.Config.ARGB_8888);
+            this.canvas = new Canvas(bitmap);
+            this.document = pdf ? new PdfDocument() : null;
+            labelPaint.setColor(QrBatch.BLACK);
+            labelPaint.setTextAlign(Paint.Align.CENTER);
+            labelPaint.setTextSize(layout.labelHeight * 0.6f);
+            labelPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        }
+
+        @Override
+        public void accept(QrBatch.Page page) throws IOException {
+            bitmap.setPixels(page.pixels, 0, page.width, 0, 0, page.width, page.height);
+            float baseline = layout.labelHeight * 0.7f;
+            for (QrBatch.Cell cell : page.cells) {
+                canvas.drawText(cell.item.label, cell.labelX + cell.labelWidth / 2f, cell.labelY + baseline, labelPaint);
+                if (cell.error != null) {
+                    JSObject f = new JSObject();
+                    f.put("id", cell.item.id);
+                    f.put("error", cell.error);
+                    failed.put(f);
+                }
+            }
+
+            if (pdf) {
+                PdfDocument.Page p = document.startPage(
+                        new PdfDocument.PageInfo.Builder(PDF_WIDTH, PDF_HEIGHT, page.index + 1).create());
+                Canvas c = p.getCanvas();
+                c.scale((float) PDF_WIDTH / page.width, (float) PDF_HEIGHT / page.height);
+                c.drawBitmap(bitmap, 0, 0, null);
+                document.finishPage(p);
+            } else {
+                File file = new File(dir, "mesas-" + (page.index + 1) + ".png");
+                try (OutputStream out = new FileOutputStream(file)) {
+                    bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+                }
+                JSObject sheet = sheet(file);
+                sheet.put("page", page.index);
+                sheet.put("pages", page.count);
+                files.put(sheet);
+                notifyListeners(EVENT_PAGE, sheet);
+            }
+
+            done += page.cells.size();
+            JSObject progress = new JSObject();
+            progress.put("done", done);
+            progress.put("total", total);
+            progress.put("page", page.index);
+            progress.put("pages", page.count);
+            notifyListeners(EVENT_PROGRESS, progress);
+        }
+
+        void finish() throws IOException {
+            if (!pdf) return;
+            File file = new File(dir, "mesas.pdf");
+            try (OutputStream out = new FileOutputStream(file)) {
+                document.writeTo(out);
+            }
+            files.put(sheet(file));
+        }
+
+        void close() {
+            if (document != null) document.close();
+            bitmap.recycle();
+        }
+
+        private JSObject sheet(File file) {
+            JSObject json = new JSObject();
+            json.put("path", file.getAbsolutePath());
+            json.put("webPath", bridge.getLocalUrl() + Bridge.CAPACITOR_FILE_START + file.getAbsolutePath());
+            json.put("size", file.length());
+            return json;
+        }
+    }
+}
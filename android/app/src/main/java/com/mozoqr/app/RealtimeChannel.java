@@ -0,0 +1,474 @@
+package com.mozoqr.app;
+
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal de tiempo real nativo: una sola conexión WebSocket al servidor
+ * Pusher (protocolo 7) multiplexando todos los canales suscritos.
+ *
+ * Vive fuera de la WebView, así que sigue conectado aunque Android la
+ * congele. Si la conexión se cae reconecta con backoff exponencial con
+ * jitter y vuelve a suscribir todos los canales; los eventos se decodifican
+ * en el hilo lector del socket y se entregan al {@link Listener} ahí mismo.
+ *
+ * Todo el estado de la conexión lo maneja un único hilo de control, así que
+ * no hace falta sincronizarlo.
+ */
+public final class RealtimeChannel {
+    private static final AppLog.Tag LOG = AppLog.tag("RealtimeChannel");
+
+    public enum State { DISCONNECTED, CONNECTING, CONNECTED, FAILED }
+
+    public interface Listener {
+        /** Desde el hilo lector del socket. */
+        void onEvent(String channel, String event, String data, long receivedAtMs);
+
+        /** Desde el hilo de control. */
+        void onStateChanged(State state);
+    }
+
+    /** Firma la suscripción a canales privados/presence. Corre en el hilo de control. */
+    public interface Authorizer {
+        String authorize(String socketId, String channel) throws IOException;
+    }
+
+    static final int CONNECT_TIMEOUT_MS = 10_000;
+    static final long DEFAULT_BACKOFF_BASE_MS = 1_000;
+    static final long DEFAULT_BACKOFF_MAX_MS = 30_000;
+    /** Lo que espera el servidor si no manda su propio activity_timeout. */
+    static final long DEFAULT_ACTIVITY_TIMEOUT_MS = 120_000;
+    static final long PONG_TIMEOUT_MS = 30_000;
+
+    private final URI uri;
+    private final Authorizer authorizer;
+    private final Listener listener;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final ScheduledExecutorService control;
+    private final Random random = new Random();
+
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final LatencyHistogram reconnectLatency = new LatencyHistogram();
+    private volatile long lastActivityNanos;
+    private volatile State state = State.DISCONNECTED;
+
+    // Estado propiedad exclusiva del hilo de control
+    private final Set<String> channels = new LinkedHashSet<>();
+    private final Set<String> pending = new HashSet<>();
+    private RealtimeSocket socket;
+    private String socketId;
+    private boolean running;
+    private int attempt;
+    private long activityTimeoutMs = DEFAULT_ACTIVITY_TIMEOUT_MS;
+    private long pingSentNanos;
+    private long droppedAtNanos;
+    private ScheduledFuture<?> reconnectTask;
+    private ScheduledFuture<?> activityTask;
+
+    public RealtimeChannel(URI uri, Authorizer authorizer, Listener listener) {
+        this(uri, authorizer, listener, DEFAULT_BACKOFF_BASE_MS, DEFAULT_BACKOFF_MAX_MS);
+    }
+
+    RealtimeChannel(URI uri, Authorizer authorizer, Listener listener, long backoffBaseMs, long backoffMaxMs) {
+        this.uri = uri;
+        this.authorizer = authorizer;
+        this.listener = listener;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.control = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MozoRealtime");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** URI del cluster de Pusher para una app key. */
+    public static URI pusherUri(String key, String cluster) {
+        return URI.create("wss://ws-" + cluster + ".pusher.com/app/" + key
+                + "?protocol=7&client=mozo-android&version=1.0&flash=false");
+    }
+
+    public void connect() {
+        post(() -> {
+            if (running) return;
+            running = true;
+            attempt = 0;
+            open();
+        });
+    }
+
+    /** Corta la conexión y deja de reconectar. Las suscripciones se conservan. */
+    public void disconnect() {
+        post(() -> {
+            running = false;
+            cancel(reconnectTask);
+            drop(RealtimeSocket.CLOSE_NORMAL);
+            setState(State.DISCONNECTED);
+        });
+    }
+
+    /** Libera el hilo de control; el canal no se puede volver a usar. */
+    public void shutdown() {
+        disconnect();
+        control.shutdown();
+    }
+
+    public void subscribe(String channel) {
+        post(() -> {
+            if (channels.add(channel) && socketId != null) {
+                sendSubscribe(channel);
+            }
+        });
+    }
+
+    public void unsubscribe(String channel) {
+        post(() -> {
+            if (channels.remove(channel)) {
+                pending.remove(channel);
+                if (socketId != null) {
+                    send(message("pusher:unsubscribe", channelData(channel, null)));
+                }
+            }
+        });
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public long events() {
+        return events.get();
+    }
+
+    public long connects() {
+        return connects.get();
+    }
+
+    /** Desde que se detecta el corte hasta que todos los canales vuelven a estar suscritos. */
+    public LatencyHistogram reconnectLatency() {
+        return reconnectLatency;
+    }
+
+    // --- hilo de control ---
+
+    private void open() {
+        reconnectTask = null;
+        setState(State.CONNECTING);
+        RealtimeSocket s;
+        try {
+            s = RealtimeSocket.connect(uri, CONNECT_TIMEOUT_MS, socketListener);
+        } catch (IOException e) {
+            AppLog.w(LOG, "⚠️ No se pudo conectar: {}", e.getMessage());
+            scheduleReconnect(false);
+            return;
+        }
+        socket = s;
+        lastActivityNanos = System.nanoTime();
+    }
+
+    private void onConnectionEstablished(RealtimeSocket s, JSONObject data) {
+        if (s != socket || !running) return;
+        socketId = data.optString("socket_id", null);
+        long timeoutS = data.optLong("activity_timeout", 0);
+        activityTimeoutMs = timeoutS > 0 ? Math.min(timeoutS * 1000, DEFAULT_ACTIVITY_TIMEOUT_MS) : DEFAULT_ACTIVITY_TIMEOUT_MS;
+        attempt = 0;
+        connects.incrementAndGet();
+        pending.clear();
+        for (String channel : channels) {
+            sendSubscribe(channel);
+        }
+        setState(State.CONNECTED);
+        scheduleActivityCheck(activityTimeoutMs);
+        maybeRecordReconnect();
+    }
+
+    private void onSubscribed(RealtimeSocket s, String channel) {
+        if (s != socket) return;
+        pending.remove(channel);
+        maybeRecordReconnect();
+    }
+
+    private void maybeRecordReconnect() {
+        if (droppedAtNanos != 0 && pending.isEmpty() && socketId != null) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - droppedAtNanos);
+            reconnectLatency.record(ms);
+            droppedAtNanos = 0;
+            AppLog.d(LOG, "🔌 Reconectado y resuscrito en {}ms", ms);
+        }
+    }
+
+    private void sendSubscribe(String channel) {
+        String auth = null;
+        if (channel.startsWith("private-") || channel.startsWith("presence-")) {
+            if (authorizer == null) {
+                AppLog.w(LOG, "⚠️ Canal privado sin autorizador: {}", channel);
+                return;
+            }
+            try {
+                auth = authorizer.authorize(socketId, channel);
+            } catch (IOException e) {
+                AppLog.w(LOG, "⚠️ No se pudo autorizar {}: {}", channel, e.getMessage());
+                return;
+            }
+        }
+        pending.add(channel);
+        send(message("pusher:subscribe", channelData(channel, auth)));
+    }
+
+    private void onClosed(RealtimeSocket s, int code) {
+        if (s != socket) return;
+        socket = null;
+        socketId = null;
+        cancel(activityTask);
+        if (!running) return;
+        if (droppedAtNanos == 0) {
+            droppedAtNanos = System.nanoTime();
+        }
+        if (code >= 4000 && code < 4100) {
+            // Error de configuración (app key, SSL): reconectar no lo arregla
+            AppLog.e(LOG, "❌ Pusher rechazó la conexión ({}), no se reintenta", code);
+            running = false;
+            setState(State.FAILED);
+            return;
+        }
+        AppLog.w(LOG, "⚠️ Conexión cerrada ({}), reconectando", code);
+        scheduleReconnect(code >= 4200 && code < 4300);
+    }
+
+    private void scheduleReconnect(boolean immediately) {
+        if (!running) return;
+        setState(State.DISCONNECTED);
+        // 4200-4299: reconectar ya, pero sólo una vez seguida sin backoff
+        long delay = immediately && attempt == 0 ? 0 : backoffDelay(attempt);
+        attempt++;
+        reconnectTask = control.schedule(this::open, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Mitad fija y mitad al azar, para que 30 teléfonos del mismo local no reconecten juntos. */
+    long backoffDelay(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        long half = ceiling / 2;
+        return half + (long) (random.nextDouble() * (ceiling - half));
+    }
+
+    private void scheduleActivityCheck(long delayMs) {
+        cancel(activityTask);
+        activityTask = control.schedule(this::checkActivity, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkActivity() {
+        if (socket == null) return;
+        long now = System.nanoTime();
+        long idleMs = TimeUnit.NANOSECONDS.toMillis(now - lastActivityNanos);
+        if (pingSentNanos != 0 && lastActivityNanos - pingSentNanos < 0) {
+            if (TimeUnit.NANOSECONDS.toMillis(now - pingSentNanos) >= PONG_TIMEOUT_MS) {
+                AppLog.w(LOG, "⚠️ Sin pong del servidor, reconectando");
+                pingSentNanos = 0;
+                drop(RealtimeSocket.CLOSE_GOING_AWAY);
+                return;
+            }
+            scheduleActivityCheck(PONG_TIMEOUT_MS);
+        } else if (idleMs >= activityTimeoutMs) {
+            pingSentNanos = now;
+            send(message("pusher:ping", new JSONObject()));
+            scheduleActivityCheck(PONG_TIMEOUT_MS);
+        } else {
+            pingSentNanos = 0;
+            scheduleActivityCheck(activityTimeoutMs - idleMs);
+        }
+    }
+
+    /** Corta el socket actual; el cierre llega por {@link #onClosed} como cualquier otro. */
+    private void drop(int code) {
+        RealtimeSocket s = socket;
+        if (s != null) {
+            s.close(code, "");
+        }
+    }
+
+    private void send(String text) {
+        RealtimeSocket s = socket;
+        if (s == null) return;
+        try {
+            s.sendText(text);
+        } catch (IOException e) {
+            // El lector va a ver el corte y avisar por onClosed
+            s.close(RealtimeSocket.CLOSE_ABNORMAL, "");
+        }
+    }
+
+    private void setState(State next) {
+        if (state != next) {
+            state = next;
+            listener.onStateChanged(next);
+        }
+    }
+
+    /** Encola en el hilo de control; después de {@link #shutdown} no hace nada. */
+    private void post(Runnable task) {
+        try {
+            control.execute(task);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> task) {
+        if (task != null) task.cancel(false);
+    }
+
+    // --- hilo lector ---
+
+    private final RealtimeSocket.Listener socketListener = new RealtimeSocket.Listener() {
+        @Override
+        public void onText(RealtimeSocket s, String text) {
+            long receivedAt = System.currentTimeMillis();
+            lastActivityNanos = System.nanoTime();
+            JSONObject msg;
+            try {
+                msg = new JSONObject(text);
+            } catch (JSONException e) {
+                AppLog.w(LOG, "⚠️ Mensaje ilegible descartado");
+                return;
+            }
+            String event = msg.optString("event", "");
+            String channel = msg.optString("channel", null);
+            Object data = msg.opt("data");
+            String dataText = data == null ? null : data.toString();
+
+            switch (event) {
+                case "pusher:connection_established":
+                    JSONObject established = parse(dataText);
+                    post(() -> onConnectionEstablished(s, established));
+                    break;
+                case "pusher_internal:subscription_succeeded":
+                    post(() -> onSubscribed(s, channel));
+                    break;
+                case "pusher:ping":
+                    post(() -> send(message("pusher:pong", new JSONObject())));
+                    break;
+                case "pusher:pong":
+                    break;
+                case "pusher:error":
+                    JSONObject error = parse(dataText);
+                    AppLog.w(LOG, "⚠️ Error de Pusher: {} ({})", error.optString("message"), error.optInt("code"));
+                    break;
+                default:
+                    if (channel != null && !event.startsWith("pusher")) {
+                        events.incrementAndGet();
+                        listener.onEvent(channel, event, dataText, receivedAt);
+                    }
+            }
+        }
+
+        @Override
+        public void onClosed(RealtimeSocket s, int code, String reason) {
+            post(() -> RealtimeChannel.this.onClosed(s, code));
+        }
+    };
+
+    private static JSONObject parse(String json) {
+        if (json == null) return new JSONObject();
+        try {
+            return new JSONObject(json);
+        } catch (JSONException e) {
+            return new JSONObject();
+        }
+    }
+
+    private static JSONObject channelData(String channel, String auth) {
+        JSONObject data = new JSONObject();
+        try {
+            data.put("channel", channel);
+            if (auth != null) data.put("auth", auth);
+        } catch (JSONException ignored) {
+        }
+        return data;
+    }
+
+    private static String message(String event, JSONObject data) {
+        JSONObject msg = new JSONObject();
+        try {
+            msg.put("event", event);
+            msg.put("data", data);
+        } catch (JSONException ignored) {
+        }
+        return msg.toString();
+    }
+
+    /**
+     * Autoriza canales privados contra el endpoint de broadcasting de Laravel
+     * con el token del usuario, igual que hace laravel-echo en la WebView.
+     */
+    public static final class HttpAuthorizer implements Authorizer {
+        private final String endpoint;
+        private volatile String token;
+
+        public HttpAuthorizer(String endpoint, String token) {
+            this.endpoint = endpoint;
+            this.token = token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public String authorize(String socketId, String channel) throws IOException {
+            byte[] body = ("socket_id=" + URLEncoder.encode(socketId, "UTF-8")
+                    + "&channel_name=" + URLEncoder.encode(channel, "UTF-8")).getBytes(StandardCharsets.UTF_8);
+            HttpURLConnection conn = (HttpURLConnection) new URL(endpoint).openConnection();
+            try {
+                conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+                conn.setReadTimeout(CONNECT_TIMEOUT_MS);
+                conn.setRequestMethod("POST");
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                conn.setRequestProperty("Accept", "application/json");
+                conn.setRequestProperty("Authorization", "Bearer " + token);
+                conn.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+                int status = conn.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("HTTP " + status);
+                }
+                ByteArrayOutputStream response = new ByteArrayOutputStream(256);
+                byte[] buf = new byte[1024];
+                try (InputStream in = conn.getInputStream()) {
+                    for (int n; (n = in.read(buf)) > 0; ) {
+                        response.write(buf, 0, n);
+                    }
+                }
+                String auth = parse(response.toString("UTF-8")).optString("auth", null);
+                if (auth == null) throw new IOException("Respuesta sin auth");
+                return auth;
+            } finally {
+                conn.disconnect();
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.mozoqr.app;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.PluginMethodInvoker;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * Expone a JS el canal de tiempo real nativo ({@link RealtimeChannel}), que
+ * reemplaza al socket de laravel-echo/pusher-js dentro de la WebView.
+ *
+ * Mientras la app está visible los eventos se juntan durante
+ * {@link #BATCH_WINDOW_MS} y se emiten de a lotes como {@code realtimeEvents};
+ * en segundo plano se guardan en memoria (hasta {@link #MAX_BUFFERED}) y se
+ * entregan todos juntos al volver, en vez de despertar a la WebView por cada
+ * uno. Si el buffer desborda el lote sale con {@code overflowed: true} para
+ * que JS haga una recarga completa.
+ */
+@CapacitorPlugin(name = "Realtime")
+public class RealtimePlugin extends Plugin {
+    private static final AppLog.Tag LOG = AppLog.tag("RealtimePlugin");
+    static final String EVENT_BATCH = "realtimeEvents";
+    static final String EVENT_STATE = "realtimeState";
+    static final long BATCH_WINDOW_MS = 50;
+    static final int MAX_BUFFERED = 2000;
+
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+
+    // Protegidos por "buffer"
+    private final ArrayDeque<JSObject> buffer = new ArrayDeque<>();
+    private boolean visible = true;
+    private boolean flushScheduled;
+    private boolean overflowed;
+
+    private RealtimeChannel channel;
+    private URI channelUri;
+    private RealtimeChannel.HttpAuthorizer authorizer;
+
+    @Override
+    protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+        super.registerMethodInvokers(invokers);
+        invokers.put("connect", (plugin, call) -> connect(call));
+        invokers.put("subscribe", (plugin, call) -> subscribe(call));
+        invokers.put("unsubscribe", (plugin, call) -> unsubscribe(call));
+        invokers.put("disconnect", (plugin, call) -> disconnect(call));
+        invokers.put("getStats", (plugin, call) -> getStats(call));
+    }
+
+    /**
+     * { key: string, cluster: string, authEndpoint: string, token: string, url?: string }
+     *
+     * Llamarlo de nuevo con la misma configuración sólo actualiza el token.
+     */
+    @PluginMethod
+    public void connect(PluginCall call) {
+        String key = call.getString("key");
+        String cluster = call.getString("cluster");
+        String url = call.getString("url");
+        String authEndpoint = call.getString("authEndpoint");
+        String token = call.getString("token");
+        if (url == null && (key == null || cluster == null)) {
+            call.reject("key y cluster requeridos");
+            return;
+        }
+        URI uri = url != null ? URI.create(url) : RealtimeChannel.pusherUri(key, cluster);
+
+        synchronized (this) {
+            if (channel != null && uri.equals(channelUri)) {
+                if (authorizer != null) authorizer.setToken(token);
+            } else {
+                if (channel != null) {
+                    channel.shutdown();
+                }
+                authorizer = authEndpoint != null ? new RealtimeChannel.HttpAuthorizer(authEndpoint, token) : null;
+                channel = new RealtimeChannel(uri, authorizer, channelListener);
+                channelUri = uri;
+            }
+            channel.connect();
+        }
+        AppLog.d(LOG, "🔌 Canal nativo conectando a {}", uri.getHost());
+        call.resolve();
+    }
+
+    /**
+     * { channel: string }
+     */
+    @PluginMethod
+    public void subscribe(PluginCall call) {
+        String name = call.getString("channel");
+        RealtimeChannel c = channel();
+        if (name == null || c == null) {
+            call.reject(c == null ? "Canal no conectado" : "channel requerido");
+            return;
+        }
+        c.subscribe(name);
+        call.resolve();
+    }
+
+    /**
+     * { channel: string }
+     */
+    @PluginMethod
+    public void unsubscribe(PluginCall call) {
+        String name = call.getString("channel");
+        RealtimeChannel c = channel();
+        if (name != null && c != null) {
+            c.unsubscribe(name);
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void disconnect(PluginCall call) {
+        synchronized (this) {
+            if (channel != null) {
+                channel.shutdown();
+                channel = null;
+                authorizer = null;
+            }
+        }
+        synchronized (buffer) {
+            buffer.clear();
+            overflowed = false;
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void getStats(PluginCall call) {
+        RealtimeChannel c = channel();
+        JSObject result = new JSObject();
+        result.put("state", c != null ? c.state().name() : RealtimeChannel.State.DISCONNECTED.name());
+        if (c != null) {
+            result.put("events", c.events());
+            result.put("connects", c.connects());
+            LatencyHistogram h = c.reconnectLatency();
+            JSObject reconnect = new JSObject();
+            reconnect.put("n", h.count());
+            reconnect.put("p50", h.percentile(50));
+            reconnect.put("p99", h.percentile(99));
+            reconnect.put("max", h.max());
+            result.put("reconnect", reconnect);
+        }
+        synchronized (buffer) {
+            result.put("buffered", buffer.size());
+        }
+        call.resolve(result);
+    }
+
+    @Override
+    protected void handleOnStart() {
+        synchronized (buffer) {
+            visible = true;
+        }
+        main.removeCallbacks(flush);
+        flush();
+    }
+
+    @Override
+    protected void handleOnStop() {
+        synchronized (buffer) {
+            visible = false;
+            flushScheduled = false;
+        }
+        main.removeCallbacks(flush);
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        synchronized (this) {
+            if (channel != null) {
+                channel.shutdown();
+                channel = null;
+            }
+        }
+        main.removeCallbacks(flush);
+    }
+
+    private synchronized RealtimeChannel channel() {
+        return channel;
+    }
+
+    private void enqueue(JSObject event) {
+        boolean schedule;
+        synchronized (buffer) {
+            if (buffer.size() >= MAX_BUFFERED) {
+                buffer.pollFirst();
+                overflowed = true;
+            }
+            buffer.addLast(event);
+            schedule = visible && !flushScheduled;
+            if (schedule) flushScheduled = true;
+        }
+        if (schedule) {
+            main.postDelayed(flush, BATCH_WINDOW_MS);
+        }
+    }
+
+    private void flush() {
+        JSArray events = new JSArray();
+        boolean lost;
+        synchronized (buffer) {
+            flushScheduled = false;
+            if (buffer.isEmpty() && !overflowed) return;
+            for (JSObject e; (e = buffer.pollFirst()) != null; ) {
+                events.put(e);
+            }
+            lost = overflowed;
+            overflowed = false;
+        }
+        JSObject data = new JSObject();
+        data.put("events", events);
+        data.put("overflowed", lost);
+        notifyListeners(EVENT_BATCH, data);
+    }
+
+    private final RealtimeChannel.Listener channelListener = new RealtimeChannel.Listener() {
+        @Override
+        public void onEvent(String channel, String event, String data, long receivedAtMs) {
+            JSObject json = new JSObject();
+            json.put("channel", channel);
+            json.put("event", event);
+            json.put("data", data);
+            json.put("receivedAt", receivedAtMs);
+            enqueue(json);
+        }
+
+        @Override
+        public void onStateChanged(RealtimeChannel.State state) {
+            JSObject data = new JSObject();
+            data.put("state", state.name());
+            notifyListeners(EVENT_STATE, data);
+        }
+    };
+}
@@ -0,0 +1,368 @@
+package com.mozoqr.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Cliente WebSocket (RFC 6455) mínimo para {@link RealtimeChannel}.
+ *
+ * Sólo lo que usa el canal: frames de texto (fragmentados o no), ping/pong y
+ * close. El handshake corre en el hilo que llama a {@link #connect}; después
+ * un hilo lector propio decodifica los frames y entrega el texto ya en UTF-8
+ * al {@link Listener}, nunca en el hilo principal.
+ */
+final class RealtimeSocket {
+    static final int CLOSE_NORMAL = 1000;
+    static final int CLOSE_GOING_AWAY = 1001;
+    static final int CLOSE_PROTOCOL_ERROR = 1002;
+    static final int CLOSE_TOO_BIG = 1009;
+    /** Código local: la conexión se cortó sin frame de close. */
+    static final int CLOSE_ABNORMAL = 1006;
+
+    /** Mensaje más grande que se acepta; los eventos de Pusher están limitados a 10 KB. */
+    static final int MAX_MESSAGE_BYTES = 1 << 20;
+
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    interface Listener {
+        void onText(RealtimeSocket socket, String text);
+
+        /** Se llama una sola vez, desde el hilo lector, al terminar la conexión. */
+        void onClosed(RealtimeSocket socket, int code, String reason);
+    }
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final Listener listener;
+    private final byte[] mask = new byte[4];
+    // Sólo lo usa el hilo lector
+    private final byte[] copyBuffer = new byte[4096];
+    private volatile boolean closeSent;
+
+    private RealtimeSocket(Socket socket, InputStream in, OutputStream out, Listener listener) {
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+        this.listener = listener;
+    }
+
+    /**
+     * Abre la conexión y hace el handshake. Si vuelve sin excepción el hilo
+     * lector ya está corriendo.
+     */
+    static RealtimeSocket connect(URI uri, int timeoutMs, Listener listener) throws IOException {
+        return connect(uri, timeoutMs, listener, (SSLSocketFactory) SSLSocketFactory.getDefault(),
+                HttpsURLConnection.getDefaultHostnameVerifier());
+    }
+
+    /** Con la fábrica TLS y el verificador de nombres explícitos, para los tests. */
+    static RealtimeSocket connect(URI uri, int timeoutMs, Listener listener, SSLSocketFactory tlsFactory,
+                                  HostnameVerifier verifier) throws IOException {
+        boolean tls = "wss".equalsIgnoreCase(uri.getScheme());
+        if (!tls && !"ws".equalsIgnoreCase(uri.getScheme())) {
+            throw new ProtocolException("Esquema no soportado: " + uri.getScheme());
+        }
+        String host = uri.getHost();
+        int port = uri.getPort() != -1 ? uri.getPort() : (tls ? 443 : 80);
+
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            if (tls) {
+                SSLSocket ssl = (SSLSocket) tlsFactory.createSocket(socket, host, port, true);
+                socket = ssl;
+                ssl.startHandshake();
+                // Un SSLSocket no mira el nombre del certificado: sin esto vale cualquier
+                // certificado válido de cualquier host
+                if (!verifier.verify(host, ssl.getSession())) {
+                    throw new SSLPeerUnverifiedException("El certificado no corresponde a " + host);
+                }
+            }
+            socket.setSoTimeout(timeoutMs);
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 8192);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+            handshake(uri, host, port, tls, in, out);
+            // Después del handshake el lector bloquea sin límite; los cortes
+            // silenciosos los detecta el ping de actividad del canal.
+            socket.setSoTimeout(0);
+
+            RealtimeSocket ws = new RealtimeSocket(socket, in, out, listener);
+            Thread reader = new Thread(ws::readLoop, "MozoRealtimeReader");
+            reader.setDaemon(true);
+            reader.start();
+            return ws;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private static void handshake(URI uri, String host, int port, boolean tls, InputStream in, OutputStream out)
+            throws IOException {
+        byte[] nonce = new byte[16];
+        RANDOM.nextBytes(nonce);
+        String key = base64(nonce);
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        boolean defaultPort = port == (tls ? 443 : 80);
+        String request = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + host + (defaultPort ? "" : ":" + port) + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + key + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "\r\n";
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+
+        String status = readLine(in);
+        if (!status.startsWith("HTTP/1.1 101")) {
+            throw new ProtocolException("Handshake rechazado: " + status);
+        }
+        String accept = null;
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept")) {
+                accept = line.substring(colon + 1).trim();
+            }
+        }
+        if (!acceptFor(key).equals(accept)) {
+            throw new ProtocolException("Sec-WebSocket-Accept inválido");
+        }
+    }
+
+    /** Valor de Sec-WebSocket-Accept que corresponde a una Sec-WebSocket-Key. */
+    static String acceptFor(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return base64(sha1.digest((key + GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void sendText(String text) throws IOException {
+        send(OP_TEXT, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Envía el close (una sola vez) y corta la conexión; el lector avisa con {@code onClosed}. */
+    void close(int code, String reason) {
+        if (!closeSent) {
+            byte[] r = reason.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = new byte[2 + Math.min(r.length, 123)];
+            payload[0] = (byte) (code >> 8);
+            payload[1] = (byte) code;
+            System.arraycopy(r, 0, payload, 2, payload.length - 2);
+            try {
+                send(OP_CLOSE, payload);
+            } catch (IOException ignored) {
+                // La conexión ya estaba caída
+            }
+        }
+        closeQuietly(socket);
+    }
+
+    private synchronized void send(int opcode, byte[] payload) throws IOException {
+        if (opcode == OP_CLOSE) {
+            if (closeSent) return;
+            closeSent = true;
+        } else if (closeSent) {
+            throw new IOException("WebSocket cerrado");
+        }
+        int len = payload.length;
+        out.write(0x80 | opcode);
+        if (len < 126) {
+            out.write(0x80 | len);
+        } else if (len <= 0xFFFF) {
+            out.write(0x80 | 126);
+            out.write(len >>> 8);
+            out.write(len);
+        } else {
+            out.write(0x80 | 127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) ((long) len >>> shift));
+            }
+        }
+        RANDOM.nextBytes(mask);
+        out.write(mask);
+        // Enmascarar en un buffer chico para no copiar todo el payload
+        byte[] chunk = new byte[Math.min(len, 4096)];
+        for (int off = 0; off < len; off += chunk.length) {
+            int n = Math.min(chunk.length, len - off);
+            for (int i = 0; i < n; i++) {
+                chunk[i] = (byte) (payload[off + i] ^ mask[(off + i) & 3]);
+            }
+            out.write(chunk, 0, n);
+        }
+        out.flush();
+    }
+
+    private void readLoop() {
+        int code = CLOSE_ABNORMAL;
+        String reason = "";
+        ByteArrayOutputStream message = new ByteArrayOutputStream(256);
+        boolean inText = false;
+        boolean inBinary = false;
+        try {
+            while (true) {
+                int b0 = readByte();
+                int b1 = readByte();
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                if ((b0 & 0x70) != 0 || (b1 & 0x80) != 0) {
+                    // Bits reservados o frame enmascarado desde el servidor
+                    code = CLOSE_PROTOCOL_ERROR;
+                    break;
+                }
+                long len = b1 & 0x7F;
+                if (len == 126) {
+                    len = (readByte() << 8) | readByte();
+                } else if (len == 127) {
+                    len = 0;
+                    for (int i = 0; i < 8; i++) {
+                        len = (len << 8) | readByte();
+                    }
+                }
+
+                if (opcode >= OP_CLOSE) {
+                    if (len > 125 || !fin) {
+                        code = CLOSE_PROTOCOL_ERROR;
+                        break;
+                    }
+                    byte[] payload = readFully((int) len);
+                    if (opcode == OP_PING) {
+                        send(OP_PONG, payload);
+                    } else if (opcode == OP_CLOSE) {
+                        code = payload.length >= 2 ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF) : CLOSE_NORMAL;
+                        reason = payload.length > 2
+                                ? new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8) : "";
+                        close(code, "");
+                        break;
+                    }
+                    continue;
+                }
+
+                if (message.size() + len > MAX_MESSAGE_BYTES) {
+                    code = CLOSE_TOO_BIG;
+                    close(code, "");
+                    break;
+                }
+                if (opcode == OP_TEXT || opcode == OP_BINARY) {
+                    if (inText || inBinary) {
+                        code = CLOSE_PROTOCOL_ERROR;
+                        break;
+                    }
+                    inText = opcode == OP_TEXT;
+                    inBinary = opcode == OP_BINARY;
+                } else if (opcode != OP_CONTINUATION || !(inText || inBinary)) {
+                    code = CLOSE_PROTOCOL_ERROR;
+                    break;
+                }
+                copy((int) len, message);
+                if (fin) {
+                    if (inText) {
+                        listener.onText(this, message.toString("UTF-8"));
+                    }
+                    // Pusher no manda binarios: se descartan
+                    message.reset();
+                    inText = inBinary = false;
+                }
+            }
+        } catch (IOException e) {
+            reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            closeQuietly(socket);
+            listener.onClosed(this, code, reason);
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        return b;
+    }
+
+    private byte[] readFully(int len) throws IOException {
+        byte[] buf = new byte[len];
+        for (int off = 0; off < len; ) {
+            int n = in.read(buf, off, len - off);
+            if (n < 0) throw new EOFException();
+            off += n;
+        }
+        return buf;
+    }
+
+    private void copy(int len, ByteArrayOutputStream to) throws IOException {
+        while (len > 0) {
+            int n = in.read(copyBuffer, 0, Math.min(len, copyBuffer.length));
+            if (n < 0) throw new EOFException();
+            to.write(copyBuffer, 0, n);
+            len -= n;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder(64);
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) throw new EOFException("Handshake incompleto");
+            if (b != '\r') sb.append((char) b);
+            if (sb.length() > 8192) throw new ProtocolException("Cabecera demasiado larga");
+        }
+        return sb.toString();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final char[] B64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    // java.util.Base64 es API 26 y android.util.Base64 no existe en los tests de JVM
+    static String base64(byte[] data) {
+        StringBuilder sb = new StringBuilder((data.length + 2) / 3 * 4);
+        for (int i = 0; i < data.length; i += 3) {
+            int n = (data[i] & 0xFF) << 16;
+            if (i + 1 < data.length) n |= (data[i + 1] & 0xFF) << 8;
+            if (i + 2 < data.length) n |= data[i + 2] & 0xFF;
+            sb.append(B64[(n >>> 18) & 63]).append(B64[(n >>> 12) & 63]);
+            sb.append(i + 1 < data.length ? B64[(n >>> 6) & 63] : '=');
+            sb.append(i + 2 < data.length ? B64[n & 63] : '=');
+        }
+        return sb.toString();
+    }
+}
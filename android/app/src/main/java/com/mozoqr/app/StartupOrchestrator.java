@@ -0,0 +1,180 @@
+package com.mozoqr.app;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Arranque de la app como grafo de tareas.
+ *
+ * Cada tarea declara de qué otras depende; las que no dependen entre sí
+ * corren en paralelo en un pool chico de hilos en segundo plano, y el hilo
+ * principal sólo registra el grafo. Quien necesite algo del arranque espera
+ * a la tarea concreta ({@link #await}, {@link #whenReady}) en lugar de un
+ * delay fijo. Los tiempos de cada tarea quedan en {@link StartupTrace}.
+ *
+ * Si una tarea falla se loguea y cuenta como terminada: sus dependientes
+ * corren igual y deben tolerar que el resultado sea null.
+ */
+final class StartupOrchestrator {
+    private static final AppLog.Tag LOG = AppLog.tag("Startup");
+
+    /** Una tarea de arranque; lo que devuelve queda disponible con {@link #await}. */
+    interface Step {
+        Object run() throws Exception;
+    }
+
+    private static final class Node {
+        final String name;
+        final String[] dependencies;
+        final Step step;
+        final List<Node> dependents = new ArrayList<>();
+        final List<Runnable> listeners = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        int pending;
+        volatile Object result;
+
+        Node(String name, String[] dependencies, Step step) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.step = step;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final ThreadPoolExecutor pool;
+    private final StartupTrace trace;
+    private boolean started;
+
+    StartupOrchestrator(StartupTrace trace) {
+        this.trace = trace;
+        // Los hilos mueren solos cuando termina el arranque
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "MozoStartup-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Registra una tarea. Las dependencias tienen que estar registradas antes,
+     * así el grafo no puede tener ciclos.
+     */
+    synchronized StartupOrchestrator add(String name, Step step, String... dependencies) {
+        if (started) throw new IllegalStateException("El arranque ya empezó: " + name);
+        if (nodes.containsKey(name)) throw new IllegalArgumentException("Tarea repetida: " + name);
+        Node node = new Node(name, dependencies, step);
+        for (String dependency : dependencies) {
+            Node parent = nodes.get(dependency);
+            if (parent == null) throw new IllegalArgumentException(name + " depende de " + dependency + ", que no existe");
+            parent.dependents.add(node);
+            node.pending++;
+        }
+        nodes.put(name, node);
+        return this;
+    }
+
+    /** Lanza las tareas sin dependencias; el resto se encadena al terminar sus padres. */
+    synchronized void start() {
+        if (started) return;
+        started = true;
+        for (Node node : nodes.values()) {
+            if (node.pending == 0) {
+                submit(node);
+            }
+        }
+    }
+
+    private void submit(Node node) {
+        pool.execute(() -> run(node));
+    }
+
+    private void run(Node node) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        try {
+            node.result = node.step.run();
+        } catch (Throwable t) {
+            AppLog.e(LOG, "❌ Tarea de arranque {} falló", node.name, t);
+        }
+        trace.span(node.name, start, SystemClock.elapsedRealtimeNanos());
+
+        List<Runnable> listeners;
+        synchronized (this) {
+            node.done.countDown();
+            for (Node dependent : node.dependents) {
+                if (--dependent.pending == 0) {
+                    submit(dependent);
+                }
+            }
+            listeners = new ArrayList<>(node.listeners);
+            node.listeners.clear();
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Corre {@code action} en el pool de arranque cuando terminaron todas las
+     * tareas nombradas (ya sea con éxito o con error).
+     */
+    void whenReady(Runnable action, String... names) {
+        AtomicInteger remaining = new AtomicInteger(names.length + 1);
+        Runnable countDown = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                pool.execute(action);
+            }
+        };
+        synchronized (this) {
+            for (String name : names) {
+                Node node = nodes.get(name);
+                if (node == null) throw new IllegalArgumentException("Tarea desconocida: " + name);
+                if (node.done.getCount() == 0) {
+                    countDown.run();
+                } else {
+                    node.listeners.add(countDown);
+                }
+            }
+        }
+        countDown.run();
+    }
+
+    /**
+     * Espera a que termine una tarea y devuelve su resultado, o null si falló
+     * o no terminó dentro de {@code timeoutMs}.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T await(String name, long timeoutMs) {
+        Node node;
+        synchronized (this) {
+            node = nodes.get(name);
+        }
+        if (node == null) return null;
+        long start = SystemClock.elapsedRealtime();
+        try {
+            if (!node.done.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                AppLog.w(LOG, "⏱️ {} no terminó en {}ms", name, timeoutMs);
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long waited = SystemClock.elapsedRealtime() - start;
+        if (waited > 0 && LOG.isLoggable(AppLog.DEBUG)) {
+            AppLog.d(LOG, "Esperado {}: {}ms", name, waited);
+        }
+        return (T) node.result;
+    }
+}
@@ -0,0 +1,134 @@
+package com.mozoqr.app;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tiempos de las fases del arranque, en ms desde que arrancó el proceso.
+ *
+ * Los hitos ({@link #mark}) marcan momentos del hilo principal (App creada,
+ * Bridge listo, primera página cargada = time-to-interactive) y los spans
+ * ({@link #span}) la duración de cada tarea del {@link StartupOrchestrator}.
+ * Al llegar a la primera página se exporta una línea JSON por arranque a
+ * {@code files/startup_timings.jsonl} (con la versión de la app, para
+ * comparar releases) y un resumen al log.
+ */
+final class StartupTrace {
+    private static final AppLog.Tag LOG = AppLog.tag("StartupTrace");
+    static final String FILE_NAME = "startup_timings.jsonl";
+    /** Arranques que se conservan en el archivo. */
+    private static final int MAX_ENTRIES = 50;
+
+    private final long originMs;
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private final Map<String, long[]> spans = new LinkedHashMap<>();
+    private boolean exported;
+
+    StartupTrace() {
+        // Antes de API 24 no hay hora de inicio del proceso: se cuenta desde App
+        this.originMs = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? Process.getStartElapsedRealtime()
+                : SystemClock.elapsedRealtime();
+    }
+
+    synchronized void mark(String name) {
+        if (!marks.containsKey(name)) {
+            marks.put(name, SystemClock.elapsedRealtime() - originMs);
+        }
+    }
+
+    synchronized void span(String name, long startNanos, long endNanos) {
+        spans.put(name, new long[]{
+                startNanos / 1_000_000 - originMs,
+                endNanos / 1_000_000 - originMs
+        });
+    }
+
+    /** Los tiempos de este arranque como JSON. */
+    synchronized JSONObject snapshot() {
+        JSONObject json = new JSONObject();
+        try {
+            JSONObject m = new JSONObject();
+            for (Map.Entry<String, Long> e : marks.entrySet()) {
+                m.put(e.getKey(), e.getValue());
+            }
+            JSONObject s = new JSONObject();
+            for (Map.Entry<String, long[]> e : spans.entrySet()) {
+                s.put(e.getKey(), new JSONArray().put(e.getValue()[0]).put(e.getValue()[1]));
+            }
+            json.put("marks", m);
+            json.put("tasks", s);
+        } catch (JSONException ignored) {
+            // Sólo claves String y valores long
+        }
+        return json;
+    }
+
+    /**
+     * Agrega este arranque al archivo de tiempos. Hace I/O: llamar fuera
+     * del hilo principal. Sólo exporta una vez por proceso.
+     */
+    void export(Context context) {
+        JSONObject entry;
+        synchronized (this) {
+            if (exported) return;
+            exported = true;
+            entry = snapshot();
+        }
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            entry.put("version", info.versionName);
+            entry.put("versionCode", Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                    ? info.getLongVersionCode() : info.versionCode);
+            entry.put("sdk", Build.VERSION.SDK_INT);
+            entry.put("at", System.currentTimeMillis());
+        } catch (Exception e) {
+            AppLog.w(LOG, "Sin datos de versión para los tiempos de arranque", e);
+        }
+        AppLog.i(LOG, "⏱️ Arranque: {}", entry);
+
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        try {
+            List<String> lines = new ArrayList<>();
+            if (file.exists()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                }
+            }
+            lines.add(entry.toString());
+            int from = Math.max(0, lines.size() - MAX_ENTRIES);
+            StringBuilder out = new StringBuilder();
+            for (int i = from; i < lines.size(); i++) {
+                out.append(lines.get(i)).append('\n');
+            }
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(out.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            AppLog.w(LOG, "No se pudieron guardar los tiempos de arranque", e);
+        }
+    }
+}
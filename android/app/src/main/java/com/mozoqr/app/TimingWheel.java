@@ -0,0 +1,204 @@
+package com.mozoqr.app;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Rueda de tiempo jerárquica con cancelación por clave.
+ *
+ * {@link #LEVELS} niveles de {@link #SLOTS} ranuras: el nivel 0 tiene una
+ * ranura por tick y cada nivel siguiente cubre 64 veces más. Programar,
+ * cancelar y reprogramar son O(1); {@link #advance} recorre sólo los ticks
+ * transcurridos (o salta directo si no hay nada pendiente) y al pasar por el
+ * borde de una ranura de nivel alto reparte sus entradas en los niveles de
+ * abajo. Con ticks de 1 s alcanza para plazos de hasta ~3 días; los más
+ * lejanos se recortan a ese horizonte.
+ *
+ * No es thread-safe.
+ */
+final class TimingWheel<T> {
+    static final int SLOTS = 64;
+    static final int LEVELS = 3;
+    private static final int BITS = 6;
+    // Una ranura menos que la vuelta completa del nivel de arriba, para que
+    // nada caiga en la ranura que ya se repartió
+    private static final long HORIZON_TICKS = (SLOTS - 1L) << (BITS * (LEVELS - 1));
+
+    static final class Entry<T> {
+        final String key;
+        final T value;
+        final long deadlineMs;
+        final long deadlineTick;
+        Entry<T> prev;
+        Entry<T> next;
+        int slot;
+
+        Entry(String key, T value, long deadlineMs, long deadlineTick) {
+            this.key = key;
+            this.value = value;
+            this.deadlineMs = deadlineMs;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMs;
+    @SuppressWarnings("unchecked")
+    private final Entry<T>[] slots = new Entry[LEVELS * SLOTS];
+    private final HashMap<String, Entry<T>> byKey = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long tickMs, long nowMs) {
+        this.tickMs = tickMs;
+        this.currentTick = nowMs / tickMs;
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    boolean contains(String key) {
+        return byKey.containsKey(key);
+    }
+
+    /** Programa {@code value} para {@code deadlineMs}, reemplazando lo que hubiera con la misma clave. */
+    void schedule(String key, T value, long deadlineMs) {
+        cancel(key);
+        long tick = Math.min(Math.max(deadlineMs / tickMs, currentTick), currentTick + HORIZON_TICKS - 1);
+        Entry<T> e = new Entry<>(key, value, deadlineMs, tick);
+        byKey.put(key, e);
+        insert(e);
+    }
+
+    /** @return lo que estaba programado con esa clave, o {@code null} */
+    T cancel(String key) {
+        Entry<T> e = byKey.remove(key);
+        if (e == null) return null;
+        unlink(e);
+        return e.value;
+    }
+
+    void clear() {
+        Arrays.fill(slots, null);
+        byKey.clear();
+    }
+
+    /**
+     * Avanza hasta {@code nowMs} y agrega a {@code due} todo lo vencido, tick
+     * por tick (dentro de un mismo tick, sin orden).
+     */
+    void advance(long nowMs, List<Entry<T>> due) {
+        long target = nowMs / tickMs;
+        if (byKey.isEmpty()) {
+            currentTick = Math.max(currentTick, target);
+            return;
+        }
+        while (currentTick <= target) {
+            int slot = (int) (currentTick & (SLOTS - 1));
+            for (Entry<T> e = slots[slot]; e != null; ) {
+                Entry<T> next = e.next;
+                if (e.deadlineMs <= nowMs) {
+                    unlink(e);
+                    byKey.remove(e.key);
+                    due.add(e);
+                } else if (e.deadlineMs / tickMs > currentTick) {
+                    // Plazo recortado al horizonte: volver a ubicarlo
+                    unlink(e);
+                    Entry<T> again = new Entry<>(e.key, e.value, e.deadlineMs,
+                            Math.min(e.deadlineMs / tickMs, currentTick + HORIZON_TICKS - 1));
+                    byKey.put(e.key, again);
+                    insert(again);
+                }
+                e = next;
+            }
+            if (currentTick == target || byKey.isEmpty()) {
+                break;
+            }
+            currentTick++;
+            cascade();
+        }
+        if (currentTick < target) {
+            currentTick = target;
+        }
+    }
+
+    /**
+     * @return el plazo más cercano (ms), o -1 si no hay nada programado
+     */
+    long nextDeadlineMs() {
+        if (byKey.isEmpty()) return -1;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            int current = (int) ((currentTick >>> shift) & (SLOTS - 1));
+            // En el nivel 0 la ranura actual cuenta (lo vencido sin recoger);
+            // en los de arriba ya se repartió hacia abajo
+            int first = level == 0 ? current : current + 1;
+            // Los niveles de abajo comparten ranura padre con el tick actual, así
+            // que lo suyo está por delante en la misma vuelta. El de arriba no tiene
+            // padre: da la vuelta, y se recorre en círculo desde la siguiente
+            int count = level == LEVELS - 1 ? SLOTS - 1 : SLOTS - first;
+            for (int n = 0; n < count; n++) {
+                Entry<T> head = slots[level * SLOTS + ((first + n) & (SLOTS - 1))];
+                if (head != null) {
+                    long min = Long.MAX_VALUE;
+                    for (Entry<T> e = head; e != null; e = e.next) {
+                        min = Math.min(min, e.deadlineMs);
+                    }
+                    return min;
+                }
+            }
+        }
+        // Inalcanzable salvo que la rueda quede inconsistente: toda entrada está
+        // en alguna de las ranuras recorridas
+        long min = Long.MAX_VALUE;
+        for (Entry<T> e : byKey.values()) {
+            min = Math.min(min, e.deadlineMs);
+        }
+        return min;
+    }
+
+    /** Al cruzar el borde de una ranura de nivel alto, reparte sus entradas hacia abajo. */
+    private void cascade() {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            long mask = (1L << (BITS * level)) - 1;
+            if ((currentTick & mask) != 0) continue;
+            int index = level * SLOTS + (int) ((currentTick >>> (BITS * level)) & (SLOTS - 1));
+            Entry<T> e = slots[index];
+            slots[index] = null;
+            while (e != null) {
+                Entry<T> next = e.next;
+                e.prev = e.next = null;
+                insert(e);
+                e = next;
+            }
+        }
+    }
+
+    /**
+     * Ubica la entrada en el nivel más bajo cuya ranura padre comparte con el
+     * tick actual, así cada ranura se visita (o se reparte) antes de su plazo.
+     */
+    private void insert(Entry<T> e) {
+        long tick = Math.max(e.deadlineTick, currentTick);
+        int level = 0;
+        while (level < LEVELS - 1 && (tick >>> (BITS * (level + 1))) != (currentTick >>> (BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = level * SLOTS + (int) ((tick >>> (BITS * level)) & (SLOTS - 1));
+        e.slot = slot;
+        e.prev = null;
+        e.next = slots[slot];
+        if (e.next != null) e.next.prev = e;
+        slots[slot] = e;
+    }
+
+    private void unlink(Entry<T> e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else if (slots[e.slot] == e) {
+            slots[e.slot] = e.next;
+        }
+        if (e.next != null) e.next.prev = e.prev;
+        e.prev = e.next = null;
+    }
+}
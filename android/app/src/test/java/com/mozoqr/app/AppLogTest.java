@@ -0,0 +1,224 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class AppLogTest {
+
+    private File dir;
+    private File dest;
+    private AppLog log;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("applog").toFile();
+        dest = new File(dir.getParentFile(), dir.getName() + "-export.gz");
+        log = new AppLog(256);
+        log.setEcho(false);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+        dest.delete();
+    }
+
+    @Test
+    public void formatsLazilyIntoJsonLines() throws Exception {
+        log.start(dir);
+        AppLog.Tag tag = log.newTag("FCMService");
+        AppLog.d(tag, "llamada {} de mesa {}", "c1", 4);
+        AppLog.w(tag, "sin placeholders", "extra");
+        AppLog.i(tag, "con \"comillas\"\ny salto");
+
+        List<JSONObject> events = export(0);
+        assertEquals(3, events.size());
+        assertEquals("llamada c1 de mesa 4", events.get(0).getString("msg"));
+        assertEquals("D", events.get(0).getString("level"));
+        assertEquals("FCMService", events.get(0).getString("tag"));
+        assertEquals(Thread.currentThread().getName(), events.get(0).getString("thread"));
+        assertEquals("sin placeholders [extra]", events.get(1).getString("msg"));
+        assertEquals("con \"comillas\"\ny salto", events.get(2).getString("msg"));
+    }
+
+    @Test
+    public void trailingThrowableIsTheError() throws Exception {
+        log.start(dir);
+        AppLog.Tag tag = log.newTag("T");
+        AppLog.e(tag, "❌ falló {}", "push", new IllegalStateException("boom"));
+
+        JSONObject event = export(0).get(0);
+        assertEquals("❌ falló push", event.getString("msg"));
+        assertTrue(event.getString("error").contains("IllegalStateException: boom"));
+    }
+
+    @Test
+    public void disabledLevelPublishesNothing() {
+        AppLog.Tag tag = log.newTag("T");
+        log.setLevel("T", AppLog.WARN);
+        AppLog.d(tag, "no");
+        AppLog.i(tag, "no {}", "x");
+        AppLog.w(tag, "sí");
+        assertEquals(1, log.pending());
+    }
+
+    @Test
+    public void levelsApplyToExistingAndFutureTags() {
+        AppLog.Tag early = log.newTag("A");
+        log.setLevel("B", AppLog.ERROR);
+        AppLog.Tag late = log.newTag("B");
+        assertSame(late, log.newTag("B"));
+        assertFalse(late.isLoggable(AppLog.WARN));
+
+        log.setLevel(AppLog.DEFAULT_KEY, AppLog.INFO);
+        assertFalse(early.isLoggable(AppLog.DEBUG));
+        assertTrue(early.isLoggable(AppLog.INFO));
+        // El nivel propio le gana al default
+        assertFalse(late.isLoggable(AppLog.INFO));
+
+        log.resetLevel("B");
+        assertTrue(late.isLoggable(AppLog.INFO));
+        assertTrue(log.pinnedLevels().isEmpty());
+
+        log.setLevel("A", AppLog.OFF);
+        assertFalse(early.isLoggable(AppLog.ERROR));
+        assertEquals(Integer.valueOf(AppLog.OFF), log.pinnedLevels().get("A"));
+    }
+
+    @Test
+    public void fullRingDropsNewEventsAndCountsThem() {
+        AppLog small = new AppLog(8);
+        AppLog.Tag tag = small.newTag("T");
+        for (int i = 0; i < 11; i++) {
+            AppLog.d(tag, "evento {}", "x");
+        }
+        assertEquals(8, small.pending());
+        assertEquals(3, small.dropped());
+    }
+
+    @Test
+    public void rotatesIntoCompressedArchivesAndExportsAcrossThem() throws Exception {
+        log.start(dir);
+        AppLog.Tag tag = log.newTag("T");
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 300; i++) padding.append('x');
+        String pad = padding.toString();
+        int total = 2500;
+        for (int i = 0; i < total; i++) {
+            AppLog.d(tag, "{} {}", String.valueOf(i), pad);
+            if (i % 100 == 99) assertTrue(log.awaitDrained(5000));
+        }
+
+        assertTrue(AppLog.archives(dir).size() >= 2);
+        List<JSONObject> events = export(0);
+        assertEquals(total, events.size());
+        for (int i = 0; i < total; i++) {
+            assertTrue(events.get(i).getString("msg").startsWith(i + " "));
+        }
+        assertEquals(0, log.dropped());
+    }
+
+    @Test
+    public void keepsOnlyTheNewestArchives() throws Exception {
+        log.start(dir);
+        for (int i = 0; i < AppLog.MAX_ARCHIVES + 3; i++) {
+            assertTrue(new File(dir, AppLog.ARCHIVE_PREFIX + (1000 + i) + AppLog.ARCHIVE_SUFFIX).createNewFile());
+        }
+        AppLog.Tag tag = log.newTag("T");
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 1000; i++) padding.append('x');
+        String pad = padding.toString();
+        for (int i = 0; i < 300; i++) {
+            AppLog.d(tag, pad);
+            if (i % 100 == 99) assertTrue(log.awaitDrained(5000));
+        }
+        assertTrue(log.awaitDrained(5000));
+
+        List<File> archives = AppLog.archives(dir);
+        assertEquals(AppLog.MAX_ARCHIVES, archives.size());
+        assertFalse(archives.get(0).getName().equals(AppLog.ARCHIVE_PREFIX + 1000 + AppLog.ARCHIVE_SUFFIX));
+    }
+
+    @Test
+    public void exportSkipsEventsBeforeTheWindow() throws Exception {
+        log.start(dir);
+        AppLog.Tag tag = log.newTag("T");
+        AppLog.i(tag, "viejo");
+        assertEquals(0, export(System.currentTimeMillis() + 60_000).size());
+        assertEquals(1, export(0).size());
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingThatWasNotCounted() throws Exception {
+        log.start(dir);
+        AppLog.Tag tag = log.newTag("T");
+        int threads = 4;
+        int perThread = 5000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "p" + t;
+            Thread th = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    AppLog.d(tag, "{}", name);
+                }
+            });
+            producers.add(th);
+            th.start();
+        }
+        for (Thread th : producers) th.join();
+        assertTrue(log.awaitDrained(10_000));
+
+        assertEquals(threads * perThread, log.written() + log.dropped());
+        assertEquals(log.written(), export(0).size());
+        assertEquals(0, log.pending());
+    }
+
+    @Test
+    public void eventTimeReadsOnlyTheLinePrefix() {
+        assertEquals(1700000000123L, AppLog.eventTime("{\"t\":1700000000123,\"level\":\"D\"}"));
+        assertEquals(-1, AppLog.eventTime("basura"));
+        assertEquals(-1, AppLog.eventTime("{\"t\":,"));
+    }
+
+    @Test
+    public void exportBeforeStartFails() {
+        try {
+            log.export(0, dest);
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private List<JSONObject> export(long sinceMs) throws Exception {
+        int count = log.export(sinceMs, dest);
+        List<JSONObject> events = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(dest)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                events.add(new JSONObject(line));
+            }
+        }
+        assertEquals(count, events.size());
+        return events;
+    }
+}
@@ -0,0 +1,142 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+public class CallBatchTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    @Test
+    public void decodesEveryCallWithItsOwnTime() {
+        String payload = new CallBatch.Writer()
+                .add("c1", "4", "new_call", T0, null, "🔔 Mesa 4", "La mesa 4 solicita un mozo")
+                .add("c2", "7", "new_call", T0 + 1_250, "waiter_urgent", null, null)
+                .add("c1", "4", "call_acknowledged", T0 + 900, null, null, "Mesa 4 atendida")
+                .encode();
+
+        List<CallEvent> events = CallBatch.decode(payload, 42);
+
+        assertEquals(3, events.size());
+        CallEvent first = events.get(0);
+        assertEquals("c1", first.callId);
+        assertEquals("4", first.table);
+        assertEquals("new_call", first.type);
+        assertEquals("🔔 Mesa 4", first.title);
+        assertEquals("La mesa 4 solicita un mozo", first.body);
+        assertEquals(CallEvent.DEFAULT_CHANNEL_ID, first.channelId);
+        assertEquals(T0, first.sentTimeMs);
+        assertEquals(42, first.receivedAtNanos);
+
+        CallEvent second = events.get(1);
+        assertEquals("waiter_urgent", second.channelId);
+        assertEquals("Mesa 7 solicita mozo", second.title);
+        assertEquals(CallEvent.DEFAULT_BODY, second.body);
+        assertEquals(T0 + 1_250, second.sentTimeMs);
+
+        // Delta negativo: el aviso de atendida se generó antes que la llamada anterior del lote
+        CallEvent third = events.get(2);
+        assertEquals("call_acknowledged", third.type);
+        assertEquals(T0 + 900, third.sentTimeMs);
+    }
+
+    @Test
+    public void typesWithoutKindTravelAsText() {
+        String payload = new CallBatch.Writer()
+                .add("c1", "4", "acknowledged", T0, null, null, null)
+                .encode();
+
+        assertEquals("acknowledged", CallBatch.decode(payload, 0).get(0).type);
+    }
+
+    @Test
+    public void skipsFieldsItDoesNotKnow() {
+        ByteArrayOutputStream call = new ByteArrayOutputStream();
+        bytes(call, 0x0A, 2, 'c', '1');         // call_id
+        bytes(call, 0x12, 1, '4');              // table
+        bytes(call, 0x48, 0x96, 0x01);          // campo 9, varint
+        bytes(call, 0x55, 1, 2, 3, 4);          // campo 10, fixed32
+        bytes(call, 0x5A, 3, 'x', 'y', 'z');    // campo 11, bytes
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        bytes(batch, 0x08, 1);                  // version
+        bytes(batch, 0x21, 1, 2, 3, 4, 5, 6, 7, 8); // campo 4, fixed64
+        bytes(batch, 0x1A, call.size());
+        batch.write(call.toByteArray(), 0, call.size());
+
+        List<CallEvent> events = CallBatch.decode(CallBatch.Writer.base64UrlEncode(batch.toByteArray()), 0);
+
+        assertEquals(1, events.size());
+        assertEquals("c1", events.get(0).callId);
+        assertEquals("new_call", events.get(0).type);
+        assertEquals(0, events.get(0).sentTimeMs);
+    }
+
+    @Test
+    public void versionMayComeAfterTheCalls() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        bytes(batch, 0x1A, 4, 0x0A, 2, 'c', '1');
+        bytes(batch, 0x08, 1);
+
+        assertEquals("c1", CallBatch.decode(CallBatch.Writer.base64UrlEncode(batch.toByteArray()), 0).get(0).callId);
+    }
+
+    @Test
+    public void dropsCallsOfAnUnknownKind() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        bytes(batch, 0x08, 1);
+        bytes(batch, 0x1A, 6, 0x0A, 2, 'c', '1', 0x18, 9);   // kind 9
+        bytes(batch, 0x1A, 4, 0x0A, 2, 'c', '2');
+
+        List<CallEvent> events = CallBatch.decode(CallBatch.Writer.base64UrlEncode(batch.toByteArray()), 0);
+
+        assertEquals(1, events.size());
+        assertEquals("c2", events.get(0).callId);
+    }
+
+    @Test
+    public void rejectsOtherVersions() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        bytes(batch, 0x08, 2);
+        bytes(batch, 0x1A, 4, 0x0A, 2, 'c', '1');
+
+        try {
+            CallBatch.decode(CallBatch.Writer.base64UrlEncode(batch.toByteArray()), 0);
+            fail("Se esperaba versión no soportada");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("2"));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedBatches() {
+        // Sin base_time_ms: version ocupa los bytes 0-1 y todo lo que sigue es la llamada
+        byte[] full = new CallBatch.Writer().add("c1", "4", "new_call", 0, null, null, null).toByteArray();
+        for (int len = 3; len < full.length; len++) {
+            byte[] cut = new byte[len];
+            System.arraycopy(full, 0, cut, 0, len);
+            try {
+                CallBatch.decode(CallBatch.Writer.base64UrlEncode(cut), 0);
+                fail("Se esperaba error con " + len + " de " + full.length + " bytes");
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void acceptsStandardBase64WithPadding() {
+        byte[] raw = new CallBatch.Writer().add("c1", "4", "new_call", T0, null, "Mesa 4 ✋", null).toByteArray();
+        String standard = java.util.Base64.getEncoder().encodeToString(raw);
+
+        assertEquals("Mesa 4 ✋", CallBatch.decode(standard, 0).get(0).title);
+        assertArrayEquals(raw, CallBatch.base64UrlDecode(java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(raw)));
+    }
+
+    private static void bytes(ByteArrayOutputStream out, int... values) {
+        for (int v : values) out.write(v);
+    }
+}
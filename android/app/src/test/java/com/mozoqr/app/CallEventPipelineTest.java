@@ -0,0 +1,193 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CallEventPipelineTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final Recorder notifier = new Recorder();
+    private final CallEventPipeline pipeline = new CallEventPipeline(clock, notifier);
+
+    @Test
+    public void duplicateWithinTheWindowIsNotNotifiedAgain() {
+        pipeline.flush(List.of(call("c1", "4")));
+        clock.advanceMs(10_000);
+        pipeline.flush(List.of(call("c1", "4")));
+
+        assertEquals(1, notifier.shown.size());
+        assertEquals(1, pipeline.duplicates());
+        assertEquals(List.of(false, true), notifier.duplicateFlags);
+    }
+
+    @Test
+    public void windowStartsAtTheFirstSighting() {
+        pipeline.flush(List.of(call("c1", "4")));
+        // Reintentos constantes dentro de la ventana no la estiran
+        clock.advanceMs(20_000);
+        pipeline.flush(List.of(call("c1", "4")));
+        clock.advanceMs(9_000);
+        pipeline.flush(List.of(call("c1", "4")));
+        assertEquals(1, notifier.shown.size());
+
+        clock.advanceMs(CallEventPipeline.DEDUP_WINDOW_MS - 29_000 + 1);
+        pipeline.flush(List.of(call("c1", "4")));
+
+        assertEquals(2, notifier.shown.size());
+        assertEquals(2, pipeline.duplicates());
+    }
+
+    @Test
+    public void closingEventWithTheSameIdIsADuplicateButStillReachesEscalationsAndJournal() {
+        CallEvent ack = event("c1", "4", "call_acknowledged");
+        pipeline.flush(List.of(call("c1", "4"), ack));
+
+        assertEquals(1, notifier.shown.size());
+        assertEquals(List.of(false, true), notifier.duplicateFlags);
+        assertTrue(notifier.flushed.get(0).contains(ack));
+    }
+
+    @Test
+    public void burstIsGroupedPerTableInArrivalOrder() {
+        pipeline.flush(List.of(call("a", "4"), call("b", "7"), call("c", "4")));
+
+        assertEquals(List.of("4", "7"), notifier.tables);
+        assertEquals(List.of("a", "c"), notifier.shown.get(0));
+        assertEquals(List.of("b"), notifier.shown.get(1));
+    }
+
+    @Test
+    public void callsWithoutTableAreNotifiedOnTheirOwn() {
+        pipeline.flush(List.of(call("a", ""), call("b", "")));
+
+        assertEquals(2, notifier.shown.size());
+        assertEquals(List.of("a"), notifier.shown.get(0));
+        assertEquals(List.of("b"), notifier.shown.get(1));
+    }
+
+    @Test
+    public void tableHistoryKeepsTheLastTwentyRecentCalls() {
+        for (int i = 0; i < 25; i++) {
+            pipeline.flush(List.of(call("c" + i, "4")));
+            clock.advanceMs(1_000);
+        }
+        List<String> last = notifier.shown.get(notifier.shown.size() - 1);
+        assertEquals(20, last.size());
+        assertEquals("c5", last.get(0));
+        assertEquals("c24", last.get(19));
+
+        clock.advanceMs(CallEventPipeline.TABLE_HISTORY_MS);
+        pipeline.flush(List.of(call("fresh", "4")));
+
+        assertEquals(List.of("fresh"), notifier.shown.get(notifier.shown.size() - 1));
+    }
+
+    @Test
+    public void fullQueueDropsAndCounts() {
+        int accepted = 0;
+        for (int i = 0; i < CallEventPipeline.CAPACITY + 44; i++) {
+            if (pipeline.submit(call("c" + i, "4"))) accepted++;
+        }
+
+        assertEquals(CallEventPipeline.CAPACITY, accepted);
+        assertEquals(CallEventPipeline.CAPACITY, pipeline.queueDepth());
+        assertEquals(44, pipeline.dropped());
+        assertEquals(CallEventPipeline.CAPACITY + 44, pipeline.received());
+    }
+
+    @Test
+    public void workerCoalescesABurstWithinTheWindow() throws InterruptedException {
+        CallEventPipeline.Clock real = System::nanoTime;
+        CountDownLatch published = new CountDownLatch(2);
+        Recorder recorder = new Recorder(real, published);
+        CallEventPipeline live = new CallEventPipeline(real, recorder);
+        live.start();
+
+        CallEvent first = event("a", "4", "new_call", real.nanos());
+        live.submit(first);
+        live.submit(event("b", "7", "new_call", real.nanos()));
+        live.submit(event("c", "4", "new_call", real.nanos()));
+
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        synchronized (recorder) {
+            assertEquals(List.of("4", "7"), recorder.tables);
+            assertEquals(List.of("a", "c"), recorder.shown.get(0));
+            // Nada se publica antes de que cierre la ventana del primer evento
+            long waited = recorder.publishedAtNanos.get(0) - first.receivedAtNanos;
+            assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(CallEventPipeline.COALESCE_WINDOW_MS));
+        }
+        assertEquals(0, live.queueDepth());
+    }
+
+    private CallEvent call(String callId, String table) {
+        return event(callId, table, "new_call");
+    }
+
+    private CallEvent event(String callId, String table, String type) {
+        return event(callId, table, type, clock.nanos());
+    }
+
+    private static CallEvent event(String callId, String table, String type, long receivedAtNanos) {
+        return new CallEvent(callId, table, type, "Mesa " + table, "", CallEvent.DEFAULT_CHANNEL_ID, 0,
+                receivedAtNanos);
+    }
+
+    private static final class ManualClock implements CallEventPipeline.Clock {
+        private long nanos = TimeUnit.HOURS.toNanos(1);
+
+        @Override
+        public long nanos() {
+            return nanos;
+        }
+
+        void advanceMs(long ms) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(ms);
+        }
+    }
+
+    private static final class Recorder implements CallEventPipeline.Notifier {
+        final List<String> tables = new ArrayList<>();
+        final List<List<String>> shown = new ArrayList<>();
+        final List<Long> publishedAtNanos = new ArrayList<>();
+        final List<Boolean> duplicateFlags = new ArrayList<>();
+        final List<List<CallEvent>> flushed = new ArrayList<>();
+        private final CallEventPipeline.Clock clock;
+        private final CountDownLatch published;
+
+        Recorder() {
+            this(() -> 0, new CountDownLatch(0));
+        }
+
+        Recorder(CallEventPipeline.Clock clock, CountDownLatch published) {
+            this.clock = clock;
+            this.published = published;
+        }
+
+        @Override
+        public synchronized boolean notifyTable(String table, List<CallEvent> events) {
+            tables.add(table);
+            List<String> ids = new ArrayList<>();
+            for (CallEvent e : events) ids.add(e.callId);
+            shown.add(ids);
+            publishedAtNanos.add(clock.nanos());
+            published.countDown();
+            return true;
+        }
+
+        @Override
+        public synchronized void onCallEvent(CallEvent event, boolean duplicate) {
+            duplicateFlags.add(duplicate);
+        }
+
+        @Override
+        public synchronized void onFlushed(List<CallEvent> batch) {
+            flushed.add(new ArrayList<>(batch));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class CallJournalTest {
+
+    private File file;
+    private CallJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("call_journal", ".log");
+        file.delete();
+        journal = CallJournal.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+        file.delete();
+    }
+
+    @Test
+    public void returnsOnlyEventsAfterTheCursor() {
+        journal.append(call("c1", "4", "new_call"));
+        journal.append(call("c2", "7", "new_call"));
+
+        CallJournal.Delta first = journal.since(0, 0, 100);
+        assertFalse(first.reset);
+        assertEquals(2, first.entries.size());
+        assertEquals("c1", first.entries.get(0).callId);
+        assertEquals(2, first.cursor);
+
+        journal.append(call("c3", "4", "new_call"));
+        CallJournal.Delta next = journal.since(first.journalId, first.cursor, 100);
+        assertFalse(next.reset);
+        assertEquals(1, next.entries.size());
+        assertEquals("c3", next.entries.get(0).callId);
+        assertEquals(3, next.cursor);
+
+        CallJournal.Delta none = journal.since(first.journalId, next.cursor, 100);
+        assertTrue(none.entries.isEmpty());
+        assertEquals(3, none.cursor);
+    }
+
+    @Test
+    public void limitLeavesTheRestForTheNextRead() {
+        for (int i = 0; i < 5; i++) {
+            journal.append(call("c" + i, "1", "new_call"));
+        }
+        CallJournal.Delta page = journal.since(0, 0, 2);
+        assertEquals(2, page.entries.size());
+        assertTrue(page.more);
+        CallJournal.Delta rest = journal.since(page.journalId, page.cursor, 10);
+        assertEquals(3, rest.entries.size());
+        assertFalse(rest.more);
+    }
+
+    @Test
+    public void repeatedPushesAreWrittenOnce() {
+        assertNotNull(journal.append(call("c1", "4", "new_call")));
+        assertNull(journal.append(call("c1", "4", "new_call")));
+        assertNotNull(journal.append(call("c1", "4", "acknowledged")));
+
+        assertEquals(2, journal.size());
+        assertEquals("acknowledged", journal.latest("c1").type);
+        assertEquals(2, journal.forTable("4").size());
+    }
+
+    @Test
+    public void reopeningRebuildsTheIndex() throws IOException {
+        journal.append(call("c1", "4", "new_call"));
+        journal.append(call("c2", "9", "new_call"));
+        long id = journal.journalId();
+        journal.close();
+
+        journal = CallJournal.open(file);
+        assertEquals(id, journal.journalId());
+        assertEquals(2, journal.lastSeq());
+        assertEquals("9", journal.latest("c2").table);
+        assertEquals("Mesa 4", journal.forTable("4").get(0).title);
+
+        journal.append(call("c3", "4", "new_call"));
+        assertEquals(3, journal.lastSeq());
+    }
+
+    @Test
+    public void cursorFromAnotherJournalResets() {
+        journal.append(call("c1", "4", "new_call"));
+        CallJournal.Delta delta = journal.since(journal.journalId() + 1, 1, 100);
+        assertTrue(delta.reset);
+        assertEquals(1, delta.entries.size());
+    }
+
+    @Test
+    public void compactionKeepsSequencesAndResetsOldCursors() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            body.append("llamada ");
+        }
+        int appended = 0;
+        while (journal.lastSeq() - journal.size() == 0) {
+            journal.append(new CallEvent("c" + appended, "1", "new_call", "Mesa 1", body.toString(),
+                    CallEvent.DEFAULT_CHANNEL_ID, 0, 0));
+            appended++;
+        }
+
+        long firstKept = journal.lastSeq() - journal.size() + 1;
+        assertTrue(firstKept > 1);
+        assertEquals(appended, journal.lastSeq());
+        assertTrue(journal.since(journal.journalId(), 1, 10).reset);
+
+        CallJournal.Delta recent = journal.since(journal.journalId(), firstKept - 1, 10);
+        assertFalse(recent.reset);
+        assertEquals(firstKept, recent.entries.get(0).seq);
+    }
+
+    private static CallEvent call(String callId, String table, String type) {
+        return new CallEvent(callId, table, type, "Mesa " + table, "Llamando al mozo",
+                CallEvent.DEFAULT_CHANNEL_ID, 0, 0);
+    }
+}
@@ -0,0 +1,237 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class CallOutboxTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private File file;
+    private CallOutbox outbox;
+    private FakeSender sender;
+    private Recorder listener;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("call_outbox", ".json");
+        file.delete();
+        outbox = new CallOutbox(file);
+        sender = new FakeSender();
+        listener = new Recorder();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void sendsEverythingInOrder() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_COMPLETE, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.token("tok", NOW));
+
+        CallOutbox.Result r = outbox.drain(sender, listener, NOW);
+
+        assertEquals(3, r.delivered);
+        assertFalse(r.retry);
+        assertEquals(0, outbox.size());
+        assertEquals(List.of("waiter/calls/c1/acknowledge", "waiter/calls/c1/complete", "device-token"), sender.paths);
+        assertEquals("tok", sender.bodies.get(2).optString("token"));
+        assertEquals("android", sender.bodies.get(2).optString("platform"));
+        assertEquals(3, listener.delivered.size());
+    }
+
+    @Test
+    public void repeatedTapKeepsTheFirstPlace() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c2", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW + 10));
+
+        assertEquals(2, outbox.size());
+        outbox.drain(sender, listener, NOW);
+        assertEquals(List.of("waiter/calls/c1/acknowledge", "waiter/calls/c2/acknowledge"), sender.paths);
+        assertEquals(NOW, listener.delivered.get(0).queuedAtMs);
+    }
+
+    @Test
+    public void newTokenReplacesThePendingOne() {
+        outbox.add(CallOutbox.Item.token("old", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.token("new", NOW + 1));
+
+        assertEquals(2, outbox.size());
+        outbox.drain(sender, listener, NOW);
+        assertEquals(List.of("waiter/calls/c1/acknowledge", "device-token"), sender.paths);
+        assertEquals("new", sender.bodies.get(1).optString("token"));
+    }
+
+    @Test
+    public void transientErrorStopsAndBacksOff() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_COMPLETE, "c1", "4", NOW));
+        sender.respond(503);
+
+        CallOutbox.Result r = outbox.drain(sender, listener, NOW);
+        assertTrue(r.retry);
+        assertEquals(0, r.delivered);
+        assertEquals(1, sender.paths.size());
+        assertEquals(2, outbox.size());
+        assertEquals(CallOutbox.BASE_BACKOFF_MS, outbox.retryDelayMs());
+
+        sender.fail();
+        outbox.drain(sender, listener, NOW);
+        assertEquals(2 * CallOutbox.BASE_BACKOFF_MS, outbox.retryDelayMs());
+
+        for (int i = 0; i < 20; i++) {
+            sender.respond(500);
+            outbox.drain(sender, listener, NOW);
+        }
+        assertEquals(CallOutbox.MAX_BACKOFF_MS, outbox.retryDelayMs());
+
+        CallOutbox.Result ok = outbox.drain(sender, listener, NOW);
+        assertEquals(2, ok.delivered);
+        assertEquals(-1, outbox.retryDelayMs());
+    }
+
+    @Test
+    public void waitsForSessionWithoutSpendingAttempts() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        sender.ready = false;
+
+        CallOutbox.Result r = outbox.drain(sender, listener, NOW);
+        assertTrue(r.needsAuth);
+        assertFalse(r.retry);
+        assertTrue(sender.paths.isEmpty());
+
+        sender.ready = true;
+        sender.respond(401);
+        r = outbox.drain(sender, listener, NOW);
+        assertTrue(r.needsAuth);
+        assertEquals(1, outbox.size());
+        assertEquals(CallOutbox.BASE_BACKOFF_MS, outbox.retryDelayMs());
+    }
+
+    @Test
+    public void rejectedActionIsDroppedAndTheRestContinues() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "gone", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c2", "4", NOW));
+        sender.respond(404);
+
+        CallOutbox.Result r = outbox.drain(sender, listener, NOW);
+        assertEquals(1, r.dropped);
+        assertEquals(1, r.delivered);
+        assertEquals(0, outbox.size());
+        assertEquals("gone", listener.dropped.get(0).callId);
+        assertEquals(Integer.valueOf(404), listener.droppedStatus.get(0));
+    }
+
+    @Test
+    public void staleCallIsDroppedWithoutSending() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.token("tok", NOW));
+
+        CallOutbox.Result r = outbox.drain(sender, listener, NOW + CallOutbox.MAX_CALL_AGE_MS + 1);
+        assertEquals(1, r.dropped);
+        assertEquals(List.of("device-token"), sender.paths);
+        assertEquals(Integer.valueOf(0), listener.droppedStatus.get(0));
+    }
+
+    @Test
+    public void pendingActionsSurviveAReopen() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_COMPLETE, "c2", "", NOW + 1));
+        sender.fail();
+        outbox.drain(sender, listener, NOW);
+
+        CallOutbox reopened = new CallOutbox(file);
+        assertEquals(2, reopened.size());
+        assertEquals(CallOutbox.BASE_BACKOFF_MS, reopened.retryDelayMs());
+
+        FakeSender fresh = new FakeSender();
+        reopened.drain(fresh, listener, NOW);
+        assertEquals(List.of("waiter/calls/c1/acknowledge", "waiter/calls/c2/complete"), fresh.paths);
+        assertEquals("4", listener.delivered.get(0).table);
+        assertEquals(0, new CallOutbox(file).size());
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        outbox.add(CallOutbox.Item.call(CallOutbox.KIND_ACK, "c1", "4", NOW));
+        outbox.clear();
+        assertEquals(0, outbox.size());
+        assertEquals(0, new CallOutbox(file).size());
+    }
+
+    @Test
+    public void transientStatuses() {
+        assertTrue(CallOutbox.isTransient(-1));
+        assertTrue(CallOutbox.isTransient(408));
+        assertTrue(CallOutbox.isTransient(429));
+        assertTrue(CallOutbox.isTransient(502));
+        assertFalse(CallOutbox.isTransient(400));
+        assertFalse(CallOutbox.isTransient(404));
+        assertFalse(CallOutbox.isTransient(422));
+    }
+
+    /** Responde 200 salvo que se le pida otra cosa para el próximo envío. */
+    private static final class FakeSender implements CallOutbox.Sender {
+        boolean ready = true;
+        final List<String> paths = new ArrayList<>();
+        final List<JSONObject> bodies = new ArrayList<>();
+        private final Deque<Integer> next = new ArrayDeque<>();
+
+        void respond(int status) {
+            next.add(status);
+        }
+
+        void fail() {
+            next.add(-1);
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public int post(String path, JSONObject body) throws IOException {
+            paths.add(path);
+            bodies.add(body);
+            Integer status = next.poll();
+            if (status == null) return 200;
+            if (status < 0) throw new IOException("sin red");
+            return status;
+        }
+    }
+
+    private static final class Recorder implements CallOutbox.Listener {
+        final List<CallOutbox.Item> delivered = new ArrayList<>();
+        final List<CallOutbox.Item> dropped = new ArrayList<>();
+        final List<Integer> droppedStatus = new ArrayList<>();
+
+        @Override
+        public void onDelivered(CallOutbox.Item item) {
+            delivered.add(item);
+        }
+
+        @Override
+        public void onDropped(CallOutbox.Item item, int status) {
+            dropped.add(item);
+            droppedStatus.add(status);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.mozoqr.app;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * Servidor Pusher de juguete para los tests de {@link RealtimeChannel}:
+ * handshake WebSocket, connection_established, suscripciones y broadcast a
+ * los canales de un local con {@link #TABLES} mesas.
+ */
+final class FakeVenueServer implements AutoCloseable {
+    static final int TABLES = 200;
+    private static final Pattern CHANNEL = Pattern.compile("\"channel\":\"([^\"]+)\"");
+
+    private final ServerSocket server;
+    private final boolean tls;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    final Map<String, String> auths = new ConcurrentHashMap<>();
+
+    FakeVenueServer() throws IOException {
+        this(null);
+    }
+
+    /** @param tls contexto con el certificado del servidor, o null para ws sin TLS */
+    FakeVenueServer(SSLContext tls) throws IOException {
+        this.tls = tls != null;
+        server = tls != null
+                ? tls.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getLoopbackAddress())
+                : new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "FakeVenueAccept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    URI uri() {
+        return URI.create((tls ? "wss" : "ws") + "://127.0.0.1:" + server.getLocalPort() + "/app/test?protocol=7");
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    /** Corta todas las conexiones sin frame de close, como una caída de red. */
+    void dropAll() throws IOException {
+        for (Client c : clients) {
+            c.socket.close();
+        }
+        clients.clear();
+    }
+
+    void broadcast(String channel, String event, String data) throws IOException {
+        String text = "{\"event\":\"" + event + "\",\"channel\":\"" + channel + "\",\"data\":" + quote(data) + "}";
+        for (Client c : clients) {
+            if (c.channels.contains(channel)) {
+                c.send(text);
+            }
+        }
+    }
+
+    /** Una llamada por mesa con el momento de envío, para medir la latencia del lado del cliente. */
+    void callFromEveryTable(String channel) throws IOException {
+        for (int table = 1; table <= TABLES; table++) {
+            broadcast(channel, "waiter.call", "{\"table_number\":" + table + ",\"sent_nanos\":" + System.nanoTime() + "}");
+        }
+    }
+
+    boolean subscribed(String channel) {
+        for (Client c : clients) {
+            if (c.channels.contains(channel)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        dropAll();
+    }
+
+    private void acceptLoop() {
+        try {
+            while (true) {
+                Socket s = server.accept();
+                s.setTcpNoDelay(true);
+                Client c = new Client(s);
+                Thread t = new Thread(c::run, "FakeVenueClient");
+                t.setDaemon(true);
+                t.start();
+            }
+        } catch (IOException ignored) {
+            // Servidor cerrado
+        }
+    }
+
+    private final class Client {
+        final Socket socket;
+        final Set<String> channels = ConcurrentHashMap.newKeySet();
+        OutputStream out;
+
+        Client(Socket socket) {
+            this.socket = socket;
+        }
+
+        void run() {
+            try {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                out = socket.getOutputStream();
+                String key = null;
+                for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+                    if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                        key = line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + RealtimeSocket.acceptFor(key) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                int id = connections.incrementAndGet();
+                clients.add(this);
+                send("{\"event\":\"pusher:connection_established\",\"data\":"
+                        + quote("{\"socket_id\":\"" + id + ".1\",\"activity_timeout\":120}") + "}");
+
+                while (true) {
+                    String text = readFrame(in);
+                    if (text == null) break;
+                    Matcher m = CHANNEL.matcher(text);
+                    if (!m.find()) continue;
+                    String channel = m.group(1);
+                    if (text.contains("pusher:subscribe")) {
+                        if (channel.startsWith("private-") && !text.contains("\"auth\"")) continue;
+                        int auth = text.indexOf("\"auth\":\"");
+                        if (auth >= 0) {
+                            auths.put(channel, text.substring(auth + 8, text.indexOf('"', auth + 8)));
+                        }
+                        channels.add(channel);
+                        send("{\"event\":\"pusher_internal:subscription_succeeded\",\"channel\":\"" + channel
+                                + "\",\"data\":\"{}\"}");
+                    } else if (text.contains("pusher:unsubscribe")) {
+                        channels.remove(channel);
+                    }
+                }
+            } catch (IOException ignored) {
+                // Conexión cortada
+            } finally {
+                clients.remove(this);
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        synchronized void send(String text) throws IOException {
+            byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 4);
+            frame.write(0x81);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else {
+                frame.write(126);
+                frame.write(payload.length >>> 8);
+                frame.write(payload.length);
+            }
+            frame.write(payload, 0, payload.length);
+            try {
+                out.write(frame.toByteArray());
+            } catch (IOException e) {
+                // Cliente ya desconectado
+            }
+        }
+    }
+
+    /** Lee un frame enmascarado del cliente; null si es un close. */
+    private static String readFrame(InputStream in) throws IOException {
+        int b0 = read(in);
+        int len = read(in) & 0x7F;
+        if (len == 126) {
+            len = (read(in) << 8) | read(in);
+        }
+        byte[] mask = new byte[4];
+        for (int i = 0; i < 4; i++) mask[i] = (byte) read(in);
+        byte[] payload = new byte[len];
+        for (int i = 0; i < len; i++) payload[i] = (byte) (read(in) ^ mask[i & 3]);
+        if ((b0 & 0x0F) == 0x8) return null;
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static int read(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        return b;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int b = read(in); b != '\n'; b = read(in)) {
+            if (b != '\r') sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
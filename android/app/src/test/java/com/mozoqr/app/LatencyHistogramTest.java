@@ -0,0 +1,38 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsNoPercentile() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(-1, h.percentile(99));
+    }
+
+    @Test
+    public void percentilesUseBucketUpperBound() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            h.record(40);
+        }
+        h.record(900);
+
+        assertEquals(100, h.count());
+        assertEquals(50, h.percentile(50));
+        assertEquals(50, h.percentile(99));
+        assertEquals(1_000, h.percentile(100));
+        assertEquals(900, h.max());
+    }
+
+    @Test
+    public void negativeSamplesAreClampedToZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-25);
+        assertEquals(1, h.percentile(50));
+        assertEquals(0, h.max());
+    }
+}
@@ -0,0 +1,138 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class QrBatchTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void everyTableDecodesBackToItsContent() throws IOException {
+        List<QrBatch.Item> items = tables(14);
+        QrBatch.Layout layout = QrBatch.Layout.a4(3, 4);
+        List<String> decoded = new ArrayList<>();
+
+        int pages = new QrBatch(pool, layout).run(items, page -> {
+            for (QrBatch.Cell cell : page.cells) {
+                assertNull(cell.error);
+                decoded.add(decode(page, cell));
+            }
+        });
+
+        assertEquals(2, pages);
+        assertEquals(14, decoded.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).content, decoded.get(i));
+        }
+    }
+
+    @Test
+    public void pagesArriveInOrderAndCellsStayInsideTheirSlot() throws IOException {
+        QrBatch.Layout layout = QrBatch.Layout.a4(3, 4);
+        List<QrBatch.Page> seen = new ArrayList<>();
+
+        new QrBatch(pool, layout).run(tables(30), page -> {
+            seen.add(page);
+            assertEquals(3, page.count);
+            for (int i = 0; i < page.cells.size(); i++) {
+                QrBatch.Cell cell = page.cells.get(i);
+                int cellX = layout.margin + (i % layout.columns) * layout.cellWidth();
+                int cellY = layout.margin + (i / layout.columns) * layout.cellHeight();
+                assertTrue(cell.x >= cellX && cell.x + cell.size <= cellX + layout.cellWidth());
+                assertTrue(cell.y >= cellY && cell.labelY + layout.labelHeight <= cellY + layout.cellHeight());
+            }
+        });
+
+        assertEquals(3, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i, seen.get(i).index);
+        }
+        assertEquals(12, seen.get(0).cells.size());
+        assertEquals(6, seen.get(2).cells.size());
+        assertEquals("mesa-24", seen.get(2).cells.get(0).item.id);
+    }
+
+    @Test
+    public void neverHoldsMoreThanTwoPageBuffers() throws IOException {
+        IdentityHashMap<int[], Boolean> buffers = new IdentityHashMap<>();
+        new QrBatch(pool, QrBatch.Layout.a4(2, 2)).run(tables(40), page -> buffers.put(page.pixels, true));
+        assertEquals(2, buffers.size());
+    }
+
+    @Test
+    public void singleThreadedPoolProducesTheSamePixels() throws IOException {
+        List<QrBatch.Item> items = tables(12);
+        QrBatch.Layout layout = QrBatch.Layout.a4(3, 4);
+        List<int[]> parallel = new ArrayList<>();
+        List<int[]> serial = new ArrayList<>();
+        new QrBatch(pool, layout).run(items, page -> parallel.add(page.pixels.clone()));
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            new QrBatch(single, layout).run(items, page -> serial.add(page.pixels.clone()));
+        } finally {
+            single.shutdownNow();
+        }
+        assertArrayEquals(parallel.get(0), serial.get(0));
+    }
+
+    @Test
+    public void contentThatDoesNotFitIsReportedAndTheRestRenders() throws IOException {
+        List<QrBatch.Item> items = tables(3);
+        StringBuilder huge = new StringBuilder();
+        for (int i = 0; i < 8000; i++) huge.append('x');
+        items.set(1, new QrBatch.Item("mesa-1", "Mesa 1", huge.toString()));
+        List<QrBatch.Cell> failed = new ArrayList<>();
+
+        new QrBatch(pool, QrBatch.Layout.a4(3, 4)).run(items, page -> failed.addAll(QrBatch.failed(page)));
+
+        assertEquals(1, failed.size());
+        assertEquals("mesa-1", failed.get(0).item.id);
+        assertNotNull(failed.get(0).error);
+    }
+
+    @Test
+    public void noItemsNoPages() throws IOException {
+        assertEquals(0, new QrBatch(pool, QrBatch.Layout.a4(3, 4)).run(new ArrayList<>(), page -> fail()));
+    }
+
+    private static List<QrBatch.Item> tables(int n) {
+        List<QrBatch.Item> items = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            items.add(new QrBatch.Item("mesa-" + i, "Mesa " + (i + 1), "https://mozoqr.com/table/7/" + (1000 + i)));
+        }
+        return items;
+    }
+
+    private static String decode(QrBatch.Page page, QrBatch.Cell cell) {
+        int[] crop = new int[cell.size * cell.size];
+        for (int y = 0; y < cell.size; y++) {
+            System.arraycopy(page.pixels, (cell.y + y) * page.width + cell.x, crop, y * cell.size, cell.size);
+        }
+        RGBLuminanceSource source = new RGBLuminanceSource(cell.size, cell.size, crop);
+        try {
+            return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(source))).getText();
+        } catch (ReaderException e) {
+            throw new AssertionError("no se pudo leer el QR de " + cell.item.id, e);
+        }
+    }
+}
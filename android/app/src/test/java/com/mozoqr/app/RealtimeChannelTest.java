@@ -0,0 +1,120 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class RealtimeChannelTest {
+    private static final String BUSINESS = "private-business.1";
+
+    private FakeVenueServer server;
+    private RealtimeChannel channel;
+    private final LinkedBlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeVenueServer();
+        channel = new RealtimeChannel(server.uri(), (socketId, name) -> "key:" + socketId, new RealtimeChannel.Listener() {
+            @Override
+            public void onEvent(String name, String event, String data, long receivedAtMs) {
+                events.add(data);
+            }
+
+            @Override
+            public void onStateChanged(RealtimeChannel.State state) {
+            }
+        }, 20, 200);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channel.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void deliversEveryTableCallInOrder() throws Exception {
+        channel.subscribe(BUSINESS);
+        channel.connect();
+        awaitSubscribed(BUSINESS);
+        assertEquals("key:1.1", server.auths.get(BUSINESS));
+
+        server.callFromEveryTable(BUSINESS);
+        for (int table = 1; table <= FakeVenueServer.TABLES; table++) {
+            String data = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull("faltó la mesa " + table, data);
+            assertTrue(data.contains("\"table_number\":" + table + ","));
+        }
+        assertEquals(FakeVenueServer.TABLES, channel.events());
+    }
+
+    @Test
+    public void reconnectsAndResubscribesAfterADrop() throws Exception {
+        channel.subscribe(BUSINESS);
+        channel.subscribe("waiter.7");
+        channel.connect();
+        awaitSubscribed(BUSINESS);
+        awaitSubscribed("waiter.7");
+
+        for (int i = 0; i < 3; i++) {
+            server.dropAll();
+            awaitSubscribed(BUSINESS);
+            awaitSubscribed("waiter.7");
+        }
+        assertEquals(4, server.connections());
+        awaitReconnects(3);
+
+        // El socket_id nuevo se usó para volver a firmar el canal privado
+        assertEquals("key:4.1", server.auths.get(BUSINESS));
+        server.callFromEveryTable("waiter.7");
+        for (int table = 1; table <= FakeVenueServer.TABLES; table++) {
+            String data = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull("faltó la mesa " + table + " después de reconectar", data);
+            assertTrue(data.contains("\"table_number\":" + table + ","));
+        }
+    }
+
+    @Test
+    public void unsubscribedChannelsStayOffAfterReconnect() throws Exception {
+        channel.subscribe(BUSINESS);
+        channel.subscribe("waiter.7");
+        channel.connect();
+        awaitSubscribed("waiter.7");
+        channel.unsubscribe("waiter.7");
+        server.dropAll();
+        awaitSubscribed(BUSINESS);
+        Thread.sleep(100);
+        assertFalse(server.subscribed("waiter.7"));
+    }
+
+    @Test
+    public void backoffIsJitteredAndCapped() {
+        for (int attempt = 0; attempt < 30; attempt++) {
+            long ceiling = Math.min(200, 20L << Math.min(attempt, 20));
+            long delay = channel.backoffDelay(attempt);
+            assertTrue(delay >= ceiling / 2);
+            assertTrue(delay <= ceiling);
+        }
+    }
+
+    private void awaitSubscribed(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!server.subscribed(name)) {
+            assertTrue("no se suscribió " + name, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitReconnects(long n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (channel.reconnectLatency().count() < n) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.TrustManagerFactory;
+
+public class RealtimeSocketTest {
+    private static final char[] PASSWORD = "mozoqr".toCharArray();
+
+    /** Compara el host con los nombres alternativos del certificado, como el verificador de Android. */
+    private static final HostnameVerifier SAN_VERIFIER = (host, session) -> {
+        try {
+            X509Certificate cert = (X509Certificate) session.getPeerCertificates()[0];
+            if (cert.getSubjectAlternativeNames() == null) return false;
+            for (List<?> name : cert.getSubjectAlternativeNames()) {
+                if (host.equalsIgnoreCase(String.valueOf(name.get(1)))) return true;
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return false;
+    };
+
+    @Test
+    public void certificateForTheHostIsAccepted() throws Exception {
+        SSLContext tls = context("tls/venue-127.0.0.1.p12");
+        try (FakeVenueServer server = new FakeVenueServer(tls)) {
+            CountDownLatch established = new CountDownLatch(1);
+            RealtimeSocket socket = RealtimeSocket.connect(server.uri(), 5_000, listener(established),
+                    tls.getSocketFactory(), SAN_VERIFIER);
+
+            assertTrue(established.await(5, TimeUnit.SECONDS));
+            socket.close(RealtimeSocket.CLOSE_NORMAL, "");
+        }
+    }
+
+    @Test
+    public void validCertificateForAnotherHostIsRejected() throws Exception {
+        // Confiable, pero emitido para otro nombre: lo que presentaría un intermediario en el Wi-Fi
+        SSLContext tls = context("tls/venue-otro-host.p12");
+        try (FakeVenueServer server = new FakeVenueServer(tls)) {
+            CountDownLatch established = new CountDownLatch(1);
+            try {
+                RealtimeSocket.connect(server.uri(), 5_000, listener(established), tls.getSocketFactory(),
+                        SAN_VERIFIER);
+                fail("Se aceptó un certificado de otro host");
+            } catch (SSLPeerUnverifiedException expected) {
+                assertTrue(expected.getMessage().contains("127.0.0.1"));
+            }
+            assertEquals(0, server.connections());
+        }
+    }
+
+    /** Servidor y cliente con el mismo certificado autofirmado, el cliente confiando en él. */
+    private static SSLContext context(String resource) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = RealtimeSocketTest.class.getClassLoader().getResourceAsStream(resource)) {
+            store.load(in, PASSWORD);
+        }
+        KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(store, PASSWORD);
+        TrustManagerFactory trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(store);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keys.getKeyManagers(), trust.getTrustManagers(), null);
+        return context;
+    }
+
+    private static RealtimeSocket.Listener listener(CountDownLatch established) {
+        return new RealtimeSocket.Listener() {
+            @Override
+            public void onText(RealtimeSocket socket, String text) {
+                if (text.contains("pusher:connection_established")) established.countDown();
+            }
+
+            @Override
+            public void onClosed(RealtimeSocket socket, int code, String reason) {
+            }
+        };
+    }
+}
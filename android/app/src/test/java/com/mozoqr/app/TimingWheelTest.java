@@ -0,0 +1,151 @@
+package com.mozoqr.app;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+    private static final long TICK = 1000;
+
+    private static List<String> advance(TimingWheel<String> wheel, long nowMs) {
+        ArrayList<TimingWheel.Entry<String>> due = new ArrayList<>();
+        wheel.advance(nowMs, due);
+        ArrayList<String> keys = new ArrayList<>();
+        for (TimingWheel.Entry<String> e : due) {
+            keys.add(e.key);
+        }
+        return keys;
+    }
+
+    @Test
+    public void firesOnlyWhatIsDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", "a", 30_000);
+        wheel.schedule("b", "b", 60_000);
+
+        assertTrue(advance(wheel, 29_999).isEmpty());
+        assertEquals(List.of("a"), advance(wheel, 30_000));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("b"), advance(wheel, 61_500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelRemovesEntry() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", "a", 5_000);
+        wheel.schedule("b", "b", 5_000);
+        wheel.schedule("c", "c", 5_000);
+
+        assertEquals("b", wheel.cancel("b"));
+        assertNull(wheel.cancel("b"));
+        List<String> due = advance(wheel, 5_000);
+        assertEquals(2, due.size());
+        assertFalse(due.contains("b"));
+    }
+
+    @Test
+    public void rescheduleReplacesSameKey() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", "first", 5_000);
+        wheel.schedule("a", "second", 90_000);
+
+        assertEquals(1, wheel.size());
+        assertTrue(advance(wheel, 10_000).isEmpty());
+        assertEquals(90_000, wheel.nextDeadlineMs());
+        assertEquals(List.of("a"), advance(wheel, 90_000));
+    }
+
+    @Test
+    public void nextDeadlineTracksEarliestAcrossLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        assertEquals(-1, wheel.nextDeadlineMs());
+
+        wheel.schedule("far", "far", 3_600_000);
+        assertEquals(3_600_000, wheel.nextDeadlineMs());
+        wheel.schedule("near", "near", 120_500);
+        assertEquals(120_500, wheel.nextDeadlineMs());
+        wheel.cancel("near");
+        assertEquals(3_600_000, wheel.nextDeadlineMs());
+    }
+
+    @Test
+    public void nextDeadlineFollowsTheTopLevelAroundItsWrap() {
+        // Cada ranura del nivel de arriba cubre 64 * 64 ticks; se arranca en la 60
+        long topSlotMs = TimingWheel.SLOTS * TimingWheel.SLOTS * TICK;
+        long start = 60 * topSlotMs;
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, start);
+
+        wheel.schedule("later", "later", start + 10 * topSlotMs);
+        wheel.schedule("wrapped", "wrapped", start + 7 * topSlotMs);
+        wheel.schedule("before", "before", start + 2 * topSlotMs);
+
+        assertEquals(start + 2 * topSlotMs, wheel.nextDeadlineMs());
+        wheel.cancel("before");
+        // Ranuras 3 y 6: ya dieron la vuelta
+        assertEquals(start + 7 * topSlotMs, wheel.nextDeadlineMs());
+        assertEquals(List.of("wrapped"), advance(wheel, start + 7 * topSlotMs));
+        assertEquals(start + 10 * topSlotMs, wheel.nextDeadlineMs());
+    }
+
+    @Test
+    public void longJumpCascadesEverything() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", "a", 70_000);
+        wheel.schedule("b", "b", 5_000_000);
+        wheel.schedule("c", "c", 10_000_000);
+
+        List<String> due = advance(wheel, 6_000_000);
+        assertEquals(List.of("a", "b"), due);
+        assertEquals(10_000_000, wheel.nextDeadlineMs());
+        assertEquals(List.of("c"), advance(wheel, 10_000_000));
+    }
+
+    @Test
+    public void deadlinesPastHorizonStillFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        long farAway = 30L * 24 * 3_600_000;
+        wheel.schedule("far", "far", farAway);
+
+        assertTrue(advance(wheel, farAway / 2).isEmpty());
+        assertEquals(farAway, wheel.nextDeadlineMs());
+        assertEquals(List.of("far"), advance(wheel, farAway));
+    }
+
+    @Test
+    public void matchesSortedReference() {
+        Random random = new Random(42);
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        TreeMap<String, Long> reference = new TreeMap<>();
+        long now = 0;
+        for (int round = 0; round < 2_000; round++) {
+            int action = random.nextInt(10);
+            String key = "call" + random.nextInt(200);
+            if (action < 5) {
+                long deadline = now + random.nextInt(600_000);
+                wheel.schedule(key, key, deadline);
+                reference.put(key, deadline);
+            } else if (action < 7) {
+                assertEquals(reference.remove(key) != null, wheel.cancel(key) != null);
+            } else {
+                now += random.nextInt(20_000);
+                List<String> due = advance(wheel, now);
+                for (String k : due) {
+                    Long deadline = reference.remove(k);
+                    assertNotNull("disparó algo no programado: " + k, deadline);
+                    assertTrue(deadline <= now);
+                }
+                for (long deadline : reference.values()) {
+                    assertTrue("quedó algo vencido sin disparar", deadline > now);
+                }
+            }
+            long expected = reference.isEmpty() ? -1 : reference.values().stream().min(Long::compare).get();
+            assertEquals(expected, wheel.nextDeadlineMs());
+        }
+    }
+}
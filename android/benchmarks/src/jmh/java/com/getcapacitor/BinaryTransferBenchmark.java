@@ -0,0 +1,75 @@
+package com.getcapacitor;
+
+import com.getcapacitor.plugin.util.HttpRequestHandler;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Native side of handing a binary response to the web: base64 inside the JSON result, as
+ * CapacitorHttp does by default, against a {@link BinaryTransfer} handle whose bytes the
+ * WebView then streams.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryTransferBenchmark {
+
+    /** Payload size in KiB: a menu photo and an exported report. */
+    @Param({ "64", "1024" })
+    public int sizeKb;
+
+    private byte[] body;
+    private final BinaryTransfer transfer = new BinaryTransfer();
+    private final byte[] readBuffer = new byte[16 * 1024];
+
+    @Setup
+    public void setUp() {
+        body = new byte[sizeKb * 1024];
+        new Random(7).nextBytes(body);
+    }
+
+    @Benchmark
+    public int base64Result() throws IOException {
+        JSObject result = new JSObject();
+        result.put("status", 200);
+        result.put("data", HttpRequestHandler.readStreamAsBase64(new ByteArrayInputStream(body), body.length));
+        return result.toString().length();
+    }
+
+    @Benchmark
+    public long handleResult() throws IOException {
+        JSObject result = new JSObject();
+        result.put("status", 200);
+        JSObject handle = transfer.register(
+            BinaryTransfer.Payload.of(new ByteArrayInputStream(body), body.length, "image/jpeg"),
+            BinaryTransfer.AS_BLOB
+        );
+        result.put("data", handle);
+        long total = result.toString().length();
+        // What the WebView does with the local server response
+        try (InputStream in = transfer.take(handle.getString(BinaryTransfer.HANDLE_KEY)).open()) {
+            int n;
+            while ((n = in.read(readBuffer)) != -1) {
+                total += n;
+            }
+        }
+        return total;
+    }
+}
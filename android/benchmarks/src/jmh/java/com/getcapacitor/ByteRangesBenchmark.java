@@ -0,0 +1,89 @@
+package com.getcapacitor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A seek into local media: serving a 64 KiB range near the end of an 8 MiB file through
+ * {@link RangeSource}, against streaming the file from the start up to the range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteRangesBenchmark {
+
+    private static final int FILE_BYTES = 8 * 1024 * 1024;
+    private static final String RANGE = "bytes=7340032-7405567";
+
+    private File file;
+    private final byte[] buffer = new byte[16 * 1024];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("mozo-bench", ".mp4");
+        byte[] data = new byte[FILE_BYTES];
+        new Random(7).nextBytes(data);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long rangeSource() throws IOException {
+        RangeSource source = RangeSource.of(new FileInputStream(file));
+        long[] range = ByteRanges.parse(RANGE, source.length())[0];
+        return drain(source.stream(range[0], range[1] - range[0] + 1));
+    }
+
+    @Benchmark
+    public long streamFromStart() throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            long[] range = ByteRanges.parse(RANGE, FILE_BYTES)[0];
+            long skipped = 0;
+            while (skipped < range[0]) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, range[0] - skipped));
+                skipped += n;
+            }
+            long total = 0;
+            while (total < range[1] - range[0] + 1) {
+                total += in.read(buffer, 0, (int) Math.min(buffer.length, range[1] - range[0] + 1 - total));
+            }
+            return total;
+        }
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            total += n;
+        }
+        in.close();
+        return total;
+    }
+}
@@ -0,0 +1,59 @@
+package com.getcapacitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link JSInjector#getInjectedStream(InputStream)} over a built index.html, read to the end
+ * as the WebView does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JSInjectorBenchmark {
+
+    private JSInjector injector;
+    private byte[] indexHtml;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup
+    public void setUp() {
+        StringBuilder bridgeJs = new StringBuilder();
+        while (bridgeJs.length() < 60_000) {
+            bridgeJs.append("(function(){var cap=window.Capacitor||{};cap.nativeCallback=function(){};})();\n");
+        }
+        injector = new JSInjector("window.Capacitor={};", bridgeJs.toString(), "/* plugins */", "", "", "", "window.WEBVIEW_SERVER_URL='https://localhost';");
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html lang=\"es\"><head><meta charset=\"UTF-8\">");
+        html.append("<title>MozoQR</title><link rel=\"stylesheet\" href=\"/assets/index-Bx1mQ2aZ.css\">");
+        html.append("<script type=\"module\" crossorigin src=\"/assets/index-CfUHY9d7.js\"></script></head>");
+        html.append("<body><div id=\"app\"></div></body></html>\n");
+        indexHtml = html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int injectIndexHtml() throws IOException {
+        InputStream in = injector.getInjectedStream(new ByteArrayInputStream(indexHtml));
+        int total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,72 @@
+package com.getcapacitor;
+
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link JSObject} parsing and serialization through {@link JSONCodec}, against plain
+ * {@code org.json}, and {@link PluginCall} getters over raw options.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JSONBenchmark {
+
+    private JSObject parsed;
+    private JSONObject plain;
+
+    @Setup
+    public void setUp() throws JSONException {
+        parsed = new JSObject(Payloads.CALL_OPTIONS);
+        plain = new JSONObject(Payloads.CALL_OPTIONS);
+    }
+
+    @Benchmark
+    public JSObject parseJSObject() throws JSONException {
+        return new JSObject(Payloads.CALL_OPTIONS);
+    }
+
+    @Benchmark
+    public JSONObject parseOrgJson() throws JSONException {
+        return new JSONObject(Payloads.CALL_OPTIONS);
+    }
+
+    @Benchmark
+    public String writeJSObject() {
+        return parsed.toString();
+    }
+
+    @Benchmark
+    public String writeOrgJson() {
+        return plain.toString();
+    }
+
+    /** What a plugin method typically does: read two options of a fresh call. */
+    @Benchmark
+    public Object pluginCallGetters() {
+        PluginCall call = new PluginCall(null, "PushNotifications", "1", "createChannel", Payloads.CALL_OPTIONS);
+        String table = call.getString("table_number");
+        Integer id = call.getInt("table_id");
+        return table.length() + id;
+    }
+
+    @Benchmark
+    public Object pluginCallNestedObject() {
+        PluginCall call = new PluginCall(null, "PushNotifications", "1", "createChannel", Payloads.CALL_OPTIONS);
+        return call.getObject("notification").optString("channelId");
+    }
+}
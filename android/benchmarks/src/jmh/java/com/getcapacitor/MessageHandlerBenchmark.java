@@ -0,0 +1,53 @@
+package com.getcapacitor;
+
+import android.webkit.WebView;
+import java.util.concurrent.TimeUnit;
+import org.apache.cordova.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link MessageHandler#postMessage(String)} up to the bridge handoff: envelope decoding,
+ * {@link PluginCall} creation and the plugin reading its options. The stub bridge calls the
+ * plugin on the same thread, so lane scheduling isn't included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageHandlerBenchmark {
+
+    private Bridge bridge;
+    private MessageHandler handler;
+    private Blackhole sink;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        sink = blackhole;
+        bridge = new Bridge();
+        handler = new MessageHandler(bridge, new WebView(), new PluginManager());
+    }
+
+    @Benchmark
+    public void dispatchOnly() {
+        bridge.setTarget((pluginId, methodName, call) -> sink.consume(call));
+        handler.postMessage(Payloads.POST_MESSAGE);
+    }
+
+    @Benchmark
+    public void dispatchAndReadOptions() {
+        bridge.setTarget((pluginId, methodName, call) -> sink.consume(call.getString("call_id")));
+        handler.postMessage(Payloads.POST_MESSAGE);
+    }
+}
@@ -0,0 +1,23 @@
+package com.getcapacitor;
+
+/**
+ * Realistic bridge traffic from the waiter app, shared by the benchmarks.
+ */
+final class Payloads {
+
+    /** Options of a table call as the waiter screen sends them to a plugin. */
+    static final String CALL_OPTIONS =
+        "{\"table_id\":12,\"table_number\":\"12\",\"message\":\"La mesa 12 solicita un mozo\",\"urgency\":\"high\"," +
+        "\"call_id\":\"c8f1a2b4-5d6e-4f70-8a9b-0c1d2e3f4a5b\",\"action\":\"llamar_mozo\"," +
+        "\"client_info\":{\"ua\":\"Mozilla/5.0 (Linux; Android 14; Pixel 7) AppleWebKit/537.36\",\"lang\":\"es-AR\",\"tz\":\"America/Argentina/Buenos_Aires\"}," +
+        "\"notification\":{\"title\":\"🔔 Mesa 12\",\"body\":\"Solicita la cuenta\",\"channelId\":\"waiter_urgent\"," +
+        "\"extra\":{\"call_id\":\"c8f1a2b4-5d6e-4f70-8a9b-0c1d2e3f4a5b\",\"table_number\":\"12\",\"type\":\"new_call\",\"items\":[1,2,3,4,5]}}}";
+
+    /** A full message from the WebView to {@link MessageHandler#postMessage(String)}. */
+    static final String POST_MESSAGE =
+        "{\"callbackId\":\"81543127\",\"pluginId\":\"PushNotifications\",\"methodName\":\"createChannel\",\"type\":\"message\",\"options\":" +
+        CALL_OPTIONS +
+        "}";
+
+    private Payloads() {}
+}
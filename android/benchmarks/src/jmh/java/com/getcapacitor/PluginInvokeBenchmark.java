@@ -0,0 +1,74 @@
+package com.getcapacitor;
+
+import com.getcapacitor.annotation.CapacitorPlugin;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PluginHandle#invoke(String, PluginCall)} on a loaded plugin, from the method lookup
+ * to the plugin reading its options: through the invoker registered in
+ * {@link Plugin#registerMethodInvokers(Map)}, and through the reflective fallback a plugin
+ * gets when it doesn't override it. Decoding the message is {@link MessageHandlerBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PluginInvokeBenchmark {
+
+    @Param({ "invoker", "reflection" })
+    public String dispatch;
+
+    private PluginHandle handle;
+    private PluginCall call;
+
+    @Setup
+    public void setUp() throws Exception {
+        Class<? extends Plugin> pluginClass = dispatch.equals("invoker") ? DirectPlugin.class : ReflectivePlugin.class;
+        handle = new PluginHandle(new Bridge(), pluginClass);
+        call = new PluginCall(null, handle.getId(), "81543127", "acknowledge", new JSObject(Payloads.CALL_OPTIONS));
+    }
+
+    @Benchmark
+    public Object invoke() throws Exception {
+        handle.invoke("acknowledge", call);
+        return ((CallsPlugin) handle.getInstance()).lastCallId;
+    }
+
+    /** The same method on both plugins, so only the dispatch differs. */
+    public abstract static class CallsPlugin extends Plugin {
+
+        Object lastCallId;
+
+        @PluginMethod
+        public void acknowledge(PluginCall call) {
+            lastCallId = call.getString("call_id");
+        }
+    }
+
+    @CapacitorPlugin(name = "DirectCalls")
+    public static class DirectPlugin extends CallsPlugin {
+
+        @Override
+        protected void registerMethodInvokers(Map<String, PluginMethodInvoker> invokers) {
+            super.registerMethodInvokers(invokers);
+            invokers.put("acknowledge", (plugin, call) -> acknowledge(call));
+        }
+    }
+
+    @CapacitorPlugin(name = "ReflectiveCalls")
+    public static class ReflectivePlugin extends CallsPlugin {}
+}
@@ -0,0 +1,119 @@
+package com.getcapacitor;
+
+import android.net.Uri;
+import com.getcapacitor.util.HostMask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request routing in {@link WebViewLocalServer}: the synchronized {@link UriMatcher} against
+ * its compiled {@link RouteMatcher}, and {@link HostMask} checks with and without the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteBenchmark {
+
+    private static final String[] AUTHORITIES = { "localhost", "app.mozoqr.com" };
+
+    private UriMatcher uriMatcher;
+    private RouteMatcher routes;
+    private Uri[] urls;
+    private HostMask allowNavigation;
+    private HostMask cachedAllowNavigation;
+    private String[] hosts;
+
+    @Setup
+    public void setUp() {
+        uriMatcher = new UriMatcher(null);
+        for (String authority : AUTHORITIES) {
+            for (String scheme : new String[] { "http", "https" }) {
+                uriMatcher.addURI(scheme, authority, "/", "root");
+                uriMatcher.addURI(scheme, authority, "**", "assets");
+            }
+        }
+        routes = uriMatcher.compile();
+        urls = new Uri[] {
+            Uri.parse("https://localhost/"),
+            Uri.parse("https://localhost/assets/index-CfUHY9d7.js"),
+            Uri.parse("https://localhost/assets/vendor-Bx1mQ2aZ.css"),
+            Uri.parse("https://localhost/img/menu/milanesa-napolitana.webp"),
+            Uri.parse("https://localhost/_capacitor_file_/data/user/0/com.mozoqr.app/files/sonido.mp3"),
+            Uri.parse("https://api.mozoqr.com/api/waiter/calls/pending")
+        };
+
+        String[] masks = { "*.mozoqr.com", "accounts.google.com", "*.googleapis.com", "*.pusher.com", "*.firebaseio.com" };
+        allowNavigation = HostMask.Parser.parse(masks);
+        cachedAllowNavigation = HostMask.Parser.cached(HostMask.Parser.parse(masks));
+        hosts = new String[] { "api.mozoqr.com", "ws-us2.pusher.com", "example.com", "fcm.googleapis.com" };
+    }
+
+    @Benchmark
+    public int uriMatcher() {
+        int found = 0;
+        for (Uri url : urls) {
+            if (uriMatcher.match(url) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int routeMatcher() {
+        int found = 0;
+        for (Uri url : urls) {
+            if (routes.match(url) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int uriMatcherContended() {
+        return uriMatcher();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int routeMatcherContended() {
+        return routeMatcher();
+    }
+
+    @Benchmark
+    public int hostMask() {
+        int allowed = 0;
+        for (String host : hosts) {
+            if (allowNavigation.matches(host)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public int hostMaskCached() {
+        int allowed = 0;
+        for (String host : hosts) {
+            if (cachedAllowNavigation.matches(host)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
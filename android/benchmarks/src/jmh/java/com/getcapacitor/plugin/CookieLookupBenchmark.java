@@ -0,0 +1,72 @@
+package com.getcapacitor.plugin;
+
+import com.getcapacitor.Bridge;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cookie work CapacitorHttp does around every API request: the {@code Cookie} header
+ * HttpURLConnection asks for, a single cookie read by name, and storing a
+ * {@code Set-Cookie} response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CookieLookupBenchmark {
+
+    private static final String API = "https://mozoqr.com/api/waiter/calls";
+
+    private CapacitorCookieManager cookies;
+    private URI uri;
+    private final Map<String, List<String>> requestHeaders = Collections.emptyMap();
+    private Map<String, List<String>> responseHeaders;
+
+    @Setup
+    public void setUp() {
+        cookies = new CapacitorCookieManager(null, java.net.CookiePolicy.ACCEPT_ALL, new Bridge());
+        uri = URI.create(API);
+        // A logged in session: auth, CSRF and a handful of analytics cookies
+        cookies.setCookie(API, "XSRF-TOKEN=eyJpdiI6IkJ2c2xqT2V4d1ZCeG1rNnRpZ1E9PSIsInZhbHVlIjoi; path=/");
+        cookies.setCookie(API, "mozoqr_session=eyJpdiI6IlN6d0ZtT0tQa1F4ZmdYbUZhV2c9PSIsInZhbHVlIjoi; path=/; httponly");
+        for (int i = 0; i < 8; i++) {
+            cookies.setCookie(API, "_ga_" + i + "=GS1.1.1700000000." + i + ".1.1700000100.0.0.0; path=/");
+        }
+        cookies.flush();
+        responseHeaders = Collections.singletonMap(
+            "Set-Cookie",
+            Collections.singletonList("XSRF-TOKEN=eyJpdiI6Ik5ldyJ9; expires=Wed, 31 Dec 2031 23:59:59 GMT; path=/; domain=mozoqr.com")
+        );
+    }
+
+    @Benchmark
+    public Map<String, List<String>> requestCookies() {
+        return cookies.get(uri, requestHeaders);
+    }
+
+    @Benchmark
+    public HttpCookie readCookie() {
+        return cookies.getCookie(API, "XSRF-TOKEN");
+    }
+
+    @Benchmark
+    public void responseCookies() {
+        cookies.put(uri, responseHeaders);
+    }
+}
@@ -0,0 +1,136 @@
+package com.getcapacitor.plugin.util;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A CapacitorHttp GET through {@link HttpRequestHandler#request(PluginCall, String, Bridge)}
+ * against a loopback server, from opening the connection to the response object: with
+ * {@link PooledHttpTransport} reusing kept-alive connections, and with a fresh
+ * {@link HttpURLConnection} per request as the platform stack does when the server closes
+ * it. The body is read with and without a Content-Length, and as base64.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpReadBenchmark {
+
+    /** Response size in KiB: a pending-calls page and a full menu. */
+    @Param({ "8", "256" })
+    public int sizeKb;
+
+    @Param({ "pooled", "fresh" })
+    public String transport;
+
+    private HttpServer server;
+    private Bridge bridge;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        int i = 0;
+        while (json.length() < sizeKb * 1024) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"table_number\":\"").append(i % 40).append("\",\"status\":\"pending\",");
+            json.append("\"message\":\"La mesa solicita un mozo\",\"called_at\":\"2026-10-18T21:30:00-03:00\"}");
+            i++;
+        }
+        json.append("]}\n");
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Without it the server's Nagle meets the client's delayed ACK on kept-alive connections
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.createContext("/calls", (exchange) -> respond(exchange, body, body.length));
+        server.createContext("/calls/chunked", (exchange) -> respond(exchange, body, 0));
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/calls";
+
+        bridge = new Bridge();
+        HttpRequestHandler.setTransport(transport.equals("pooled") ? new PooledHttpTransport() : new FreshTransport());
+    }
+
+    @TearDown
+    public void tearDown() {
+        HttpRequestHandler.setTransport(null);
+        server.stop(0);
+    }
+
+    @Benchmark
+    public JSObject knownLength() throws Exception {
+        return get(url, "json");
+    }
+
+    @Benchmark
+    public JSObject unknownLength() throws Exception {
+        return get(url + "/chunked", "json");
+    }
+
+    @Benchmark
+    public JSObject base64() throws Exception {
+        return get(url, "arraybuffer");
+    }
+
+    private JSObject get(String target, String responseType) throws Exception {
+        JSObject options = new JSObject();
+        options.put("url", target);
+        options.put("responseType", responseType);
+        PluginCall call = new PluginCall(null, "CapacitorHttp", "1", "get", options);
+        return HttpRequestHandler.request(call, "GET", bridge);
+    }
+
+    /**
+     * @param length the Content-Length, or 0 to send the body chunked
+     */
+    private static void respond(HttpExchange exchange, byte[] body, long length) throws IOException {
+        try (InputStream request = exchange.getRequestBody()) {
+            request.readAllBytes();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** A new connection per request: asks the server to close it after the response. */
+    private static final class FreshTransport implements HttpTransport {
+
+        @Override
+        public HttpURLConnection open(URL url) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty("Connection", "close");
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.getcapacitor.util;
+
+import android.app.SharedPreferencesImpl;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link KeyValueStore} against SharedPreferences holding the same entries: overwriting a value
+ * and returning (apply), overwriting it durably (commit / flush), reading one, and opening the
+ * file again as a cold start does. SharedPreferences is {@link SharedPreferencesImpl}, which
+ * rewrites the whole XML file on every write like the platform.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyValueStoreBenchmark {
+
+    private static final String NAME = "bench";
+    private static final String VALUE = "{\"table_number\":\"12\",\"status\":\"pending\",\"called_at\":1792367400000}";
+
+    @Param({ "1000", "10000" })
+    public int entries;
+
+    @Param({ "kv", "prefs" })
+    public String store;
+
+    private File dir;
+    private Context context;
+    private String[] keys;
+    private int next;
+
+    private KeyValueStore kv;
+    private File prefsFile;
+    private SharedPreferences prefs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mozo-kv").toFile();
+        context = new BenchContext(dir);
+        keys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "call_" + i;
+        }
+
+        if (store.equals("kv")) {
+            kv = KeyValueStore.open(context, NAME);
+            for (String key : keys) {
+                kv.putString(key, VALUE);
+            }
+            kv.flush();
+        } else {
+            prefs = context.getSharedPreferences(NAME, Context.MODE_PRIVATE);
+            SharedPreferences.Editor editor = prefs.edit();
+            for (String key : keys) {
+                editor.putString(key, VALUE);
+            }
+            editor.commit();
+            prefsFile = new File(new File(dir, "shared_prefs"), NAME + ".xml");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (kv != null) {
+            KeyValueStore.evict(NAME);
+        } else {
+            context.deleteSharedPreferences(NAME);
+        }
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).forEach((path) -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void put() {
+        String key = nextKey();
+        if (kv != null) {
+            kv.putString(key, VALUE);
+        } else {
+            prefs.edit().putString(key, VALUE).apply();
+        }
+    }
+
+    @Benchmark
+    public boolean putDurable() {
+        String key = nextKey();
+        if (kv != null) {
+            kv.putString(key, VALUE);
+            kv.flush();
+            return true;
+        }
+        return prefs.edit().putString(key, VALUE).commit();
+    }
+
+    @Benchmark
+    public String get() {
+        String key = nextKey();
+        return kv != null ? kv.getString(key, null) : prefs.getString(key, null);
+    }
+
+    @Benchmark
+    public boolean reopen() {
+        if (kv != null) {
+            KeyValueStore.evict(NAME);
+            kv = KeyValueStore.open(context, NAME);
+            return kv.contains(keys[0]);
+        }
+        prefs = new SharedPreferencesImpl(prefsFile);
+        return prefs.contains(keys[0]);
+    }
+
+    private String nextKey() {
+        String key = keys[next];
+        next = (next + 1) % keys.length;
+        return key;
+    }
+
+    private static final class BenchContext extends Context {
+
+        private final File filesDir;
+        private final File cacheDir;
+        private final ApplicationInfo info = new ApplicationInfo();
+
+        BenchContext(File dir) {
+            filesDir = new File(dir, "files");
+            cacheDir = new File(dir, "cache");
+            filesDir.mkdirs();
+            cacheDir.mkdirs();
+            info.dataDir = dir.getPath();
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            return null;
+        }
+
+        @Override
+        public ApplicationInfo getApplicationInfo() {
+            return info;
+        }
+
+        @Override
+        public File getFilesDir() {
+            return filesDir;
+        }
+
+        @Override
+        public File getCacheDir() {
+            return cacheDir;
+        }
+
+        @Override
+        public String getPackageName() {
+            return "com.mozoqr.app";
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mozoqr.app;
+
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lo que le cuesta un log al hilo que atiende el push: concatenar y llamar a Log.d
+ * (como antes) contra {@link AppLog} con el tag apagado y prendido. Prendido sólo
+ * se mide la publicación en el ring; el formato y el archivo quedan en el escritor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppLogBenchmark {
+
+    private AppLog log;
+    private AppLog.Tag off;
+    private AppLog.Tag on;
+    private File dir;
+    private String callId = "8f2c1e7a-call";
+    private String table = "12";
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("applog-bench").toFile();
+        log = new AppLog(AppLog.CAPACITY);
+        log.setEcho(false);
+        off = log.newTag("Off");
+        on = log.newTag("On");
+        log.setLevel("Off", AppLog.INFO);
+        log.setLevel("On", AppLog.DEBUG);
+        log.start(dir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.awaitDrained(5000);
+    }
+
+    @Benchmark
+    public String eagerConcatenation() {
+        // Devuelto para que el JIT no descarte el String: Log.d es mudo en los stubs
+        String message = "Llamada " + callId + " de mesa " + table;
+        Log.d("FCMService", message);
+        return message;
+    }
+
+    @Benchmark
+    public void disabled() {
+        AppLog.d(off, "Llamada {} de mesa {}", callId, table);
+    }
+
+    @Benchmark
+    public void enabled() {
+        AppLog.d(on, "Llamada {} de mesa {}", callId, table);
+    }
+}
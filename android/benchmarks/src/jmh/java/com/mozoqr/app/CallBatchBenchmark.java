@@ -0,0 +1,81 @@
+package com.mozoqr.app;
+
+import com.google.firebase.messaging.RemoteMessage;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lo que cuesta en el hilo de FCM recibir {@code calls} llamadas: un push compacto con todas
+ * ({@link CallBatch}) contra un push de claves sueltas por llamada ({@link CallEvent}). Cuántos
+ * pushes por llamada se ahorran en un pico lo mide {@code :benchmarks:rushSim -Psim.batchMs=...}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallBatchBenchmark {
+
+    @Param({ "1", "8" })
+    public int calls;
+
+    private RemoteMessage compact;
+    private RemoteMessage[] keyValue;
+
+    @Setup
+    public void setUp() {
+        long sentAt = 1_760_000_000_000L;
+        CallBatch.Writer writer = new CallBatch.Writer();
+        keyValue = new RemoteMessage[calls];
+        for (int i = 0; i < calls; i++) {
+            String table = String.valueOf(12 + i);
+            String callId = "c8f1a2b4-5d6e-4f70-8a9b-0c1d2e3f4a" + (10 + i);
+            String title = "🔔 Mesa " + table;
+            String message = "La mesa " + table + " solicita un mozo";
+            writer.add(callId, table, "new_call", sentAt + i * 350L, "waiter_urgent", title, message);
+
+            Map<String, String> data = new HashMap<>();
+            data.put("type", "new_call");
+            data.put("call_id", callId);
+            data.put("table_number", table);
+            data.put("channel_id", "waiter_urgent");
+            data.put("title", title);
+            data.put("message", message);
+            data.put("business_id", "7");
+            keyValue[i] = new RemoteMessage("m" + i, data, null, sentAt + i * 350L);
+        }
+        Map<String, String> data = new HashMap<>();
+        data.put(CallBatch.DATA_KEY, writer.encode());
+        compact = new RemoteMessage("mz", Collections.unmodifiableMap(data), null, sentAt);
+    }
+
+    @Benchmark
+    public List<CallEvent> decodeCompact() {
+        return CallBatch.fromRemoteMessage(compact);
+    }
+
+    @Benchmark
+    public void parseKeyValue(Blackhole sink) {
+        for (RemoteMessage message : keyValue) {
+            // El servicio prueba primero el lote compacto, como con cada push real
+            sink.consume(CallBatch.fromRemoteMessage(message));
+            sink.consume(CallEvent.fromRemoteMessage(message));
+        }
+    }
+}
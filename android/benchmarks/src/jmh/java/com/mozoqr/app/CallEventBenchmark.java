@@ -0,0 +1,73 @@
+package com.mozoqr.app;
+
+import com.google.firebase.messaging.RemoteMessage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lo que hace el hilo de FCM por cada push en {@code MyFirebaseMessagingService}: parsear la
+ * llamada y decidir si se notifica, y el registro de latencia del pipeline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallEventBenchmark {
+
+    private RemoteMessage withNotification;
+    private RemoteMessage dataOnly;
+    private RemoteMessage notACall;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> call = new HashMap<>();
+        call.put("type", "new_call");
+        call.put("call_id", "c8f1a2b4-5d6e-4f70-8a9b-0c1d2e3f4a5b");
+        call.put("table_number", "12");
+        call.put("channel_id", "waiter_urgent");
+        call.put("message", "La mesa 12 solicita un mozo");
+        call.put("business_id", "7");
+        withNotification = new RemoteMessage("m1", call, new RemoteMessage.Notification("🔔 Mesa 12", "Solicita un mozo"), 1_760_000_000_000L);
+        dataOnly = new RemoteMessage("m2", call, null, 1_760_000_000_000L);
+
+        Map<String, String> other = new HashMap<>();
+        other.put("type", "menu_updated");
+        other.put("business_id", "7");
+        notACall = new RemoteMessage("m3", other, null, 1_760_000_000_000L);
+    }
+
+    @Benchmark
+    public CallEvent parseWithNotification() {
+        return CallEvent.fromRemoteMessage(withNotification);
+    }
+
+    @Benchmark
+    public CallEvent parseDataOnly() {
+        return CallEvent.fromRemoteMessage(dataOnly);
+    }
+
+    @Benchmark
+    public CallEvent ignoreNonCall() {
+        return CallEvent.fromRemoteMessage(notACall);
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        histogram.record((sample++ * 37) & 4095);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mozoqr.app;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hojas de QR de {@link QrBatch} para un salón de {@link #TABLES} mesas, en mesas por segundo:
+ * con un solo núcleo y con todos. Mide codificar y pintar las páginas; el PNG/PDF y las
+ * etiquetas son de Android y quedan afuera.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QrBatchBenchmark {
+
+    static final int TABLES = 150;
+
+    /** Núcleos del pool: "1" o "all". */
+    @Param({ "1", "all" })
+    public String cores;
+
+    private ForkJoinPool pool;
+    private QrBatch batch;
+    private final List<QrBatch.Item> items = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        int parallelism = "all".equals(cores) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(cores);
+        pool = new ForkJoinPool(parallelism);
+        batch = new QrBatch(pool, QrBatch.Layout.a4(3, 4));
+        for (int i = 0; i < TABLES; i++) {
+            items.add(new QrBatch.Item(String.valueOf(i), "Mesa " + (i + 1), "https://mozoqr.com/table/42/" + (5000 + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public long tables() throws IOException {
+        long[] checksum = new long[1];
+        batch.run(items, page -> checksum[0] += page.pixels[page.width * page.height / 2] + page.cells.size());
+        return checksum[0];
+    }
+}
@@ -0,0 +1,88 @@
+package com.mozoqr.app;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recordatorios de {@link EscalationScheduler}: una llamada nueva y la atendida que la cancela
+ * con {@code open} llamadas abiertas, en la {@link TimingWheel} y en una cola de prioridad.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    @Param({ "40", "400" })
+    public int open;
+
+    private TimingWheel<String> wheel;
+    private PriorityQueue<long[]> queue;
+    private String[] keys;
+    private long[][] queued;
+    private int next;
+    private long now;
+    private final ArrayList<TimingWheel.Entry<String>> due = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        wheel = new TimingWheel<>(1000, 0);
+        queue = new PriorityQueue<>(open, (a, b) -> Long.compare(a[0], b[0]));
+        keys = new String[open];
+        queued = new long[open][];
+        for (int i = 0; i < open; i++) {
+            keys[i] = "call" + i;
+            long deadline = deadline(i);
+            wheel.schedule(keys[i], keys[i], deadline);
+            queued[i] = new long[] { deadline, i };
+            queue.add(queued[i]);
+        }
+    }
+
+    /** Sin avanzar el reloj: los plazos rotan dentro de los próximos 2 minutos. */
+    @Benchmark
+    public long wheelCancelAndSchedule() {
+        int i = next++ % open;
+        wheel.cancel(keys[i]);
+        wheel.schedule(keys[i], keys[i], deadline(next));
+        return wheel.nextDeadlineMs();
+    }
+
+    @Benchmark
+    public long priorityQueueCancelAndSchedule() {
+        int i = next++ % open;
+        queue.remove(queued[i]);
+        queued[i] = new long[] { deadline(next), i };
+        queue.add(queued[i]);
+        return queue.peek()[0];
+    }
+
+    private static long deadline(int n) {
+        return 30_000 + (n % 360) * 250L;
+    }
+
+    @Benchmark
+    public int wheelAdvanceOneSecond() {
+        due.clear();
+        now += 1000;
+        wheel.advance(now, due);
+        for (TimingWheel.Entry<String> e : due) {
+            wheel.schedule(e.key, e.value, now + 30_000);
+        }
+        return due.size();
+    }
+}
@@ -0,0 +1,221 @@
+package com.mozoqr.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * API de Laravel de juguete para la simulación: las rutas que usa la app
+ * nativa sin la WebView ({@link CallOutbox} y la autorización de canales
+ * privados), con una demora y una tasa de errores 503 configurables.
+ *
+ * El primer "Voy" confirmado de cada llamada se avisa al {@link Listener},
+ * que hace de backend: manda el push de atendida y el evento de tiempo real.
+ */
+final class ApiStandIn implements AutoCloseable {
+    private static final Pattern CALL_ACTION = Pattern.compile("/api/waiter/calls/([^/]+)/(acknowledge|complete)");
+    private static final Pattern BEARER = Pattern.compile("Bearer waiter-(\\d+)");
+
+    interface Listener {
+        /** Desde un hilo del servidor, con la respuesta todavía sin mandar. */
+        void onAcknowledged(String callId, int waiter);
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final double errorRate;
+    private final long latencyMs;
+    private final Random random;
+    private final Listener listener;
+
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> acknowledged = new ConcurrentHashMap<>();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    ApiStandIn(double errorRate, long latencyMs, long seed, Listener listener) throws IOException {
+        this.errorRate = errorRate;
+        this.latencyMs = latencyMs;
+        this.random = new Random(seed);
+        this.listener = listener;
+        AtomicInteger threads = new AtomicInteger();
+        // Como un pool de php-fpm chico: con muchos pedidos juntos se hace cola
+        this.executor = Executors.newFixedThreadPool(8, r -> {
+            Thread t = new Thread(r, "ApiStandIn-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    String authEndpoint() {
+        return baseUrl() + "/broadcasting/auth";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long started = System.nanoTime();
+        int now = inFlight.incrementAndGet();
+        int prev;
+        while (now > (prev = maxInFlight.get()) && !maxInFlight.compareAndSet(prev, now)) {
+            // reintentar
+        }
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String body = read(exchange.getRequestBody());
+            Matcher call = CALL_ACTION.matcher(path);
+            String route = call.matches() ? "waiter/calls/" + call.group(2)
+                    : path.endsWith("/device-token") ? "device-token"
+                    : path.endsWith("/broadcasting/auth") ? "broadcasting/auth"
+                    : "other";
+            count(requests, route);
+
+            pause();
+            if (route.equals("other") || !"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 404, "{\"message\":\"Not Found\"}");
+                return;
+            }
+            if (failNow()) {
+                count(errors, route);
+                respond(exchange, 503, "{\"message\":\"Service Unavailable\"}");
+                return;
+            }
+            Matcher bearer = BEARER.matcher(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            if (!bearer.find()) {
+                count(errors, route);
+                respond(exchange, 401, "{\"message\":\"Unauthenticated.\"}");
+                return;
+            }
+            switch (route) {
+                case "broadcasting/auth":
+                    String socketId = formValue(body, "socket_id");
+                    respond(exchange, 200, "{\"auth\":\"mozo-key:" + socketId + "\"}");
+                    return;
+                case "waiter/calls/acknowledge":
+                    String callId = call.group(1);
+                    if (acknowledged.putIfAbsent(callId, Boolean.TRUE) == null) {
+                        listener.onAcknowledged(callId, Integer.parseInt(bearer.group(1)));
+                    }
+                    respond(exchange, 200, "{\"success\":true}");
+                    return;
+                default:
+                    respond(exchange, 200, "{\"success\":true}");
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            serviceTime.record((System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void pause() {
+        if (latencyMs <= 0) return;
+        long jittered;
+        synchronized (random) {
+            jittered = (long) (latencyMs * (0.5 + random.nextDouble()));
+        }
+        try {
+            Thread.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean failNow() {
+        synchronized (random) {
+            return random.nextDouble() < errorRate;
+        }
+    }
+
+    Map<String, Long> requests() {
+        return snapshot(requests);
+    }
+
+    Map<String, Long> errors() {
+        return snapshot(errors);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    LatencyHistogram serviceTime() {
+        return serviceTime;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void count(Map<String, AtomicLong> counters, String route) {
+        AtomicLong c = counters.get(route);
+        if (c == null) {
+            counters.putIfAbsent(route, new AtomicLong());
+            c = counters.get(route);
+        }
+        c.incrementAndGet();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, AtomicLong> counters) {
+        Map<String, Long> copy = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> e : counters.entrySet()) {
+            copy.put(e.getKey(), e.getValue().get());
+        }
+        return copy;
+    }
+
+    private static String formValue(String body, String name) {
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
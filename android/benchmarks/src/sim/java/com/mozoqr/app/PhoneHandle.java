@@ -0,0 +1,91 @@
+package com.mozoqr.app;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Del lado del simulador, un {@link SimPhone} cargado en su propio class
+ * loader sobre el mismo classpath. Sólo se pasan tipos de java.* entre los
+ * dos lados, que son lo único que comparten.
+ */
+final class PhoneHandle {
+    private final URLClassLoader loader;
+    private final Object phone;
+    private final Method push;
+    private final Method tap;
+    private final Method sample;
+    private final Method stats;
+    private final Method shutdown;
+
+    PhoneHandle(int id, Map<String, Object> config, BiConsumer<String, Map<String, Object>> out) throws Exception {
+        loader = new URLClassLoader("phone-" + id, classPath(), ClassLoader.getPlatformClassLoader());
+        Class<?> type = Class.forName(SimPhone.class.getName(), true, loader);
+        phone = construct(type, config, out);
+        push = type.getMethod("push", Map.class, String.class, long.class);
+        tap = type.getMethod("tap", int.class, String.class);
+        sample = type.getMethod("sample");
+        stats = type.getMethod("stats");
+        shutdown = type.getMethod("shutdown");
+    }
+
+    void push(Map<String, String> data, String messageId, long sentTimeMs) {
+        invoke(push, data, messageId, sentTimeMs);
+    }
+
+    void tap(int notificationId, String button) {
+        invoke(tap, notificationId, button);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> sample() {
+        return (Map<String, Object>) invoke(sample);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> stats() {
+        return (Map<String, Object>) invoke(stats);
+    }
+
+    void shutdown() {
+        invoke(shutdown);
+        try {
+            loader.close();
+        } catch (java.io.IOException ignored) {
+        }
+    }
+
+    private static Object construct(Class<?> type, Map<String, Object> config,
+                                    BiConsumer<String, Map<String, Object>> out) throws Exception {
+        try {
+            return type.getConstructor(Map.class, BiConsumer.class).newInstance(config, out);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private Object invoke(Method method, Object... args) {
+        try {
+            return method.invoke(phone, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static URL[] classPath() throws MalformedURLException {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            urls[i] = new File(entries[i]).toURI().toURL();
+        }
+        return urls;
+    }
+}
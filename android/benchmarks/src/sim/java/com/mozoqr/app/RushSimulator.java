@@ -0,0 +1,756 @@
+package com.mozoqr.app;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pico de cena simulado en la JVM: N mesas, M mozos con un teléfono cada uno
+ * ({@link SimPhone}, con las clases reales de la app), una API de Laravel
+ * ({@link ApiStandIn}) y un servidor Pusher ({@link VenueStandIn}) locales.
+ *
+ * El simulador hace de backend: por cada llamada de la {@link RushTrace}
+ * manda el evento de tiempo real a todos y, con la demora de FCM de la
+ * traza, el push al mozo de la mesa. También hace de mozo: cuando la
+ * llamada aparece en una notificación toca "Voy" después de su tiempo de
+ * reacción, y cuando la API confirma manda el push de atendida.
+ *
+ * Reporta el tiempo de push a notificación (desde que el backend manda y
+ * desde que el push llega al teléfono), llamadas que nunca se notificaron,
+ * notificaciones repetidas, el camino del "Voy" hasta la API, la
+ * recuperación de las caídas del tiempo real, el bridge, la profundidad de
+ * las colas y el uso de CPU por hilo.
+ *
+ * El tiempo de la traza se divide por {@code speed}, y con él los
+ * recordatorios; las ventanas del pipeline (agrupado y duplicados), los
+ * reintentos de la bandeja y el backoff del tiempo real son los reales.
+ *
+ * Con {@code batchMs > 0} el backend junta durante esa ventana (en tiempo
+ * de la traza) los eventos de cada mozo y los manda en un solo push
+ * compacto ({@link CallBatch}); con 0, un push de claves sueltas por
+ * evento. El reporte compara pushes por llamada, bytes por push y lo que
+ * cuesta cada push en el hilo de FCM.
+ *
+ * <pre>
+ * ./gradlew :benchmarks:rushSim -Psim.tables=60 -Psim.waiters=8 -Psim.speed=5
+ * </pre>
+ */
+public final class RushSimulator {
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("tables", "40");
+        DEFAULTS.put("waiters", "6");
+        DEFAULTS.put("minutes", "10");
+        DEFAULTS.put("speed", "10");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("callsPerTableHour", "12");
+        DEFAULTS.put("dupRatio", "0.08");
+        DEFAULTS.put("storms", "2");
+        DEFAULTS.put("apiErrorRate", "0.02");
+        DEFAULTS.put("apiLatencyMs", "80");
+        DEFAULTS.put("drainSeconds", "30");
+        DEFAULTS.put("batchMs", "0");
+    }
+
+    /** Lo que se sabe de una llamada de la traza. */
+    private static final class CallTrack {
+        final RushTrace.Event call;
+        final int phone;
+        final Map<String, String> data;
+        volatile long sentNanos;
+        volatile long deliveredNanos;
+        volatile long notifiedNanos;
+        volatile long tappedNanos;
+        volatile long ackedNanos;
+        /** El push que llevó la llamada, para repetirlo tal cual si FCM lo entrega dos veces. */
+        volatile Map<String, String> pushed;
+        // Protegidos por this
+        int seen;
+        boolean tapScheduled;
+
+        CallTrack(RushTrace.Event call, int phone) {
+            this.call = call;
+            this.phone = phone;
+            Map<String, String> d = new HashMap<>();
+            d.put("type", "new_call");
+            d.put("table_number", String.valueOf(call.table));
+            d.put("call_id", call.callId);
+            d.put("title", "🔔 Mesa " + call.table);
+            d.put("message", "La mesa " + call.table + " solicita un mozo");
+            this.data = Collections.unmodifiableMap(d);
+        }
+    }
+
+    /** Los eventos de un mozo que esperan para salir en un mismo push compacto. */
+    private static final class PendingBatch {
+        final long fcmMs;
+        final List<CallTrack> tracks = new ArrayList<>();
+        final List<Map<String, String>> events = new ArrayList<>();
+        final List<Long> timesMs = new ArrayList<>();
+
+        PendingBatch(long fcmMs) {
+            this.fcmMs = fcmMs;
+        }
+    }
+
+    /** Máximo y promedio de una cola muestreada. */
+    private static final class Gauge {
+        long max;
+        long sum;
+        long samples;
+
+        synchronized void add(long value) {
+            max = Math.max(max, value);
+            sum += value;
+            samples++;
+        }
+
+        synchronized JSONObject toJSON() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("max", max);
+            json.put("mean", samples == 0 ? 0 : round((double) sum / samples));
+            return json;
+        }
+    }
+
+    private final Map<String, String> params;
+    private final RushTrace trace;
+    private final String traceSource;
+    private final int waiters;
+    private final double speed;
+    private final long batchMs;
+
+    private final List<PhoneHandle> phones = new ArrayList<>();
+    private final Map<String, CallTrack> calls = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> shownCallIds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService backend = scheduler("FcmStandIn", 2);
+    private final ScheduledExecutorService waiterHands = scheduler("Waiters", 1);
+    private ApiStandIn api;
+    private VenueStandIn venue;
+
+    private final LatencyHistogram timeToNotify = new LatencyHistogram();
+    private final LatencyHistogram onDevice = new LatencyHistogram();
+    private final LatencyHistogram callToAck = new LatencyHistogram();
+    private final LatencyHistogram tapToAck = new LatencyHistogram();
+    private final LatencyHistogram realtimeLatency = new LatencyHistogram();
+    private final LatencyHistogram bridgeLatency = new LatencyHistogram();
+    private final LatencyHistogram stormRecovery = new LatencyHistogram();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong reminders = new AtomicLong();
+    private final AtomicLong duplicateNotifications = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+    private final AtomicLong duplicatePushes = new AtomicLong();
+    private final AtomicLong closingPushes = new AtomicLong();
+    private final AtomicLong taps = new AtomicLong();
+    private final AtomicLong phoneErrors = new AtomicLong();
+    private final AtomicInteger stormsUnrecovered = new AtomicInteger();
+    private final Map<String, Gauge> gauges = new TreeMap<>();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final Map<Integer, PendingBatch> pendingBatches = new HashMap<>();
+    private final Gauge payloadBytes = new Gauge();
+
+    private RushSimulator(Map<String, String> params) throws IOException {
+        this.params = params;
+        this.waiters = Integer.parseInt(params.get("waiters"));
+        this.speed = Double.parseDouble(params.get("speed"));
+        this.batchMs = Long.parseLong(params.get("batchMs"));
+        if (waiters < 1 || speed <= 0) {
+            throw new IllegalArgumentException("waiters >= 1 y speed > 0");
+        }
+        String tracePath = params.get("trace");
+        if (tracePath != null) {
+            trace = RushTrace.read(new File(tracePath));
+            traceSource = tracePath;
+        } else {
+            trace = RushTrace.generate(Integer.parseInt(params.get("tables")), Integer.parseInt(params.get("minutes")),
+                    Double.parseDouble(params.get("callsPerTableHour")), Double.parseDouble(params.get("dupRatio")),
+                    Integer.parseInt(params.get("storms")), Long.parseLong(params.get("seed")));
+            traceSource = "seed " + params.get("seed");
+        }
+        if (params.get("record") != null) {
+            trace.write(new File(params.get("record")));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Parámetro inválido (se espera nombre=valor): " + arg);
+            }
+            params.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        RushSimulator sim = new RushSimulator(params);
+        JSONObject report = sim.run();
+        String reportPath = params.get("report");
+        if (reportPath != null) {
+            File file = new File(reportPath);
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            Files.write(file.toPath(), report.toString(2).getBytes(StandardCharsets.UTF_8));
+            System.out.println("📄 Reporte: " + file);
+        }
+    }
+
+    private JSONObject run() throws Exception {
+        long seed = Long.parseLong(params.get("seed"));
+        api = new ApiStandIn(Double.parseDouble(params.get("apiErrorRate")), Long.parseLong(params.get("apiLatencyMs")),
+                seed, this::onAcknowledged);
+        venue = new VenueStandIn();
+        long startedNanos = System.nanoTime();
+        File root = Files.createTempDirectory("mozo-rush").toFile();
+        for (int i = 0; i < waiters; i++) {
+            Map<String, Object> config = new HashMap<>();
+            config.put("id", i);
+            config.put("dir", new File(root, "phone-" + i).getAbsolutePath());
+            config.put("apiUrl", api.baseUrl());
+            config.put("authUrl", api.authEndpoint());
+            config.put("venueUri", venue.uri().toString());
+            config.put("speed", speed);
+            int phone = i;
+            phones.add(new PhoneHandle(i, config, (kind, data) -> onPhoneEvent(phone, kind, data)));
+        }
+        if (!awaitSubscribed(30_000)) {
+            throw new IllegalStateException("Los teléfonos no se suscribieron al tiempo real");
+        }
+        System.out.println(String.format(Locale.US,
+                "🍽️ Pico simulado: %d mesas, %d mozos, %.1f min a x%s (%d llamadas, %d repetidas, %d caídas del tiempo real) · traza: %s",
+                trace.tables, waiters, trace.durationMs / 60_000.0, params.get("speed"), trace.count(RushTrace.Kind.CALL),
+                trace.count(RushTrace.Kind.DUP), trace.count(RushTrace.Kind.STORM), traceSource));
+
+        Thread sampler = new Thread(this::sampleLoop, "Sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long rushStarted = System.nanoTime();
+        for (RushTrace.Event e : trace.events) {
+            backend.schedule(() -> fire(e), (long) (e.atMs / speed), TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep((long) (trace.durationMs / speed));
+        long rushWallMs = (System.nanoTime() - rushStarted) / 1_000_000;
+        long drainWallMs = drain(Long.parseLong(params.get("drainSeconds")) * 1000);
+
+        sampler.interrupt();
+        sampler.join();
+        JSONObject report = report(rushWallMs, drainWallMs, (System.nanoTime() - startedNanos) / 1_000_000);
+
+        backend.shutdownNow();
+        waiterHands.shutdownNow();
+        for (PhoneHandle phone : phones) {
+            phone.shutdown();
+        }
+        api.close();
+        venue.close();
+        return report;
+    }
+
+    // --- backend ---
+
+    private void fire(RushTrace.Event e) {
+        switch (e.kind) {
+            case CALL:
+                CallTrack track = new CallTrack(e, (e.table - 1) % waiters);
+                calls.put(e.callId, track);
+                track.sentNanos = System.nanoTime();
+                venue.broadcast(SimPhone.BUSINESS_CHANNEL, "waiter.call", "{\"table_number\":" + e.table
+                        + ",\"call_id\":\"" + e.callId + "\",\"sent_nanos\":" + track.sentNanos + "}");
+                send(track, track.data, e.fcmMs);
+                break;
+            case DUP:
+                CallTrack original = calls.get(e.callId);
+                if (original == null) break;
+                Map<String, String> pushed = original.pushed;
+                if (pushed == null) {
+                    // Su lote todavía no salió: FCM no puede repetir lo que no mandó
+                    backend.schedule(() -> fire(e), (long) (batchMs / speed) + 1, TimeUnit.MILLISECONDS);
+                    break;
+                }
+                duplicatePushes.incrementAndGet();
+                deliverLater(Collections.singletonList(original), pushed, e.fcmMs);
+                break;
+            default:
+                storm();
+        }
+    }
+
+    /** Un push por evento, o el evento al lote compacto del mozo si {@code batchMs > 0}. */
+    private void send(CallTrack track, Map<String, String> data, long fcmMs) {
+        if (batchMs <= 0) {
+            if (data == track.data) track.pushed = data;
+            deliverLater(Collections.singletonList(track), data, fcmMs);
+            return;
+        }
+        synchronized (pendingBatches) {
+            PendingBatch batch = pendingBatches.get(track.phone);
+            if (batch == null) {
+                batch = new PendingBatch(fcmMs);
+                pendingBatches.put(track.phone, batch);
+                int phone = track.phone;
+                backend.schedule(() -> flushBatch(phone), (long) (batchMs / speed), TimeUnit.MILLISECONDS);
+            }
+            batch.tracks.add(track);
+            batch.events.add(data);
+            batch.timesMs.add(System.currentTimeMillis());
+        }
+    }
+
+    private void flushBatch(int phone) {
+        PendingBatch batch;
+        synchronized (pendingBatches) {
+            batch = pendingBatches.remove(phone);
+        }
+        if (batch == null) return;
+        CallBatch.Writer writer = new CallBatch.Writer();
+        for (int i = 0; i < batch.events.size(); i++) {
+            Map<String, String> e = batch.events.get(i);
+            writer.add(e.get("call_id"), e.get("table_number"), e.get("type"), batch.timesMs.get(i), null,
+                    e.get("title"), e.get("message"));
+        }
+        Map<String, String> data = Collections.singletonMap(CallBatch.DATA_KEY, writer.encode());
+        for (int i = 0; i < batch.tracks.size(); i++) {
+            CallTrack track = batch.tracks.get(i);
+            if (batch.events.get(i) == track.data) track.pushed = data;
+        }
+        deliverLater(batch.tracks, data, batch.fcmMs);
+    }
+
+    private void deliverLater(List<CallTrack> tracks, Map<String, String> data, long fcmMs) {
+        long sentWallMs = System.currentTimeMillis();
+        backend.schedule(() -> {
+            long now = System.nanoTime();
+            for (CallTrack track : tracks) {
+                if (track.deliveredNanos == 0) track.deliveredNanos = now;
+            }
+            pushes.incrementAndGet();
+            payloadBytes.add(payloadSize(data));
+            phones.get(tracks.get(0).phone).push(data, "0:" + messageIds.incrementAndGet() + "%sim", sentWallMs);
+        }, fcmMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Bytes de claves y valores del mensaje de datos, lo que cuenta para el límite de 4 KB de FCM. */
+    private static long payloadSize(Map<String, String> data) {
+        long bytes = 0;
+        for (Map.Entry<String, String> e : data.entrySet()) {
+            bytes += e.getKey().getBytes(StandardCharsets.UTF_8).length + e.getValue().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    /** La API confirmó el primer "Voy": el backend avisa por push y por tiempo real. */
+    private void onAcknowledged(String callId, int waiter) {
+        CallTrack track = calls.get(callId);
+        if (track == null) return;
+        long now = System.nanoTime();
+        track.ackedNanos = now;
+        callToAck.record((now - track.sentNanos) / 1_000_000);
+        if (track.tappedNanos != 0) {
+            tapToAck.record((now - track.tappedNanos) / 1_000_000);
+        }
+        Map<String, String> data = new HashMap<>(track.data);
+        data.put("type", "call_acknowledged");
+        data.put("message", "Mesa " + track.call.table + " atendida");
+        closingPushes.incrementAndGet();
+        send(track, data, track.call.fcmMs);
+        venue.broadcast(SimPhone.BUSINESS_CHANNEL, "call.acknowledged", "{\"table_number\":" + track.call.table
+                + ",\"call_id\":\"" + callId + "\",\"sent_nanos\":" + now + "}");
+    }
+
+    /** Se cae el servidor de websockets: todos reconectan a la vez. */
+    private void storm() {
+        long droppedAt = System.nanoTime();
+        venue.dropAll();
+        Thread watch = new Thread(() -> {
+            long deadline = droppedAt + TimeUnit.SECONDS.toNanos(60);
+            while (venue.subscribers(SimPhone.BUSINESS_CHANNEL) < waiters) {
+                if (System.nanoTime() > deadline) {
+                    stormsUnrecovered.incrementAndGet();
+                    return;
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            stormRecovery.record((System.nanoTime() - droppedAt) / 1_000_000);
+        }, "StormWatch");
+        watch.setDaemon(true);
+        watch.start();
+    }
+
+    // --- teléfonos y mozos ---
+
+    @SuppressWarnings("unchecked")
+    private void onPhoneEvent(int phone, String kind, Map<String, Object> data) {
+        switch (kind) {
+            case "notify":
+                onNotify(phone, (Long) data.get("nanos"), (Integer) data.get("id"), (Boolean) data.get("reminder"),
+                        (List<String>) data.get("callIds"));
+                break;
+            case "bridge":
+                bridgeLatency.record((Long) data.get("ms"));
+                break;
+            case "realtime":
+                realtimeLatency.record((Long) data.get("ms"));
+                break;
+            default:
+                phoneErrors.incrementAndGet();
+                System.err.println("⚠️ Teléfono " + phone + ": " + data);
+        }
+    }
+
+    private void onNotify(int phone, long now, int notificationId, boolean reminder, List<String> callIds) {
+        notifications.incrementAndGet();
+        if (reminder) reminders.incrementAndGet();
+        shownCallIds.put(phone + ":" + notificationId, callIds);
+        boolean fresh = false;
+        for (String callId : callIds) {
+            CallTrack track = calls.get(callId);
+            if (track == null) continue;
+            synchronized (track) {
+                if (track.notifiedNanos == 0) {
+                    track.notifiedNanos = now;
+                    fresh = true;
+                    timeToNotify.record((now - track.sentNanos) / 1_000_000);
+                    if (track.deliveredNanos != 0) {
+                        onDevice.record((now - track.deliveredNanos) / 1_000_000);
+                    }
+                }
+                if (track.tapScheduled || ++track.seen <= track.call.ignored) continue;
+                track.tapScheduled = true;
+            }
+            waiterHands.schedule(() -> tap(phone, notificationId), (long) (track.call.reactMs / speed), TimeUnit.MILLISECONDS);
+        }
+        // Sonó de nuevo sin nada nuevo que mostrar
+        if (!fresh && !reminder) duplicateNotifications.incrementAndGet();
+    }
+
+    /** "Voy" sobre la notificación tal como está ahora: atiende todas sus llamadas. */
+    private void tap(int phone, int notificationId) {
+        List<String> callIds = shownCallIds.get(phone + ":" + notificationId);
+        if (callIds == null) return;
+        long now = System.nanoTime();
+        boolean pending = false;
+        for (String callId : callIds) {
+            CallTrack track = calls.get(callId);
+            if (track != null && track.tappedNanos == 0) {
+                track.tappedNanos = now;
+                pending = true;
+            }
+        }
+        if (!pending) return;
+        taps.incrementAndGet();
+        phones.get(phone).tap(notificationId, "Voy");
+    }
+
+    // --- medición ---
+
+    private boolean awaitSubscribed(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (venue.subscribers(SimPhone.BUSINESS_CHANNEL) < waiters) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /** Espera a que se confirmen las llamadas que quedaron abiertas al final del pico. */
+    private long drain(long timeoutMs) throws InterruptedException {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (System.nanoTime() < deadline) {
+            boolean open = false;
+            for (CallTrack track : calls.values()) {
+                if (track.ackedNanos == 0) {
+                    open = true;
+                    break;
+                }
+            }
+            if (!open) break;
+            Thread.sleep(50);
+        }
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private void sampleLoop() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        while (!Thread.currentThread().isInterrupted()) {
+            for (PhoneHandle phone : phones) {
+                for (Map.Entry<String, Object> e : phone.sample().entrySet()) {
+                    gauge(e.getKey()).add(((Number) e.getValue()).longValue());
+                }
+            }
+            gauge("api.inFlight").add(api.inFlight());
+            gauge("jvm.threads").add(threads.getThreadCount());
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private synchronized Gauge gauge(String name) {
+        Gauge g = gauges.get(name);
+        if (g == null) {
+            g = new Gauge();
+            gauges.put(name, g);
+        }
+        return g;
+    }
+
+    // --- reporte ---
+
+    private JSONObject report(long rushWallMs, long drainWallMs, long totalWallMs) throws JSONException {
+        int notNotified = 0;
+        int unacked = 0;
+        JSONArray missed = new JSONArray();
+        for (CallTrack track : calls.values()) {
+            if (track.notifiedNanos == 0) {
+                notNotified++;
+                if (missed.length() < 20) missed.put(track.call.callId);
+            }
+            if (track.ackedNanos == 0) unacked++;
+        }
+
+        Map<String, Long> phoneTotals = new TreeMap<>();
+        JSONArray perPhone = new JSONArray();
+        for (PhoneHandle phone : phones) {
+            Map<String, Object> stats = phone.stats();
+            JSONObject json = new JSONObject();
+            for (Map.Entry<String, Object> e : stats.entrySet()) {
+                long value = ((Number) e.getValue()).longValue();
+                json.put(e.getKey(), value);
+                Long total = phoneTotals.get(e.getKey());
+                phoneTotals.put(e.getKey(), total == null ? value : total + value);
+            }
+            perPhone.put(json);
+        }
+
+        JSONObject config = new JSONObject();
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            if (!e.getKey().equals("report")) config.put(e.getKey(), e.getValue());
+        }
+
+        JSONObject traceJson = new JSONObject();
+        traceJson.put("source", traceSource);
+        traceJson.put("tables", trace.tables);
+        traceJson.put("durationMs", trace.durationMs);
+        traceJson.put("calls", trace.count(RushTrace.Kind.CALL));
+        traceJson.put("duplicatePushes", trace.count(RushTrace.Kind.DUP));
+        traceJson.put("storms", trace.count(RushTrace.Kind.STORM));
+
+        JSONObject notify = new JSONObject();
+        notify.put("timeToNotify", histogram(timeToNotify));
+        notify.put("onDevice", histogram(onDevice));
+        notify.put("pushes", pushes.get());
+        notify.put("closingPushes", closingPushes.get());
+        notify.put("notifications", notifications.get());
+        notify.put("reminders", reminders.get());
+        notify.put("duplicateNotifications", duplicateNotifications.get());
+        notify.put("notNotified", notNotified);
+        notify.put("notNotifiedCallIds", missed);
+        notify.put("pipelineReceived", total(phoneTotals, "pipeline.received"));
+        notify.put("pipelineDuplicates", total(phoneTotals, "pipeline.duplicates"));
+        notify.put("pipelineDropped", total(phoneTotals, "pipeline.dropped"));
+
+        int callCount = trace.count(RushTrace.Kind.CALL);
+        long phonePushes = total(phoneTotals, "pushes");
+        long handleNanos = total(phoneTotals, "fcm.handleNanos");
+        JSONObject push = new JSONObject();
+        push.put("format", batchMs > 0 ? "compact" : "keyValue");
+        push.put("batchMs", batchMs);
+        push.put("pushes", pushes.get());
+        push.put("events", callCount + closingPushes.get());
+        push.put("perCall", callCount == 0 ? 0 : round((double) pushes.get() / callCount));
+        push.put("payloadBytes", payloadBytes.toJSON());
+        push.put("handleMicrosPerPush", phonePushes == 0 ? 0 : round(handleNanos / 1000.0 / phonePushes));
+        push.put("handleMicrosPerCall", callCount == 0 ? 0 : round(handleNanos / 1000.0 / callCount));
+
+        JSONObject ack = new JSONObject();
+        ack.put("taps", taps.get());
+        ack.put("callToAck", histogram(callToAck));
+        ack.put("tapToAck", histogram(tapToAck));
+        ack.put("unacknowledged", unacked);
+        ack.put("outboxRetries", total(phoneTotals, "actions.retries"));
+        ack.put("outboxDropped", total(phoneTotals, "actions.dropped"));
+
+        JSONObject realtime = new JSONObject();
+        realtime.put("storms", trace.count(RushTrace.Kind.STORM));
+        realtime.put("stormRecovery", histogram(stormRecovery));
+        realtime.put("stormsUnrecovered", stormsUnrecovered.get());
+        realtime.put("connections", venue.connections());
+        realtime.put("subscriptions", venue.subscriptions());
+        realtime.put("broadcasts", venue.broadcasts());
+        realtime.put("expectedDeliveries", venue.broadcasts() * waiters);
+        realtime.put("received", total(phoneTotals, "realtime.events"));
+        realtime.put("lost", venue.broadcasts() * waiters - total(phoneTotals, "realtime.events"));
+        realtime.put("latency", histogram(realtimeLatency));
+
+        JSONObject bridge = new JSONObject();
+        bridge.put("calls", total(phoneTotals, "bridge.calls"));
+        bridge.put("responses", total(phoneTotals, "bridge.responses"));
+        bridge.put("roundTrip", histogram(bridgeLatency));
+
+        JSONObject apiJson = new JSONObject();
+        apiJson.put("requests", new JSONObject(new HashMap<>(api.requests())));
+        apiJson.put("errors", new JSONObject(new HashMap<>(api.errors())));
+        apiJson.put("maxInFlight", api.maxInFlight());
+        apiJson.put("serviceTime", histogram(api.serviceTime()));
+
+        JSONObject queues = new JSONObject();
+        synchronized (this) {
+            for (Map.Entry<String, Gauge> e : gauges.entrySet()) {
+                queues.put(e.getKey(), e.getValue().toJSON());
+            }
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("config", config);
+        report.put("trace", traceJson);
+        report.put("wall", new JSONObject().put("rushMs", rushWallMs).put("drainMs", drainWallMs).put("totalMs", totalWallMs));
+        report.put("notify", notify);
+        report.put("push", push);
+        report.put("ack", ack);
+        report.put("realtime", realtime);
+        report.put("bridge", bridge);
+        report.put("api", apiJson);
+        report.put("queues", queues);
+        report.put("threads", threads(totalWallMs));
+        report.put("phoneErrors", phoneErrors.get());
+        report.put("phones", perPhone);
+
+        printSummary(report);
+        return report;
+    }
+
+    /** CPU por nombre de hilo, sumando los teléfonos: cuánto de su tiempo estuvo ocupado cada uno. */
+    private JSONObject threads(long wallMs) throws JSONException {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Map<String, long[]> byName = new HashMap<>();
+        if (mx.isThreadCpuTimeSupported()) {
+            for (ThreadInfo info : mx.getThreadInfo(mx.getAllThreadIds())) {
+                if (info == null) continue;
+                long cpu = mx.getThreadCpuTime(info.getThreadId());
+                if (cpu < 0) continue;
+                String name = info.getThreadName().replaceAll("-\\d+$", "");
+                long[] acc = byName.get(name);
+                if (acc == null) {
+                    acc = new long[3];
+                    byName.put(name, acc);
+                }
+                acc[0]++;
+                acc[1] += cpu / 1_000_000;
+                acc[2] = Math.max(acc[2], cpu / 1_000_000);
+            }
+        }
+        List<Map.Entry<String, long[]>> sorted = new ArrayList<>(byName.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        JSONArray busiest = new JSONArray();
+        for (Map.Entry<String, long[]> e : sorted) {
+            if (busiest.length() == 15) break;
+            long[] acc = e.getValue();
+            busiest.put(new JSONObject()
+                    .put("name", e.getKey())
+                    .put("threads", acc[0])
+                    .put("cpuMs", acc[1])
+                    .put("busyPercent", round(100.0 * acc[1] / acc[0] / Math.max(1, wallMs)))
+                    .put("maxBusyPercent", round(100.0 * acc[2] / Math.max(1, wallMs))));
+        }
+        JSONObject json = new JSONObject();
+        json.put("cores", Runtime.getRuntime().availableProcessors());
+        json.put("peak", mx.getPeakThreadCount());
+        json.put("busiest", busiest);
+        return json;
+    }
+
+    private void printSummary(JSONObject r) throws JSONException {
+        JSONObject notify = r.getJSONObject("notify");
+        JSONObject ack = r.getJSONObject("ack");
+        JSONObject realtime = r.getJSONObject("realtime");
+        JSONObject queues = r.getJSONObject("queues");
+        System.out.println("⏱️ Push → notificación: " + timeToNotify + " | en el teléfono: " + onDevice);
+        JSONObject push = r.getJSONObject("push");
+        JSONObject bytes = push.getJSONObject("payloadBytes");
+        System.out.println("📨 Pushes: " + push.getLong("pushes") + " (" + push.getString("format")
+                + (batchMs > 0 ? " cada " + batchMs + "ms" : "") + "), " + push.getDouble("perCall")
+                + " por llamada · " + bytes.get("mean") + " bytes de media, máx " + bytes.getLong("max")
+                + " · hilo de FCM " + push.getDouble("handleMicrosPerPush") + " µs por push, "
+                + push.getDouble("handleMicrosPerCall") + " µs por llamada");
+        System.out.println("🔔 Notificaciones: " + notify.getLong("notifications") + " (" + notify.getLong("reminders")
+                + " recordatorios, " + notify.getLong("duplicateNotifications") + " repetidas) · sin notificar: "
+                + notify.getInt("notNotified") + " · descartadas por cola llena: " + notify.getLong("pipelineDropped"));
+        System.out.println("✅ Llamada → \"Voy\" en la API: " + callToAck + " | toque → API: " + tapToAck
+                + " · sin confirmar: " + ack.getInt("unacknowledged") + " · reintentos: " + ack.getLong("outboxRetries"));
+        System.out.println("📡 Tiempo real: " + realtime.getInt("storms") + " caídas, recuperación " + stormRecovery
+                + " · eventos perdidos " + realtime.getLong("lost") + " de " + realtime.getLong("expectedDeliveries"));
+        System.out.println("🌉 Bridge getEventsSince: " + bridgeLatency);
+        StringBuilder q = new StringBuilder("📦 Colas (máx):");
+        for (String name : new String[] {"pipeline", "fcm", "main", "javaBridge", "lane", "outbox", "api.inFlight"}) {
+            if (queues.has(name)) q.append(' ').append(name).append('=').append(queues.getJSONObject(name).getLong("max"));
+        }
+        System.out.println(q);
+        JSONObject threads = r.getJSONObject("threads");
+        StringBuilder t = new StringBuilder("🧵 Hilos: pico " + threads.getInt("peak") + " en " + threads.getInt("cores")
+                + " núcleo(s); más ocupados:");
+        JSONArray busiest = threads.getJSONArray("busiest");
+        for (int i = 0; i < Math.min(5, busiest.length()); i++) {
+            JSONObject b = busiest.getJSONObject(i);
+            t.append(' ').append(b.getString("name")).append(' ').append(b.getDouble("busyPercent")).append(" %");
+            if (i < Math.min(5, busiest.length()) - 1) t.append(',');
+        }
+        System.out.println(t);
+    }
+
+    private static JSONObject histogram(LatencyHistogram h) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("count", h.count());
+        json.put("mean", h.mean());
+        json.put("p50", h.percentile(50));
+        json.put("p90", h.percentile(90));
+        json.put("p99", h.percentile(99));
+        json.put("max", h.max());
+        return json;
+    }
+
+    private static long total(Map<String, Long> totals, String key) {
+        Long v = totals.get(key);
+        return v == null ? 0 : v;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+
+    private static ScheduledExecutorService scheduler(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
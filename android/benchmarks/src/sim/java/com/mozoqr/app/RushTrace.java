@@ -0,0 +1,217 @@
+package com.mozoqr.app;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Traza de un pico de cena: qué mesa llama y cuándo, cuánto tarda FCM en
+ * entregar cada push, cuánto tarda el mozo en tocar "Voy", qué pushes llegan
+ * repetidos y cuándo se le cae el tiempo real a todos a la vez.
+ *
+ * Se genera desde una semilla o se lee de un archivo, así una corrida que
+ * mostró un problema se repite tal cual. Una línea por evento, separada por
+ * tabs, con el tiempo en ms desde el comienzo del pico en hora del local
+ * (antes de aplicar la velocidad de la simulación):
+ *
+ * <pre>
+ * t  CALL   mesa  callId  fcmMs  reactMs  ignora
+ * t  DUP    callId  fcmMs
+ * t  STORM
+ * </pre>
+ *
+ * {@code fcmMs} es la demora de entrega de FCM y no se acelera;
+ * {@code ignora} es cuántas notificaciones de esa llamada deja pasar el mozo
+ * antes de reaccionar.
+ */
+final class RushTrace {
+    static final String HEADER = "# mozo-rush v1";
+
+    enum Kind { CALL, DUP, STORM }
+
+    static final class Event {
+        final long atMs;
+        final Kind kind;
+        final int table;
+        final String callId;
+        final long fcmMs;
+        final long reactMs;
+        final int ignored;
+
+        Event(long atMs, Kind kind, int table, String callId, long fcmMs, long reactMs, int ignored) {
+            this.atMs = atMs;
+            this.kind = kind;
+            this.table = table;
+            this.callId = callId;
+            this.fcmMs = fcmMs;
+            this.reactMs = reactMs;
+            this.ignored = ignored;
+        }
+    }
+
+    /** Fracción de las llamadas que arrastra a las mesas vecinas (llegó un plato a todas). */
+    private static final double BURST_RATIO = 0.15;
+    /** Fracción de las mesas que vuelven a llamar porque nadie vino. */
+    private static final double IMPATIENT_RATIO = 0.10;
+    /** Pushes que FCM demora segundos (Doze, cola del lado de Google). */
+    private static final double SLOW_PUSH_RATIO = 0.01;
+
+    final List<Event> events;
+    final int tables;
+    final long durationMs;
+
+    private RushTrace(List<Event> events, int tables, long durationMs) {
+        this.events = events;
+        this.tables = tables;
+        this.durationMs = durationMs;
+    }
+
+    int count(Kind kind) {
+        int n = 0;
+        for (Event e : events) {
+            if (e.kind == kind) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Un pico con forma de campana: arranca a un cuarto del ritmo máximo,
+     * llega al máximo a mitad del servicio y vuelve a bajar.
+     *
+     * @param callsPerTableHour llamadas por mesa y por hora, en promedio sobre todo el pico
+     * @param dupRatio fracción de pushes que FCM o el backend entregan dos veces
+     */
+    static RushTrace generate(int tables, int minutes, double callsPerTableHour, double dupRatio, int storms, long seed) {
+        Random random = new Random(seed);
+        long durationMs = minutes * 60_000L;
+        // La campana promedia 0.625 del máximo
+        double peakPerMs = tables * callsPerTableHour / 3_600_000.0 / 0.625;
+        List<Event> events = new ArrayList<>();
+
+        double t = 0;
+        while (true) {
+            t += -Math.log(1 - random.nextDouble()) / peakPerMs;
+            if (t >= durationMs) break;
+            double s = Math.sin(Math.PI * t / durationMs);
+            if (random.nextDouble() > 0.25 + 0.75 * s * s) continue;
+
+            int table = 1 + random.nextInt(tables);
+            call(events, random, (long) t, table, dupRatio);
+            if (random.nextDouble() < BURST_RATIO) {
+                int neighbours = 2 + random.nextInt(5);
+                for (int i = 1; i <= neighbours; i++) {
+                    call(events, random, (long) t + random.nextInt(1500), 1 + (table + i - 1) % tables, dupRatio);
+                }
+            }
+            if (random.nextDouble() < IMPATIENT_RATIO) {
+                call(events, random, (long) t + 5_000 + random.nextInt(15_000), table, dupRatio);
+            }
+        }
+        for (int i = 0; i < storms; i++) {
+            long at = (long) (durationMs * (0.1 + 0.8 * random.nextDouble()));
+            events.add(new Event(at, Kind.STORM, 0, "", 0, 0, 0));
+        }
+
+        // Los repetidos y las mesas impacientes pueden caer después del final
+        events.removeIf(e -> e.atMs >= durationMs);
+        Collections.sort(events, Comparator.comparingLong(e -> e.atMs));
+        return new RushTrace(events, tables, durationMs);
+    }
+
+    private static void call(List<Event> events, Random random, long at, int table, double dupRatio) {
+        String callId = new UUID(random.nextLong(), random.nextLong()).toString();
+        // Mediana de 15 s hasta que el mozo toca "Voy"; a veces deja pasar el aviso
+        long react = Math.min(120_000, (long) (15_000 * Math.exp(0.5 * random.nextGaussian())));
+        double r = random.nextDouble();
+        int ignored = r < 0.85 ? 0 : r < 0.95 ? 1 : 2;
+        events.add(new Event(at, Kind.CALL, table, callId, fcmDelay(random), react, ignored));
+        if (random.nextDouble() < dupRatio) {
+            long dupAt = at + 200 + random.nextInt(45_000);
+            events.add(new Event(dupAt, Kind.DUP, table, callId, fcmDelay(random), 0, 0));
+        }
+    }
+
+    /** Mediana de 120 ms con cola larga. */
+    private static long fcmDelay(Random random) {
+        if (random.nextDouble() < SLOW_PUSH_RATIO) {
+            return 2_000 + random.nextInt(6_000);
+        }
+        return Math.min(5_000, (long) (120 * Math.exp(0.6 * random.nextGaussian())));
+    }
+
+    static RushTrace read(File file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        int tables = 0;
+        long end = 0;
+        long durationMs = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.startsWith(HEADER)) {
+                    for (String field : line.substring(HEADER.length()).trim().split(" ")) {
+                        if (field.startsWith("durationMs=")) durationMs = Long.parseLong(field.substring(11));
+                    }
+                }
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\t");
+                try {
+                    long at = Long.parseLong(f[0]);
+                    Kind kind = Kind.valueOf(f[1]);
+                    Event e;
+                    switch (kind) {
+                        case CALL:
+                            e = new Event(at, kind, Integer.parseInt(f[2]), f[3], Long.parseLong(f[4]),
+                                    Long.parseLong(f[5]), Integer.parseInt(f[6]));
+                            tables = Math.max(tables, e.table);
+                            break;
+                        case DUP:
+                            e = new Event(at, kind, 0, f[2], Long.parseLong(f[3]), 0, 0);
+                            break;
+                        default:
+                            e = new Event(at, kind, 0, "", 0, 0, 0);
+                    }
+                    events.add(e);
+                    end = Math.max(end, at);
+                } catch (RuntimeException ex) {
+                    throw new IOException(file + ":" + number + ": línea inválida: " + line, ex);
+                }
+            }
+        }
+        Collections.sort(events, Comparator.comparingLong(e -> e.atMs));
+        return new RushTrace(events, tables, Math.max(durationMs, end + 1));
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(String.format(Locale.US, "%s tables=%d durationMs=%d%n", HEADER, tables, durationMs));
+            for (Event e : events) {
+                switch (e.kind) {
+                    case CALL:
+                        out.write(e.atMs + "\tCALL\t" + e.table + "\t" + e.callId + "\t" + e.fcmMs + "\t"
+                                + e.reactMs + "\t" + e.ignored + "\n");
+                        break;
+                    case DUP:
+                        out.write(e.atMs + "\tDUP\t" + e.callId + "\t" + e.fcmMs + "\n");
+                        break;
+                    default:
+                        out.write(e.atMs + "\tSTORM\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.mozoqr.app;
+
+import android.app.AlarmManager;
+import android.app.NotificationManager;
+import android.app.job.JobScheduler;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * El contexto de aplicación de un teléfono simulado: sus directorios y sus
+ * servicios del sistema. Alarmas y jobs se entregan en el hilo principal
+ * del teléfono, como en Android.
+ */
+final class SimContext extends Context {
+    private final File filesDir;
+    private final File cacheDir;
+    private final ApplicationInfo info = new ApplicationInfo();
+    final NotificationManager notificationManager = new NotificationManager();
+    final AlarmManager alarmManager;
+    final JobScheduler jobScheduler;
+
+    SimContext(File dir, Executor main) {
+        this.filesDir = new File(dir, "files");
+        this.cacheDir = new File(dir, "cache");
+        filesDir.mkdirs();
+        cacheDir.mkdirs();
+        info.dataDir = dir.getPath();
+        this.alarmManager = new AlarmManager(main);
+        this.jobScheduler = new JobScheduler(this, main);
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        switch (name) {
+            case NOTIFICATION_SERVICE:
+                return notificationManager;
+            case ALARM_SERVICE:
+                return alarmManager;
+            case JOB_SCHEDULER_SERVICE:
+                return jobScheduler;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public ApplicationInfo getApplicationInfo() {
+        return info;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    @Override
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    @Override
+    public String getPackageName() {
+        return "com.mozoqr.app";
+    }
+
+    void shutdown() {
+        alarmManager.shutdown();
+        jobScheduler.shutdown();
+    }
+}
@@ -0,0 +1,341 @@
+package com.mozoqr.app;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.os.Looper;
+import android.webkit.ValueCallback;
+import android.webkit.WebView;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.MessageHandler;
+import com.getcapacitor.PluginCall;
+import com.google.firebase.messaging.RemoteMessage;
+
+import org.apache.cordova.PluginManager;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * El teléfono de un mozo dentro de la simulación, con las clases reales de
+ * la app: {@link MyFirebaseMessagingService} → {@link CallEventPipeline} →
+ * {@link CallNotifier}, los recordatorios de {@link EscalationScheduler}, el
+ * botón "Voy" por {@link CallActionReceiver} → {@link CallActions} → API, el
+ * {@link RealtimeChannel} y la WebView pidiendo el diario por
+ * {@link MessageHandler}.
+ *
+ * Cada teléfono se carga en su propio class loader ({@link PhoneHandle}), así
+ * los singletons de la app son suyos como si fuera otro proceso; con el
+ * simulador habla sólo con tipos de java.*. Los hilos son los de Android:
+ * "main" (receivers, alarmas, jobs y respuestas a la WebView), el de FCM,
+ * "JavaBridge" por donde entra lo que manda JS y la lane de plugins.
+ */
+public final class SimPhone {
+    static final String BUSINESS_CHANNEL = "private-business.1";
+    private static final String FROM_NATIVE = "window.Capacitor.fromNative(";
+    private static final Pattern SENT = Pattern.compile("\"sent_nanos\":(\\d+)");
+
+    private final BiConsumer<String, Map<String, Object>> out;
+    private final ThreadPoolExecutor main = singleThread("main");
+    private final ThreadPoolExecutor fcm = singleThread("Firebase-Messaging-Intent-Handle");
+    private final ThreadPoolExecutor javaBridge = singleThread("JavaBridge");
+    private final ThreadPoolExecutor lane = singleThread("CapacitorPlugins");
+    private final SimContext context;
+    private final MyFirebaseMessagingService service;
+    private final MessageHandler bridgeHandler;
+    private final RealtimeChannel realtime;
+
+    private final Map<Integer, Notification> posted = new ConcurrentHashMap<>();
+    private final Map<String, Long> bridgeCalls = new ConcurrentHashMap<>();
+    private final AtomicLong callbackIds = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+    private final AtomicLong handleNanos = new AtomicLong();
+    private final AtomicLong realtimeEvents = new AtomicLong();
+    private final AtomicLong bridgeResponses = new AtomicLong();
+    // Cursor del diario del lado de JS; protegido por this
+    private long journalId;
+    private long cursor;
+
+    /**
+     * @param config id, dir, apiUrl, authUrl, venueUri y speed (factor con el que
+     *               se aceleran los recordatorios)
+     * @param out    recibe "notify", "bridge" y "realtime" desde los hilos del teléfono
+     */
+    public SimPhone(Map<String, Object> config, BiConsumer<String, Map<String, Object>> out) {
+        this.out = out;
+        int id = ((Number) config.get("id")).intValue();
+        double speed = ((Number) config.get("speed")).doubleValue();
+        String sessionToken = "waiter-" + id;
+
+        // MessageBatcher entrega las respuestas a JS por frame, en el hilo principal
+        Looper.prepareMainLooper(main);
+        context = new SimContext(new File((String) config.get("dir")), main);
+        AppLog.init(context);
+        context.notificationManager.setListener(new NotificationManager.Listener() {
+            @Override
+            public void onNotify(int notificationId, Notification notification) {
+                posted.put(notificationId, notification);
+                out.accept("notify", describe(notificationId, notification));
+            }
+
+            @Override
+            public void onCancel(int notificationId) {
+                posted.remove(notificationId);
+            }
+        });
+
+        long[] steps = EscalationScheduler.DEFAULT_STEPS_MS.clone();
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = Math.max(EscalationScheduler.TICK_MS, (long) (steps[i] / speed));
+        }
+        EscalationScheduler.get(context).configure(true, steps);
+
+        service = new MyFirebaseMessagingService();
+        service.attach(context);
+        service.onCreate();
+        CallActions.get(context).configure((String) config.get("apiUrl"), sessionToken);
+        String fcmToken = String.format("fcm-%04d:APA91b-simulated-registration-token", id);
+        fcm.execute(() -> service.onNewToken(fcmToken));
+
+        Bridge bridge = new Bridge();
+        bridgeHandler = new MessageHandler(bridge, new SimWebView(), new PluginManager());
+        bridge.setTarget((pluginId, methodName, call) -> lane.execute(() -> getEventsSince(call)));
+
+        realtime = new RealtimeChannel(URI.create((String) config.get("venueUri")),
+                new RealtimeChannel.HttpAuthorizer((String) config.get("authUrl"), sessionToken), realtimeListener);
+        realtime.subscribe(BUSINESS_CHANNEL);
+        realtime.connect();
+    }
+
+    /** FCM entrega un push: lo atiende el hilo de Firebase, como en el dispositivo. */
+    public void push(Map<String, String> data, String messageId, long sentTimeMs) {
+        pushes.incrementAndGet();
+        RemoteMessage message = new RemoteMessage(messageId, new HashMap<>(data), null, sentTimeMs);
+        fcm.execute(() -> {
+            // Lo que cuesta el push en el hilo de FCM: decodificar y encolar
+            long started = System.nanoTime();
+            service.onMessageReceived(message);
+            handleNanos.addAndGet(System.nanoTime() - started);
+        });
+    }
+
+    /** El mozo toca un botón de la notificación publicada con ese id. */
+    public void tap(int notificationId, String button) {
+        main.execute(() -> {
+            Notification n = posted.get(notificationId);
+            if (n == null || n.actions == null) return;
+            for (Notification.Action action : n.actions) {
+                if (button.contentEquals(action.title)) {
+                    action.actionIntent.send();
+                    return;
+                }
+            }
+        });
+    }
+
+    /** Profundidad de las colas en este instante. */
+    public Map<String, Object> sample() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("pipeline", CallEventPipeline.get(context).queueDepth());
+        s.put("fcm", fcm.getQueue().size());
+        s.put("main", main.getQueue().size());
+        s.put("javaBridge", javaBridge.getQueue().size());
+        s.put("lane", lane.getQueue().size());
+        s.put("outbox", CallActions.get(context).pending());
+        return s;
+    }
+
+    /** Contadores de las clases de la app en este teléfono. */
+    public Map<String, Object> stats() {
+        CallEventPipeline pipeline = CallEventPipeline.get(context);
+        EscalationScheduler escalations = EscalationScheduler.get(context);
+        CallActions actions = CallActions.get(context);
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("pushes", pushes.get());
+        s.put("fcm.handleNanos", handleNanos.get());
+        s.put("pipeline.received", pipeline.received());
+        s.put("pipeline.duplicates", pipeline.duplicates());
+        s.put("pipeline.dropped", pipeline.dropped());
+        s.put("pipeline.notifications", pipeline.notifications());
+        s.put("pipeline.localP99", pipeline.localLatency().percentile(99));
+        s.put("escalation.pending", (long) escalations.pending());
+        s.put("escalation.wakeups", escalations.wakeups());
+        s.put("escalation.reminders", escalations.reminders());
+        s.put("escalation.alarmsArmed", escalations.alarmsArmed());
+        s.put("escalation.cancelled", escalations.cancelled());
+        s.put("actions.pending", (long) actions.pending());
+        s.put("actions.delivered", actions.delivered());
+        s.put("actions.dropped", actions.dropped());
+        s.put("actions.retries", actions.retries());
+        s.put("actions.ackP99", actions.ackLatency().percentile(99));
+        s.put("realtime.connects", realtime.connects());
+        s.put("realtime.events", realtimeEvents.get());
+        s.put("realtime.reconnectP99", realtime.reconnectLatency().percentile(99));
+        s.put("realtime.reconnectMax", realtime.reconnectLatency().max());
+        s.put("bridge.calls", callbackIds.get());
+        s.put("bridge.responses", bridgeResponses.get());
+        s.put("journal.size", (long) CallJournal.get(context).size());
+        s.put("log.written", AppLog.get().written());
+        s.put("log.dropped", AppLog.get().dropped());
+        return s;
+    }
+
+    public void shutdown() {
+        realtime.shutdown();
+        fcm.shutdownNow();
+        javaBridge.shutdownNow();
+        lane.shutdownNow();
+        main.shutdownNow();
+        context.shutdown();
+    }
+
+    private Map<String, Object> describe(int notificationId, Notification n) {
+        List<String> callIds = Collections.emptyList();
+        if (n.actions != null && n.actions.length > 0) {
+            String[] ids = n.actions[0].actionIntent.getIntent().getStringArrayExtra(CallActionReceiver.EXTRA_CALL_IDS);
+            if (ids != null) callIds = Arrays.asList(ids);
+        }
+        Map<String, Object> d = new HashMap<>();
+        d.put("nanos", System.nanoTime());
+        d.put("id", notificationId);
+        d.put("title", String.valueOf(n.title));
+        d.put("reminder", String.valueOf(n.title).startsWith("⏰"));
+        d.put("callIds", callIds);
+        return d;
+    }
+
+    // --- tiempo real y WebView ---
+
+    private final RealtimeChannel.Listener realtimeListener = new RealtimeChannel.Listener() {
+        @Override
+        public void onEvent(String channel, String event, String data, long receivedAtMs) {
+            long now = System.nanoTime();
+            realtimeEvents.incrementAndGet();
+            Matcher m = SENT.matcher(data);
+            if (m.find()) {
+                out.accept("realtime", Collections.singletonMap("ms", (now - Long.parseLong(m.group(1))) / 1_000_000));
+            }
+            // La pantalla del mozo se pone al día con el diario en cada evento
+            syncJournal();
+        }
+
+        @Override
+        public void onStateChanged(RealtimeChannel.State state) {}
+    };
+
+    /** Lo que hace JS: CallJournal.getEventsSince con el último cursor, por el bridge. */
+    private void syncJournal() {
+        javaBridge.execute(() -> {
+            long sinceJournal;
+            long sinceCursor;
+            synchronized (this) {
+                sinceJournal = journalId;
+                sinceCursor = cursor;
+            }
+            String callbackId = String.valueOf(callbackIds.incrementAndGet());
+            bridgeCalls.put(callbackId, System.nanoTime());
+            bridgeHandler.postMessage("{\"callbackId\":\"" + callbackId + "\",\"pluginId\":\"CallJournal\","
+                    + "\"methodName\":\"getEventsSince\",\"type\":\"message\",\"options\":{\"journalId\":"
+                    + sinceJournal + ",\"cursor\":" + sinceCursor + ",\"limit\":50}}");
+        });
+    }
+
+    /** El cuerpo de CallJournalPlugin.getEventsSince, en la lane del plugin. */
+    private void getEventsSince(PluginCall call) {
+        JSObject options = call.getData();
+        CallJournal.Delta delta = CallJournal.get(context)
+                .since(options.optLong("journalId", 0), options.optLong("cursor", 0), call.getInt("limit", 50));
+        JSArray events = new JSArray();
+        for (CallJournal.Entry e : delta.entries) {
+            JSObject event = new JSObject();
+            event.put("seq", e.seq);
+            event.put("callId", e.callId);
+            event.put("table", e.table);
+            event.put("type", e.type);
+            event.put("title", e.title);
+            event.put("body", e.body);
+            event.put("receivedAt", e.receivedAtMs);
+            events.put(event);
+        }
+        JSObject result = new JSObject();
+        result.put("journalId", delta.journalId);
+        result.put("cursor", delta.cursor);
+        result.put("reset", delta.reset);
+        result.put("more", delta.more);
+        result.put("events", events);
+        call.resolve(result);
+    }
+
+    /** Las respuestas llegan a JS en el hilo principal, una o varias por frame. */
+    private void onFromNative(String script) {
+        if (!script.startsWith(FROM_NATIVE)) return;
+        long now = System.nanoTime();
+        try {
+            String json = script.substring(FROM_NATIVE.length(), script.length() - 1);
+            if (json.startsWith("[")) {
+                JSONArray results = new JSONArray(json);
+                for (int i = 0; i < results.length(); i++) {
+                    onResult(results.getJSONObject(i), now);
+                }
+            } else {
+                onResult(new JSONObject(json), now);
+            }
+        } catch (Exception e) {
+            out.accept("error", Collections.singletonMap("message", String.valueOf(e)));
+        }
+    }
+
+    private void onResult(JSONObject response, long now) {
+        Long sentAt = bridgeCalls.remove(response.optString("callbackId"));
+        if (sentAt == null) return;
+        bridgeResponses.incrementAndGet();
+        out.accept("bridge", Collections.singletonMap("ms", (now - sentAt) / 1_000_000));
+        JSONObject data = response.optJSONObject("data");
+        if (data != null) {
+            synchronized (this) {
+                journalId = data.optLong("journalId", journalId);
+                cursor = Math.max(cursor, data.optLong("cursor", cursor));
+            }
+        }
+    }
+
+    /** Una WebView que entrega las respuestas del bridge a {@link #onFromNative}. */
+    private final class SimWebView extends WebView {
+        @Override
+        public boolean post(Runnable action) {
+            main.execute(action);
+            return true;
+        }
+
+        @Override
+        public void evaluateJavascript(String script, ValueCallback<String> resultCallback) {
+            onFromNative(script);
+        }
+    }
+
+    private static ThreadPoolExecutor singleThread(String name) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
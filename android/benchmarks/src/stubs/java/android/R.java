@@ -0,0 +1,13 @@
+package android;
+
+public final class R {
+
+    public static final class drawable {
+
+        public static final int ic_dialog_info = 0x01080027;
+
+        private drawable() {}
+    }
+
+    private R() {}
+}
@@ -0,0 +1,10 @@
+package android.app;
+
+import android.content.ContextWrapper;
+
+public class Activity extends ContextWrapper {
+
+    public Activity() {
+        super(null);
+    }
+}
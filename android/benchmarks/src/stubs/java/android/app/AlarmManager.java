@@ -0,0 +1,86 @@
+package android.app;
+
+import android.os.SystemClock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires alarms on {@link SystemClock#elapsedRealtime()} and hands the broadcast to an executor,
+ * the way the platform delivers it to the main thread. Setting an alarm replaces any alarm
+ * with a matching {@link PendingIntent}.
+ */
+public class AlarmManager {
+
+    public static final int ELAPSED_REALTIME_WAKEUP = 2;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "AlarmManager");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Executor delivery;
+    private final List<Alarm> alarms = new ArrayList<>();
+
+    private static final class Alarm {
+
+        final PendingIntent operation;
+        ScheduledFuture<?> future;
+
+        Alarm(PendingIntent operation) {
+            this.operation = operation;
+        }
+    }
+
+    public AlarmManager(Executor delivery) {
+        this.delivery = delivery;
+    }
+
+    public boolean canScheduleExactAlarms() {
+        return true;
+    }
+
+    public void setExactAndAllowWhileIdle(int type, long triggerAtMillis, PendingIntent operation) {
+        set(triggerAtMillis, operation);
+    }
+
+    public void setAndAllowWhileIdle(int type, long triggerAtMillis, PendingIntent operation) {
+        set(triggerAtMillis, operation);
+    }
+
+    public synchronized void cancel(PendingIntent operation) {
+        for (int i = alarms.size() - 1; i >= 0; i--) {
+            Alarm alarm = alarms.get(i);
+            if (alarm.operation.matches(operation)) {
+                alarm.future.cancel(false);
+                alarms.remove(i);
+            }
+        }
+    }
+
+    private synchronized void set(long triggerAtMillis, PendingIntent operation) {
+        cancel(operation);
+        Alarm alarm = new Alarm(operation);
+        long delay = Math.max(0, triggerAtMillis - SystemClock.elapsedRealtime());
+        alarm.future = timer.schedule(() -> fire(alarm), delay, TimeUnit.MILLISECONDS);
+        alarms.add(alarm);
+    }
+
+    private void fire(Alarm alarm) {
+        synchronized (this) {
+            if (!alarms.remove(alarm)) {
+                return;
+            }
+        }
+        delivery.execute(alarm.operation::send);
+    }
+
+    /** Not in the platform API: stops the timer thread. */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,31 @@
+package android.app;
+
+/** What the notifier built; the title and text fields stand in for the extras bundle. */
+public class Notification {
+
+    public static class Action {
+
+        public final CharSequence title;
+        public final PendingIntent actionIntent;
+
+        public Action(int icon, CharSequence title, PendingIntent intent) {
+            this.title = title;
+            this.actionIntent = intent;
+        }
+    }
+
+    public PendingIntent contentIntent;
+    public Action[] actions;
+    public int number;
+
+    /** Not in the platform API. */
+    public String channelId;
+    /** Not in the platform API. */
+    public CharSequence title;
+    /** Not in the platform API. */
+    public CharSequence text;
+
+    public String getChannelId() {
+        return channelId;
+    }
+}
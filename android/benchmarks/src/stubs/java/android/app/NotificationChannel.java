@@ -0,0 +1,22 @@
+package android.app;
+
+public final class NotificationChannel {
+
+    private final String id;
+
+    public NotificationChannel(String id, CharSequence name, int importance) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setDescription(String description) {}
+
+    public void enableLights(boolean lights) {}
+
+    public void setLightColor(int argb) {}
+
+    public void enableVibration(boolean vibration) {}
+}
@@ -0,0 +1,58 @@
+package android.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Keeps channels in memory and reports what gets posted to an optional {@link Listener}. */
+public class NotificationManager {
+
+    public static final int IMPORTANCE_HIGH = 4;
+
+    /** Not in the platform API: sees every notify and cancel, on the caller's thread. */
+    public interface Listener {
+        void onNotify(int id, Notification notification);
+
+        void onCancel(int id);
+    }
+
+    private final Map<String, NotificationChannel> channels = new ConcurrentHashMap<>();
+    private volatile Listener listener;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void notify(int id, Notification notification) {
+        Listener l = listener;
+        if (l != null) {
+            l.onNotify(id, notification);
+        }
+    }
+
+    public void cancel(int id) {
+        Listener l = listener;
+        if (l != null) {
+            l.onCancel(id);
+        }
+    }
+
+    public NotificationChannel getNotificationChannel(String channelId) {
+        return channels.get(channelId);
+    }
+
+    public List<NotificationChannel> getNotificationChannels() {
+        return new ArrayList<>(channels.values());
+    }
+
+    public void createNotificationChannel(NotificationChannel channel) {
+        channels.put(channel.getId(), channel);
+    }
+
+    public void createNotificationChannels(List<NotificationChannel> channels) {
+        for (NotificationChannel channel : channels) {
+            createNotificationChannel(channel);
+        }
+    }
+}
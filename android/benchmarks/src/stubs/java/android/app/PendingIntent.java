@@ -0,0 +1,64 @@
+package android.app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Remembers what it was created for; {@link #send()} runs broadcast receivers on the calling
+ * thread and ignores activities.
+ */
+public final class PendingIntent {
+
+    public static final int FLAG_UPDATE_CURRENT = 1 << 27;
+    public static final int FLAG_IMMUTABLE = 1 << 26;
+
+    private final Context context;
+    private final int requestCode;
+    private final Intent intent;
+    private final boolean broadcast;
+
+    private PendingIntent(Context context, int requestCode, Intent intent, boolean broadcast) {
+        this.context = context;
+        this.requestCode = requestCode;
+        this.intent = intent;
+        this.broadcast = broadcast;
+    }
+
+    public static PendingIntent getActivity(Context context, int requestCode, Intent intent, int flags) {
+        return new PendingIntent(context, requestCode, intent, false);
+    }
+
+    public static PendingIntent getBroadcast(Context context, int requestCode, Intent intent, int flags) {
+        return new PendingIntent(context, requestCode, intent, true);
+    }
+
+    /** Not in the platform API. */
+    public Intent getIntent() {
+        return intent;
+    }
+
+    /** Not in the platform API. */
+    public int getRequestCode() {
+        return requestCode;
+    }
+
+    /** Same target and request code, the way the platform matches pending intents. */
+    public boolean matches(PendingIntent other) {
+        return other != null && broadcast == other.broadcast && requestCode == other.requestCode
+                && intent.getComponentClass() == other.intent.getComponentClass();
+    }
+
+    public void send() {
+        if (!broadcast) {
+            return;
+        }
+        BroadcastReceiver receiver;
+        try {
+            receiver = (BroadcastReceiver) intent.getComponentClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        receiver.onReceive(context, intent);
+    }
+}
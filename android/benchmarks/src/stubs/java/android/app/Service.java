@@ -0,0 +1,20 @@
+package android.app;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+public abstract class Service extends ContextWrapper {
+
+    public Service() {
+        super(null);
+    }
+
+    /** Not in the public API: what the platform does before {@link #onCreate()}. */
+    public final void attach(Context base) {
+        attachBaseContext(base);
+    }
+
+    public void onCreate() {}
+
+    public void onDestroy() {}
+}
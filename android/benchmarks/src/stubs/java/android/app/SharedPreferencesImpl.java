@@ -0,0 +1,345 @@
+package android.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What {@link Context#getSharedPreferences} returns (not public on the platform), with the costs
+ * that matter when comparing stores: the whole XML file is parsed into memory when it is opened,
+ * and every commit() or apply() rewrites and syncs the whole file. apply() writes on a single
+ * background thread and skips a write that a newer apply() already supersedes; while a write is
+ * in flight the next edit copies the map first.
+ */
+public final class SharedPreferencesImpl implements SharedPreferences {
+
+    private static final Map<File, SharedPreferencesImpl> INSTANCES = new HashMap<>();
+    private static final ExecutorService QUEUED_WORK = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "QueuedWork");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Pattern ENTRY = Pattern.compile(
+        "<(string|int|long|boolean) name=\"([^\"]*)\"(?: value=\"([^\"]*)\" />|>(.*)</string>)"
+    );
+
+    private final File file;
+    private final File backup;
+    private final Object writeLock = new Object();
+
+    // Guarded by this
+    private Map<String, Object> map;
+    private int writesInFlight;
+    private long memoryGeneration;
+
+    // Guarded by writeLock
+    private long diskGeneration;
+
+    private static final class MemoryCommit {
+
+        final long generation;
+        final Map<String, Object> values;
+        boolean written;
+
+        MemoryCommit(long generation, Map<String, Object> values) {
+            this.generation = generation;
+            this.values = values;
+        }
+    }
+
+    /** The shared instance for a file, loading it the first time. */
+    public static SharedPreferencesImpl get(File file) {
+        synchronized (INSTANCES) {
+            SharedPreferencesImpl prefs = INSTANCES.get(file);
+            if (prefs == null) {
+                prefs = new SharedPreferencesImpl(file);
+                INSTANCES.put(file, prefs);
+            }
+            return prefs;
+        }
+    }
+
+    /** Forget the shared instance for a file once its queued writes are done. */
+    public static void evict(File file) {
+        SharedPreferencesImpl prefs;
+        synchronized (INSTANCES) {
+            prefs = INSTANCES.remove(file);
+        }
+        if (prefs != null) {
+            awaitQueuedWork();
+        }
+    }
+
+    /** Loads the file; a new instance on the same file is what a cold start pays. */
+    public SharedPreferencesImpl(File file) {
+        this.file = file;
+        this.backup = new File(file.getPath() + ".bak");
+        this.map = load();
+    }
+
+    @Override
+    public synchronized Map<String, ?> getAll() {
+        return new HashMap<>(map);
+    }
+
+    @Override
+    public synchronized String getString(String key, String defValue) {
+        String v = (String) map.get(key);
+        return v != null ? v : defValue;
+    }
+
+    @Override
+    public synchronized int getInt(String key, int defValue) {
+        Integer v = (Integer) map.get(key);
+        return v != null ? v : defValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defValue) {
+        Long v = (Long) map.get(key);
+        return v != null ? v : defValue;
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defValue) {
+        Boolean v = (Boolean) map.get(key);
+        return v != null ? v : defValue;
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new EditorImpl();
+    }
+
+    private final class EditorImpl implements Editor {
+
+        private final Map<String, Object> modified = new HashMap<>();
+        private boolean clear;
+
+        @Override
+        public synchronized Editor putString(String key, String value) {
+            modified.put(key, value != null ? value : this);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putInt(String key, int value) {
+            modified.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putLong(String key, long value) {
+            modified.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putBoolean(String key, boolean value) {
+            modified.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor remove(String key) {
+            // The editor itself marks a removal, as on the platform
+            modified.put(key, this);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            MemoryCommit commit = commitToMemory(this);
+            writeToDisk(commit, true);
+            return commit.written;
+        }
+
+        @Override
+        public void apply() {
+            MemoryCommit commit = commitToMemory(this);
+            QUEUED_WORK.execute(() -> writeToDisk(commit, false));
+        }
+    }
+
+    private MemoryCommit commitToMemory(EditorImpl editor) {
+        synchronized (this) {
+            if (writesInFlight > 0) {
+                // The writer is still serializing the current map
+                map = new HashMap<>(map);
+            }
+            synchronized (editor) {
+                if (editor.clear) {
+                    map.clear();
+                    editor.clear = false;
+                }
+                for (Map.Entry<String, Object> entry : editor.modified.entrySet()) {
+                    if (entry.getValue() == editor) {
+                        map.remove(entry.getKey());
+                    } else {
+                        map.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                editor.modified.clear();
+            }
+            writesInFlight++;
+            memoryGeneration++;
+            return new MemoryCommit(memoryGeneration, map);
+        }
+    }
+
+    private void writeToDisk(MemoryCommit commit, boolean sync) {
+        try {
+            synchronized (writeLock) {
+                boolean latest;
+                synchronized (this) {
+                    latest = commit.generation == memoryGeneration;
+                }
+                if (commit.generation <= diskGeneration || (!sync && !latest)) {
+                    // A newer write covers this one
+                    commit.written = true;
+                    return;
+                }
+                commit.written = writeFile(commit.values);
+                if (commit.written) {
+                    diskGeneration = commit.generation;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                writesInFlight--;
+            }
+        }
+    }
+
+    private boolean writeFile(Map<String, Object> values) {
+        File dir = file.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            return false;
+        }
+        if (file.exists()) {
+            if (!backup.exists()) {
+                if (!file.renameTo(backup)) {
+                    return false;
+                }
+            } else {
+                file.delete();
+            }
+        }
+
+        StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String name = escape(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof String) {
+                xml.append("    <string name=\"").append(name).append("\">").append(escape((String) value)).append("</string>\n");
+            } else {
+                String tag = value instanceof Integer ? "int" : value instanceof Long ? "long" : "boolean";
+                xml.append("    <").append(tag).append(" name=\"").append(name).append("\" value=\"").append(value).append("\" />\n");
+            }
+        }
+        xml.append("</map>\n");
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(xml.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            file.delete();
+            return false;
+        }
+        backup.delete();
+        return true;
+    }
+
+    private Map<String, Object> load() {
+        if (backup.exists()) {
+            // A write was interrupted: the backup is the last complete file
+            file.delete();
+            backup.renameTo(file);
+        }
+        Map<String, Object> values = new HashMap<>();
+        if (!file.exists()) {
+            return values;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher m = ENTRY.matcher(line);
+                if (!m.find()) {
+                    continue;
+                }
+                String key = unescape(m.group(2));
+                switch (m.group(1)) {
+                    case "string":
+                        values.put(key, unescape(m.group(4)));
+                        break;
+                    case "int":
+                        values.put(key, Integer.valueOf(m.group(3)));
+                        break;
+                    case "long":
+                        values.put(key, Long.valueOf(m.group(3)));
+                        break;
+                    default:
+                        values.put(key, Boolean.valueOf(m.group(3)));
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return values;
+    }
+
+    private static void awaitQueuedWork() {
+        try {
+            QUEUED_WORK.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String escape(String s) {
+        return s
+            .replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;")
+            .replace("\n", "&#10;")
+            .replace("\r", "&#13;");
+    }
+
+    private static String unescape(String s) {
+        return s
+            .replace("&#13;", "\r")
+            .replace("&#10;", "\n")
+            .replace("&quot;", "\"")
+            .replace("&gt;", ">")
+            .replace("&lt;", "<")
+            .replace("&amp;", "&");
+    }
+}
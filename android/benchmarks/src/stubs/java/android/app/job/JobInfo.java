@@ -0,0 +1,59 @@
+package android.app.job;
+
+import android.content.ComponentName;
+
+public class JobInfo {
+
+    public static final int NETWORK_TYPE_ANY = 1;
+
+    private final int id;
+    private final ComponentName service;
+    private final long minLatencyMillis;
+
+    private JobInfo(Builder builder) {
+        this.id = builder.id;
+        this.service = builder.service;
+        this.minLatencyMillis = builder.minLatencyMillis;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public ComponentName getService() {
+        return service;
+    }
+
+    public long getMinLatencyMillis() {
+        return minLatencyMillis;
+    }
+
+    public static final class Builder {
+
+        private final int id;
+        private final ComponentName service;
+        private long minLatencyMillis;
+
+        public Builder(int jobId, ComponentName jobService) {
+            this.id = jobId;
+            this.service = jobService;
+        }
+
+        public Builder setRequiredNetworkType(int networkType) {
+            return this;
+        }
+
+        public Builder setMinimumLatency(long minLatencyMillis) {
+            this.minLatencyMillis = minLatencyMillis;
+            return this;
+        }
+
+        public Builder setPersisted(boolean isPersisted) {
+            return this;
+        }
+
+        public JobInfo build() {
+            return new JobInfo(this);
+        }
+    }
+}
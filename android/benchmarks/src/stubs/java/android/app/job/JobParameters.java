@@ -0,0 +1,14 @@
+package android.app.job;
+
+public class JobParameters {
+
+    private final int jobId;
+
+    public JobParameters(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+}
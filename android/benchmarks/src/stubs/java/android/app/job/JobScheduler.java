@@ -0,0 +1,64 @@
+package android.app.job;
+
+import android.content.Context;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a job once its minimum latency has passed, as if the network were always up; the
+ * service starts on the delivery executor. Scheduling a job id again replaces the pending one.
+ */
+public class JobScheduler {
+
+    public static final int RESULT_SUCCESS = 1;
+
+    private final Context context;
+    private final Executor delivery;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "JobScheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Integer, ScheduledFuture<?>> pending = new HashMap<>();
+
+    public JobScheduler(Context context, Executor delivery) {
+        this.context = context;
+        this.delivery = delivery;
+    }
+
+    public synchronized int schedule(JobInfo job) {
+        ScheduledFuture<?> previous = pending.remove(job.getId());
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        pending.put(job.getId(), timer.schedule(() -> run(job), job.getMinLatencyMillis(), TimeUnit.MILLISECONDS));
+        return RESULT_SUCCESS;
+    }
+
+    private void run(JobInfo job) {
+        synchronized (this) {
+            pending.remove(job.getId());
+        }
+        delivery.execute(() -> {
+            JobService service;
+            try {
+                service = (JobService) job.getService().getComponentClass().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            service.attach(context);
+            service.onCreate();
+            service.onStartJob(new JobParameters(job.getId()));
+        });
+    }
+
+    /** Not in the platform API: stops the timer thread. */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package android.content;
+
+public abstract class BroadcastReceiver {
+
+    /** Finished from any thread once the receiver's background work is done. */
+    public static class PendingResult {
+
+        private volatile boolean finished;
+
+        public final void finish() {
+            finished = true;
+        }
+
+        /** Not in the platform API: whether the work handed to goAsync() is done. */
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private PendingResult pendingResult;
+
+    public abstract void onReceive(Context context, Intent intent);
+
+    public final PendingResult goAsync() {
+        pendingResult = new PendingResult();
+        return pendingResult;
+    }
+
+    /** Not in the platform API: the result handed out by goAsync(), if any. */
+    public PendingResult getPendingResult() {
+        return pendingResult;
+    }
+}
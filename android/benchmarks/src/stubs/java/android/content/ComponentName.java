@@ -0,0 +1,15 @@
+package android.content;
+
+public final class ComponentName {
+
+    private final Class<?> cls;
+
+    public ComponentName(Context context, Class<?> cls) {
+        this.cls = cls;
+    }
+
+    /** Not in the platform API: lets the stub schedulers instantiate the component. */
+    public Class<?> getComponentClass() {
+        return cls;
+    }
+}
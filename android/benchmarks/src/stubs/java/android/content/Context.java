@@ -0,0 +1,52 @@
+package android.content;
+
+import android.app.SharedPreferencesImpl;
+import android.content.pm.ApplicationInfo;
+import java.io.File;
+
+/** The parts of Context the simulated app uses; the simulator supplies one per phone. */
+public abstract class Context {
+
+    public static final String NOTIFICATION_SERVICE = "notification";
+    public static final String ALARM_SERVICE = "alarm";
+    public static final String JOB_SCHEDULER_SERVICE = "jobscheduler";
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract Context getApplicationContext();
+
+    public abstract Object getSystemService(String name);
+
+    public final <T> T getSystemService(Class<T> serviceClass) {
+        for (String name : new String[] { NOTIFICATION_SERVICE, ALARM_SERVICE, JOB_SCHEDULER_SERVICE }) {
+            Object service = getSystemService(name);
+            if (serviceClass.isInstance(service)) {
+                return serviceClass.cast(service);
+            }
+        }
+        return null;
+    }
+
+    public abstract ApplicationInfo getApplicationInfo();
+
+    public abstract File getFilesDir();
+
+    public abstract File getCacheDir();
+
+    public abstract String getPackageName();
+
+    /** One shared instance per file under {@code dataDir/shared_prefs}, as on the platform. */
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        return SharedPreferencesImpl.get(sharedPreferencesFile(name));
+    }
+
+    public boolean deleteSharedPreferences(String name) {
+        File file = sharedPreferencesFile(name);
+        SharedPreferencesImpl.evict(file);
+        new File(file.getPath() + ".bak").delete();
+        return !file.exists() || file.delete();
+    }
+
+    private File sharedPreferencesFile(String name) {
+        return new File(new File(getApplicationInfo().dataDir, "shared_prefs"), name + ".xml");
+    }
+}
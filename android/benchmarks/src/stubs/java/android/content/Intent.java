@@ -0,0 +1,86 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Intent {
+
+    public static final int FLAG_ACTIVITY_SINGLE_TOP = 0x20000000;
+    public static final int FLAG_ACTIVITY_CLEAR_TOP = 0x04000000;
+
+    private final Class<?> component;
+    private final Map<String, Object> extras = new HashMap<>();
+    private String action;
+    private int flags;
+
+    public Intent() {
+        this.component = null;
+    }
+
+    public Intent(String action) {
+        this.component = null;
+        this.action = action;
+    }
+
+    public Intent(Context context, Class<?> cls) {
+        this.component = cls;
+    }
+
+    /** Not in the platform API: the receiver, service or activity this intent targets. */
+    public Class<?> getComponentClass() {
+        return component;
+    }
+
+    public Intent setAction(String action) {
+        this.action = action;
+        return this;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public Intent addFlags(int flags) {
+        this.flags |= flags;
+        return this;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public Intent putExtra(String name, String value) {
+        extras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, String[] value) {
+        extras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, int value) {
+        extras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, long value) {
+        extras.put(name, value);
+        return this;
+    }
+
+    public String getStringExtra(String name) {
+        Object v = extras.get(name);
+        return v instanceof String ? (String) v : null;
+    }
+
+    public String[] getStringArrayExtra(String name) {
+        Object v = extras.get(name);
+        return v instanceof String[] ? (String[]) v : null;
+    }
+
+    public int getIntExtra(String name, int defaultValue) {
+        Object v = extras.get(name);
+        return v instanceof Integer ? (Integer) v : defaultValue;
+    }
+}
@@ -0,0 +1,43 @@
+package android.content.res;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/** A region of a file, like an uncompressed asset inside an APK. */
+public class AssetFileDescriptor implements Closeable {
+
+    public static final long UNKNOWN_LENGTH = -1;
+
+    private final File file;
+    private final long startOffset;
+    private final long length;
+    private FileInputStream stream;
+
+    public AssetFileDescriptor(File file, long startOffset, long length) {
+        this.file = file;
+        this.startOffset = startOffset;
+        this.length = length;
+    }
+
+    public FileInputStream createInputStream() throws IOException {
+        stream = new FileInputStream(file);
+        return stream;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package android.graphics;
+
+public final class Color {
+
+    public static final int RED = 0xFFFF0000;
+
+    private Color() {}
+}
@@ -0,0 +1,74 @@
+package android.net;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Parses with {@link URI}, eagerly, so lookups don't pay for parsing. */
+public final class Uri {
+
+    private final String string;
+    private final String scheme;
+    private final String authority;
+    private final String host;
+    private final int port;
+    private final String path;
+    private final List<String> pathSegments;
+
+    private Uri(String string) {
+        this.string = string;
+        URI uri = URI.create(string);
+        this.scheme = uri.getScheme();
+        this.authority = uri.getRawAuthority();
+        this.host = uri.getHost();
+        this.port = uri.getPort();
+        this.path = uri.getPath();
+        ArrayList<String> segments = new ArrayList<>();
+        if (path != null) {
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+        }
+        this.pathSegments = Collections.unmodifiableList(segments);
+    }
+
+    public static Uri parse(String uriString) {
+        return new Uri(uriString);
+    }
+
+    public String getScheme() {
+        return scheme;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<String> getPathSegments() {
+        return pathSegments;
+    }
+
+    public String getLastPathSegment() {
+        return pathSegments.isEmpty() ? null : pathSegments.get(pathSegments.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return string;
+    }
+}
@@ -0,0 +1,19 @@
+package android.os;
+
+public class Build {
+
+    public static class VERSION {
+
+        public static final int SDK_INT = 35;
+    }
+
+    public static class VERSION_CODES {
+
+        public static final int N = 24;
+        public static final int O = 26;
+        public static final int P = 28;
+        public static final int Q = 29;
+        public static final int S = 31;
+        public static final int TIRAMISU = 33;
+    }
+}
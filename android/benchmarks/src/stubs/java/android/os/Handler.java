@@ -0,0 +1,27 @@
+package android.os;
+
+/**
+ * Drops everything posted, so the benchmarks measure the caller's side only; once a
+ * simulation has prepared the main looper, main-looper handlers run what is posted.
+ */
+public class Handler {
+
+    private final boolean main;
+
+    public Handler(Looper looper) {
+        this.main = looper == Looper.getMainLooper();
+    }
+
+    public boolean post(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public boolean postDelayed(Runnable r, long delayMillis) {
+        if (main) {
+            Looper.postToMain(r, delayMillis);
+        }
+        return true;
+    }
+
+    public void removeCallbacks(Runnable r) {}
+}
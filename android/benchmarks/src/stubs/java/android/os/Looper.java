@@ -0,0 +1,62 @@
+package android.os;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * There is no main thread on the JVM: nothing is ever on it, and what is posted to it is
+ * dropped, unless a simulation makes an executor the main thread with
+ * {@link #prepareMainLooper(Executor)}.
+ */
+public final class Looper {
+
+    private static final Looper MAIN = new Looper();
+
+    private static volatile Executor mainExecutor;
+    private static volatile Thread mainThread;
+
+    /** Created on first use, so the benchmarks never start it. */
+    private static final class Timer {
+
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "LooperTimer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN;
+    }
+
+    public static Looper myLooper() {
+        Thread main = mainThread;
+        return main != null && main == Thread.currentThread() ? MAIN : null;
+    }
+
+    /** Not in the platform API: the single thread behind {@code executor} becomes the main thread. */
+    public static void prepareMainLooper(Executor executor) {
+        mainExecutor = executor;
+        executor.execute(() -> mainThread = Thread.currentThread());
+    }
+
+    /**
+     * Not in the platform API: runs {@code r} on the main thread after {@code delayMillis}.
+     *
+     * @return {@code false} if there is no main thread and {@code r} was dropped
+     */
+    public static boolean postToMain(Runnable r, long delayMillis) {
+        Executor main = mainExecutor;
+        if (main == null) {
+            return false;
+        }
+        if (delayMillis <= 0) {
+            main.execute(r);
+        } else {
+            Timer.INSTANCE.schedule(() -> main.execute(r), delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+}
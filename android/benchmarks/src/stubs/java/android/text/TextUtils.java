@@ -0,0 +1,25 @@
+package android.text;
+
+public final class TextUtils {
+
+    private TextUtils() {}
+
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+
+    public static String join(CharSequence delimiter, Object[] tokens) {
+        return join(delimiter, java.util.Arrays.asList(tokens));
+    }
+
+    public static String join(CharSequence delimiter, Iterable<?> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (Object token : tokens) {
+            if (sb.length() > 0) {
+                sb.append(delimiter);
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+}
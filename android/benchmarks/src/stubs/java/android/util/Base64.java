@@ -0,0 +1,35 @@
+package android.util;
+
+/** Backed by {@link java.util.Base64}, which the platform class matches for these flags. */
+public final class Base64 {
+
+    public static final int DEFAULT = 0;
+    public static final int NO_PADDING = 1;
+    public static final int NO_WRAP = 2;
+    public static final int URL_SAFE = 8;
+
+    private Base64() {}
+
+    public static String encodeToString(byte[] input, int flags) {
+        return encoder(flags).encodeToString(input);
+    }
+
+    public static String encodeToString(byte[] input, int offset, int len, int flags) {
+        return encoder(flags).encodeToString(java.util.Arrays.copyOfRange(input, offset, offset + len));
+    }
+
+    public static byte[] encode(byte[] input, int flags) {
+        return encoder(flags).encode(input);
+    }
+
+    public static byte[] decode(String str, int flags) {
+        return ((flags & URL_SAFE) != 0 ? java.util.Base64.getUrlDecoder() : java.util.Base64.getMimeDecoder()).decode(str);
+    }
+
+    private static java.util.Base64.Encoder encoder(int flags) {
+        java.util.Base64.Encoder encoder = (flags & URL_SAFE) != 0
+            ? java.util.Base64.getUrlEncoder()
+            : (flags & NO_WRAP) != 0 ? java.util.Base64.getEncoder() : java.util.Base64.getMimeEncoder();
+        return (flags & NO_PADDING) != 0 ? encoder.withoutPadding() : encoder;
+    }
+}
@@ -0,0 +1,29 @@
+package android.view;
+
+import android.os.Looper;
+import java.util.concurrent.TimeUnit;
+
+/** Frame callbacks run on the main thread at the next 60 Hz vsync, if there is a main thread. */
+public final class Choreographer {
+
+    private static final Choreographer INSTANCE = new Choreographer();
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    public static Choreographer getInstance() {
+        return INSTANCE;
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        long now = System.nanoTime();
+        long frame = (now / FRAME_NANOS + 1) * FRAME_NANOS;
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(frame - now);
+        Looper.postToMain(() -> callback.doFrame(frame), delayMillis);
+    }
+
+    /** Posted callbacks still run; callers have to tolerate a late one. */
+    public void removeFrameCallback(FrameCallback callback) {}
+}
@@ -0,0 +1,85 @@
+package android.webkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cookie jar keyed by host. {@link #flush()} stands in for the WebView committing
+ * its cookie database: it rewrites and syncs a small file, so write-behind shows up in the
+ * numbers the way it does on a device.
+ */
+public class CookieManager {
+
+    private static final CookieManager instance = new CookieManager();
+
+    private final Map<String, Map<String, String>> jar = new ConcurrentHashMap<>();
+    private final AtomicLong flushes = new AtomicLong();
+    private File store;
+
+    public static CookieManager getInstance() {
+        return instance;
+    }
+
+    public void setCookie(String url, String value) {
+        String pair = value.split(";", 2)[0].trim();
+        int eq = pair.indexOf('=');
+        if (eq <= 0) return;
+        Map<String, String> cookies = jar.computeIfAbsent(host(url), (h) -> new LinkedHashMap<>());
+        synchronized (cookies) {
+            cookies.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+    }
+
+    public String getCookie(String url) {
+        Map<String, String> cookies = jar.get(host(url));
+        if (cookies == null) return null;
+        StringBuilder sb = new StringBuilder();
+        synchronized (cookies) {
+            for (Map.Entry<String, String> e : cookies.entrySet()) {
+                if (sb.length() > 0) sb.append("; ");
+                sb.append(e.getKey()).append('=').append(e.getValue());
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    public void removeSessionCookies(ValueCallback<Boolean> callback) {}
+
+    public void removeAllCookies(ValueCallback<Boolean> callback) {
+        jar.clear();
+    }
+
+    public synchronized void flush() {
+        flushes.incrementAndGet();
+        try {
+            if (store == null) {
+                store = File.createTempFile("cookies", ".db");
+                store.deleteOnExit();
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(store, "rw")) {
+                raf.setLength(0);
+                raf.write(jar.toString().getBytes());
+                raf.getFD().sync();
+            }
+        } catch (IOException ignored) {}
+    }
+
+    public long flushCount() {
+        return flushes.get();
+    }
+
+    private static String host(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host : url;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package androidx.core.app;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.pm.PackageManager;
+
+/** Every permission is granted: the benchmarks never reach the system dialog. */
+public final class ActivityCompat {
+
+    private ActivityCompat() {}
+
+    public static int checkSelfPermission(Context context, String permission) {
+        return PackageManager.PERMISSION_GRANTED;
+    }
+
+    public static void requestPermissions(Activity activity, String[] permissions, int requestCode) {}
+}
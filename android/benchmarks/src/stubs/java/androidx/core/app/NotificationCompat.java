@@ -0,0 +1,113 @@
+package androidx.core.app;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NotificationCompat {
+
+    public static final int PRIORITY_HIGH = 1;
+    public static final int DEFAULT_ALL = -1;
+    public static final String CATEGORY_CALL = "call";
+
+    public abstract static class Style {}
+
+    public static class InboxStyle extends Style {
+
+        private final List<CharSequence> lines = new ArrayList<>();
+
+        public InboxStyle setBigContentTitle(CharSequence title) {
+            return this;
+        }
+
+        public InboxStyle setSummaryText(CharSequence text) {
+            return this;
+        }
+
+        public InboxStyle addLine(CharSequence line) {
+            lines.add(line);
+            return this;
+        }
+    }
+
+    /** Builds a {@link Notification} with its title, text, content intent and actions. */
+    public static class Builder {
+
+        private final String channelId;
+        private final List<Notification.Action> actions = new ArrayList<>();
+        private CharSequence title;
+        private CharSequence text;
+        private PendingIntent contentIntent;
+        private int number;
+
+        public Builder(Context context, String channelId) {
+            this.channelId = channelId;
+        }
+
+        public Builder setSmallIcon(int icon) {
+            return this;
+        }
+
+        public Builder setContentTitle(CharSequence title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder setContentText(CharSequence text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder setAutoCancel(boolean autoCancel) {
+            return this;
+        }
+
+        public Builder setContentIntent(PendingIntent intent) {
+            this.contentIntent = intent;
+            return this;
+        }
+
+        public Builder setPriority(int priority) {
+            return this;
+        }
+
+        public Builder setCategory(String category) {
+            return this;
+        }
+
+        public Builder setGroup(String groupKey) {
+            return this;
+        }
+
+        public Builder setDefaults(int defaults) {
+            return this;
+        }
+
+        public Builder addAction(int icon, CharSequence title, PendingIntent intent) {
+            actions.add(new Notification.Action(icon, title, intent));
+            return this;
+        }
+
+        public Builder setStyle(Style style) {
+            return this;
+        }
+
+        public Builder setNumber(int number) {
+            this.number = number;
+            return this;
+        }
+
+        public Notification build() {
+            Notification n = new Notification();
+            n.channelId = channelId;
+            n.title = title;
+            n.text = text;
+            n.contentIntent = contentIntent;
+            n.actions = actions.toArray(new Notification.Action[0]);
+            n.number = number;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package androidx.webkit;
+
+import android.net.Uri;
+import android.webkit.WebView;
+import java.util.Set;
+
+public final class WebViewCompat {
+
+    public interface WebMessageListener {
+        void onPostMessage(WebView view, WebMessageCompat message, Uri sourceOrigin, boolean isMainFrame, JavaScriptReplyProxy replyProxy);
+    }
+
+    private WebViewCompat() {}
+
+    public static void addWebMessageListener(WebView webView, String jsObjectName, Set<String> allowedOriginRules, WebMessageListener listener) {}
+}
@@ -0,0 +1,14 @@
+package androidx.webkit;
+
+/** Reports no optional feature, so the bridge takes its JavascriptInterface path. */
+public final class WebViewFeature {
+
+    public static final String WEB_MESSAGE_LISTENER = "WEB_MESSAGE_LISTENER";
+    public static final String DOCUMENT_START_SCRIPT = "DOCUMENT_START_SCRIPT";
+
+    private WebViewFeature() {}
+
+    public static boolean isFeatureSupported(String feature) {
+        return false;
+    }
+}
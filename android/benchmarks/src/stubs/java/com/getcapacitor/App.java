@@ -0,0 +1,6 @@
+package com.getcapacitor;
+
+public class App {
+
+    public void fireRestoredResult(PluginResult result) {}
+}
@@ -0,0 +1,118 @@
+package com.getcapacitor;
+
+import android.content.Context;
+import android.content.Intent;
+import android.webkit.ValueCallback;
+import androidx.activity.result.ActivityResultCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContract;
+import androidx.appcompat.app.AppCompatActivity;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stands in for the real bridge behind {@link MessageHandler}: plugin calls go straight to
+ * {@link #target} on the calling thread instead of a plugin lane.
+ */
+public class Bridge {
+
+    public static final String CAPACITOR_BINARY_START = "/_capacitor_binary_/";
+
+    public interface Target {
+        void call(String pluginId, String methodName, PluginCall call);
+    }
+
+    private final CapConfig config = new CapConfig();
+    private final App app = new App();
+    private final BinaryTransfer binaryTransfer = new BinaryTransfer();
+    private volatile Target target = (pluginId, methodName, call) -> {};
+
+    public void setTarget(Target target) {
+        this.target = target;
+    }
+
+    public CapConfig getConfig() {
+        return config;
+    }
+
+    public App getApp() {
+        return app;
+    }
+
+    public String getLocalUrl() {
+        return "https://localhost";
+    }
+
+    public String getServerUrl() {
+        return null;
+    }
+
+    public BinaryTransfer getBinaryTransfer() {
+        return binaryTransfer;
+    }
+
+    public PluginHandle getPlugin(String pluginId) {
+        return null;
+    }
+
+    public Set<String> getAllowedOriginRules() {
+        return Collections.emptySet();
+    }
+
+    public void callPluginMethod(String pluginId, String methodName, PluginCall call) {
+        target.call(pluginId, methodName, call);
+    }
+
+    public void eval(String js, ValueCallback<String> callback) {}
+
+    public void execute(Runnable runnable) {
+        runnable.run();
+    }
+
+    public void releaseCall(PluginCall call) {}
+
+    public Context getContext() {
+        return null;
+    }
+
+    public AppCompatActivity getActivity() {
+        return null;
+    }
+
+    public void saveCall(PluginCall call) {}
+
+    public PluginCall getSavedCall(String callbackId) {
+        return null;
+    }
+
+    PluginCall getPluginCallForLastActivity() {
+        return null;
+    }
+
+    void setPluginCallForLastActivity(PluginCall call) {}
+
+    protected PluginCall getPermissionCall(String pluginId) {
+        return null;
+    }
+
+    protected void savePermissionCall(PluginCall call) {}
+
+    public <I, O> ActivityResultLauncher<I> registerForActivityResult(
+        ActivityResultContract<I, O> contract,
+        ActivityResultCallback<O> callback
+    ) {
+        return null;
+    }
+
+    public void startActivityForPluginWithResult(PluginCall call, Intent intent, int requestCode) {}
+
+    protected boolean validatePermissions(Plugin plugin, PluginCall savedCall, Map<String, Boolean> permissions) {
+        return true;
+    }
+
+    protected Map<String, PermissionState> getPermissionStates(Plugin plugin) {
+        return new HashMap<>();
+    }
+}
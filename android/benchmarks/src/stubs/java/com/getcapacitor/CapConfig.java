@@ -0,0 +1,31 @@
+package com.getcapacitor;
+
+import org.json.JSONObject;
+
+/** The few settings the benchmarked classes read, at their defaults. */
+public class CapConfig {
+
+    public int getBridgeBatchInterval() {
+        return 0;
+    }
+
+    public boolean isUsingLegacyBridge() {
+        return false;
+    }
+
+    public boolean isBinaryResponsesEnabled() {
+        return false;
+    }
+
+    public boolean isLoggingEnabled() {
+        return false;
+    }
+
+    public String getOverriddenUserAgentString() {
+        return null;
+    }
+
+    public PluginConfig getPluginConfiguration(String pluginId) {
+        return new PluginConfig(new JSONObject());
+    }
+}
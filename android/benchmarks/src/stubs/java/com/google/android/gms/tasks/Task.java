@@ -0,0 +1,33 @@
+package com.google.android.gms.tasks;
+
+/** An already completed task: listeners run right away on the calling thread. */
+public class Task<T> {
+
+    private final T result;
+
+    private Task(T result) {
+        this.result = result;
+    }
+
+    /** Not in the platform API. */
+    public static <T> Task<T> forResult(T result) {
+        return new Task<>(result);
+    }
+
+    public boolean isSuccessful() {
+        return true;
+    }
+
+    public T getResult() {
+        return result;
+    }
+
+    public Exception getException() {
+        return null;
+    }
+
+    public Task<T> addOnCompleteListener(OnCompleteListener<T> listener) {
+        listener.onComplete(this);
+        return this;
+    }
+}
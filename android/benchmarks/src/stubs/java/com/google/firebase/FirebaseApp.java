@@ -0,0 +1,14 @@
+package com.google.firebase;
+
+public class FirebaseApp {
+
+    private static final FirebaseApp INSTANCE = new FirebaseApp();
+
+    public static FirebaseApp getInstance() {
+        return INSTANCE;
+    }
+
+    public String getName() {
+        return "[DEFAULT]";
+    }
+}
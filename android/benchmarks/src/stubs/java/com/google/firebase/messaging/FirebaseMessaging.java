@@ -0,0 +1,17 @@
+package com.google.firebase.messaging;
+
+import com.google.android.gms.tasks.Task;
+
+/** Hands out a fixed token; the simulator feeds tokens through {@link FirebaseMessagingService#onNewToken}. */
+public class FirebaseMessaging {
+
+    private static final FirebaseMessaging INSTANCE = new FirebaseMessaging();
+
+    public static FirebaseMessaging getInstance() {
+        return INSTANCE;
+    }
+
+    public Task<String> getToken() {
+        return Task.forResult("stub-token");
+    }
+}
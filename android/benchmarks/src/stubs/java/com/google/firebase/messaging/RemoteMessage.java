@@ -0,0 +1,54 @@
+package com.google.firebase.messaging;
+
+import java.util.Map;
+
+/** A received push built from its data map, as FCM would deliver it. */
+public final class RemoteMessage {
+
+    public static final class Notification {
+
+        private final String title;
+        private final String body;
+
+        public Notification(String title, String body) {
+            this.title = title;
+            this.body = body;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
+    private final String messageId;
+    private final Map<String, String> data;
+    private final Notification notification;
+    private final long sentTime;
+
+    public RemoteMessage(String messageId, Map<String, String> data, Notification notification, long sentTime) {
+        this.messageId = messageId;
+        this.data = data;
+        this.notification = notification;
+        this.sentTime = sentTime;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public Map<String, String> getData() {
+        return data;
+    }
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+    public long getSentTime() {
+        return sentTime;
+    }
+}
@@ -0,0 +1,4 @@
+package com.mozoqr.app;
+
+/** Stands in for the launcher activity that notifications open; nothing launches it here. */
+public class MainActivity {}
@@ -0,0 +1,6 @@
+package org.apache.cordova;
+
+public class PluginManager {
+
+    public void exec(String service, String action, String callbackId, String rawArgs) {}
+}
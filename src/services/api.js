@@ -1,7 +1,11 @@
 import axios from 'axios'
+import { configureCallOutbox } from './callOutbox'
 
 const API_URL = import.meta.env.VITE_API_URL || 'https://mozoqr.com/api'
 
+// La parte nativa atiende llamadas desde la notificación con esta misma sesión
+configureCallOutbox(API_URL, localStorage.getItem('token'))
+
 const api = axios.create({
   baseURL: API_URL,
   headers: {
@@ -46,6 +50,7 @@ api.interceptors.response.use(
           localStorage.setItem('token', authHeader.replace('Bearer ', ''))
         }
       }
+      configureCallOutbox(API_URL, localStorage.getItem('token'))
     } catch (e) {}
     
     return response
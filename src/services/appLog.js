@@ -0,0 +1,53 @@
+/**
+ * Log nativo - Solo para Android
+ * Niveles por tag en caliente y export de los últimos minutos del log nativo
+ * (push FCM, notificaciones, bridge), para adjuntar cuando un mozo avisa que
+ * no le llegó una llamada.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+
+let plugin = null
+
+const isAvailable = () => Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('AppLog')
+  return plugin
+}
+
+/**
+ * Cambia el nivel de un tag nativo ('FCMService', 'CallPipeline', 'Capacitor'...),
+ * o el nivel por defecto si no se pasa tag. level null devuelve el tag al default.
+ */
+export const setNativeLogLevel = async (level, tag) => {
+  if (!isAvailable()) return null
+  return getPlugin().setLevel(tag ? { tag, level } : { level })
+}
+
+export const getNativeLogLevels = async () => {
+  if (!isAvailable()) return null
+  return getPlugin().getLevels()
+}
+
+/**
+ * Exporta los últimos `minutes` del log nativo a un .gz en la caché.
+ * Devuelve { path, webPath, size, events } o null si no se pudo.
+ */
+export const exportRecentLogs = async ({ minutes = 30, callId, reason = 'missed_call' } = {}) => {
+  if (!isAvailable()) return null
+  try {
+    const result = await getPlugin().export({ minutes, callId, reason })
+    console.log(`📤 LOG NATIVO: ${result.events} eventos exportados`)
+    return result
+  } catch (error) {
+    console.warn('⚠️ LOG NATIVO: No se pudo exportar', error)
+    return null
+  }
+}
+
+export default {
+  setNativeLogLevel,
+  getNativeLogLevels,
+  exportRecentLogs
+}
@@ -0,0 +1,120 @@
+/**
+ * Diario nativo de llamadas - Solo para Android
+ * Al volver al frente pide al plugin CallJournal sólo las llamadas que
+ * llegaron por FCM desde la última lectura, en vez de recargar todo del API.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+import { useCallsStore } from '@/stores/calls'
+
+const CURSOR_KEY = 'call_journal_cursor'
+const PAGE_LIMIT = 200
+// Evento de ventana del bridge nativo cuando descartó eventos de listeners por backlog
+const DROPPED_EVENT = 'capacitorMessagesDropped'
+
+let plugin = null
+let appendedHandle = null
+
+const isAvailable = () => Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('CallJournal')
+  return plugin
+}
+
+const readCursor = () => {
+  try {
+    const saved = JSON.parse(localStorage.getItem(CURSOR_KEY) || 'null')
+    if (saved && typeof saved.journalId === 'number' && typeof saved.cursor === 'number') return saved
+  } catch (_) { /* cursor corrupto: se empieza de cero */ }
+  return { journalId: 0, cursor: 0 }
+}
+
+const writeCursor = (journalId, cursor) => {
+  localStorage.setItem(CURSOR_KEY, JSON.stringify({ journalId, cursor }))
+}
+
+function inferStatus(type){
+  if(type==='new_call') return 'pending'
+  if(type==='acknowledged') return 'acknowledged'
+  if(type==='completed') return 'completed'
+  return 'pending'
+}
+
+const applyEvent = (store, event) => {
+  if (!event || !event.callId) return
+  store.upsert({
+    id: event.callId,
+    table_number: event.table,
+    status: inferStatus(event.type),
+    called_at: event.receivedAt,
+    last_updated: Date.now(),
+    event_type: event.type || 'event'
+  })
+}
+
+/**
+ * Aplica al store de llamadas lo que el diario recibió desde el último cursor.
+ * @returns {Promise<boolean>} false si hace falta una recarga completa
+ *   (no es Android, el diario se reinició/compactó o falló la lectura)
+ */
+export const syncCallJournal = async () => {
+  if (!isAvailable()) return false
+  const store = useCallsStore()
+  let { journalId, cursor } = readCursor()
+  try {
+    let page
+    do {
+      page = await getPlugin().getEventsSince({ journalId, cursor, limit: PAGE_LIMIT })
+      // Con reset el diario devuelve su contenido completo, pero lo anterior
+      // a la compactación ya no está: la recarga completa sigue siendo necesaria.
+      const reset = page.reset && cursor > 0
+      for (const event of page.events || []) applyEvent(store, event)
+      journalId = page.journalId
+      cursor = page.cursor
+      writeCursor(journalId, cursor)
+      if (reset) return false
+    } while (page.more)
+    return true
+  } catch (error) {
+    console.warn('⚠️ CALL JOURNAL: Error leyendo el diario nativo:', error)
+    return false
+  }
+}
+
+// Si el bridge descartó callAppended, el cursor quedó atrás: ponerse al día desde el diario
+const onEventsDropped = (event) => {
+  console.warn(`⚠️ CALL JOURNAL: El bridge descartó ${event.count} eventos, resincronizando`)
+  syncCallJournal()
+}
+
+/**
+ * Con la WebView viva, aplica cada llamada apenas el diario la escribe.
+ */
+export const listenCallJournal = async () => {
+  if (!isAvailable() || appendedHandle) return
+  window.addEventListener(DROPPED_EVENT, onEventsDropped)
+  try {
+    appendedHandle = await getPlugin().addListener('callAppended', (event) => {
+      applyEvent(useCallsStore(), event)
+      const saved = readCursor()
+      if (saved.journalId === event.journalId && event.seq === saved.cursor + 1) {
+        writeCursor(event.journalId, event.seq)
+      }
+    })
+  } catch (error) {
+    console.warn('⚠️ CALL JOURNAL: No se pudo escuchar el diario nativo:', error)
+  }
+}
+
+export const stopCallJournal = async () => {
+  window.removeEventListener(DROPPED_EVENT, onEventsDropped)
+  if (!appendedHandle) return
+  const handle = appendedHandle
+  appendedHandle = null
+  try { await handle.remove() } catch (_) { /* plugin ya destruido */ }
+}
+
+export const clearCallJournalCursor = () => localStorage.removeItem(CURSOR_KEY)
+
+export default { syncCallJournal, listenCallJournal, stopCallJournal, clearCallJournalCursor }
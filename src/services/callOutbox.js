@@ -0,0 +1,52 @@
+/**
+ * Acciones nativas sobre llamadas - Solo para Android
+ * Los botones "Voy" y "Listo" de la notificación y el registro del token FCM
+ * se mandan desde la parte nativa aunque la WebView no esté abierta; para eso
+ * el plugin CallOutbox necesita la URL de la API y el token de sesión.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+
+let plugin = null
+let configuredToken = null
+
+const isAvailable = () => Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('CallOutbox')
+  return plugin
+}
+
+/** Pasa la sesión a la parte nativa; no hace nada si el token no cambió. */
+export const configureCallOutbox = async (baseUrl, token) => {
+  if (!isAvailable() || !baseUrl || !token || token === configuredToken) return
+  configuredToken = token
+  try {
+    await getPlugin().configure({ baseUrl, token })
+  } catch (error) {
+    configuredToken = null
+    console.warn('⚠️ CALL OUTBOX: No se pudo configurar la sesión nativa', error)
+  }
+}
+
+/** Cierre de sesión: descarta lo pendiente y olvida el token. */
+export const signOutCallOutbox = async () => {
+  if (!isAvailable()) return
+  configuredToken = null
+  try {
+    await getPlugin().signOut()
+  } catch (error) {
+    console.warn('⚠️ CALL OUTBOX: No se pudo cerrar la sesión nativa', error)
+  }
+}
+
+export const getCallOutboxStats = async () => {
+  if (!isAvailable()) return null
+  return getPlugin().getStats()
+}
+
+export default {
+  configureCallOutbox,
+  signOutCallOutbox,
+  getCallOutboxStats
+}
@@ -2,6 +2,14 @@ import Echo from 'laravel-echo'
 import Pusher from 'pusher-js'
 import apiService from './api'
 import authService from './auth'
+import {
+  isNativeRealtimeAvailable,
+  connectNativeRealtime,
+  listenNative,
+  disconnectNativeRealtime
+} from './nativeRealtime'
+
+const AUTH_ENDPOINT = `https://mozoqr.com/api/broadcasting/auth`
 
 let echoInstance = null
 
@@ -17,7 +25,7 @@ export const initializeEcho = () => {
     key: import.meta.env.VITE_PUSHER_APP_KEY || 'your-pusher-key',
     cluster: import.meta.env.VITE_PUSHER_APP_CLUSTER || 'mt1',
     forceTLS: true,
-    authEndpoint: `https://mozoqr.com/api/broadcasting/auth`,
+    authEndpoint: AUTH_ENDPOINT,
     auth: {
       headers: {
         Authorization: `Bearer ${authService.getToken()}`,
@@ -41,4 +49,32 @@ export const disconnectEcho = () => {
     echoInstance.disconnect()
     echoInstance = null
   }
+  if (isNativeRealtimeAvailable()) {
+    disconnectNativeRealtime()
+  }
+}
+
+/**
+ * Escucha un evento de broadcasting. En Android usa el socket nativo (no se
+ * corta cuando la WebView queda congelada); en web, laravel-echo.
+ * `event` es el nombre completo del evento (ej. 'App\\Events\\WaiterCalled').
+ * Devuelve la función para dejar de escuchar.
+ */
+export const listenRealtime = async (channel, event, callback, { isPrivate = true } = {}) => {
+  if (isNativeRealtimeAvailable()) {
+    await connectNativeRealtime({
+      key: import.meta.env.VITE_PUSHER_APP_KEY || 'your-pusher-key',
+      cluster: import.meta.env.VITE_PUSHER_APP_CLUSTER || 'mt1',
+      authEndpoint: AUTH_ENDPOINT,
+      token: authService.getToken()
+    })
+    return listenNative(isPrivate ? `private-${channel}` : channel, event, callback)
+  }
+
+  const echo = echoInstance || initializeEcho()
+  const subscription = isPrivate ? echo.private(channel) : echo.channel(channel)
+  // El punto inicial evita que Echo le agregue el namespace App\\Events
+  const name = `.${event}`
+  subscription.listen(name, callback)
+  return () => subscription.stopListening(name, callback)
 } 
\ No newline at end of file
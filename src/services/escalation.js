@@ -0,0 +1,45 @@
+/**
+ * Recordatorios nativos de llamadas sin atender - Solo para Android
+ * El plugin Escalation recuerda cada llamada nueva hasta que alguien la
+ * atiende; al atenderla desde la app se cancela sin esperar el push.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+
+let plugin = null
+
+const isAvailable = () => Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('Escalation')
+  return plugin
+}
+
+/** La llamada se atendió desde la app: dejar de recordarla. */
+export const acknowledgeEscalation = async (callId) => {
+  if (!isAvailable() || !callId) return
+  try {
+    await getPlugin().acknowledge({ callId: String(callId) })
+  } catch (error) {
+    console.warn('⚠️ ESCALATION: No se pudo cancelar el recordatorio', callId, error)
+  }
+}
+
+/**
+ * @param {{ enabled: boolean, stepsSeconds?: number[] }} options
+ */
+export const configureEscalation = async (options) => {
+  if (!isAvailable()) return
+  await getPlugin().configure(options)
+}
+
+export const getEscalationStats = async () => {
+  if (!isAvailable()) return null
+  return getPlugin().getStats()
+}
+
+export default {
+  acknowledgeEscalation,
+  configureEscalation,
+  getEscalationStats
+}
@@ -0,0 +1,93 @@
+/**
+ * Canal de tiempo real nativo - Solo para Android
+ * El socket vive en Java (plugin Realtime) y no se cae cuando Android
+ * congela la WebView; los eventos llegan de a lotes mientras la app está
+ * visible y se acumulan del lado nativo cuando no.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+
+let plugin = null
+let batchHandle = null
+// channel -> event -> Set<callback>
+const handlers = new Map()
+const overflowHandlers = new Set()
+
+export const isNativeRealtimeAvailable = () =>
+  Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('Realtime')
+  return plugin
+}
+
+const dispatch = ({ events = [], overflowed }) => {
+  for (const e of events) {
+    const callbacks = handlers.get(e.channel)?.get(e.event)
+    if (!callbacks) continue
+    let data = e.data
+    try { data = data ? JSON.parse(data) : null } catch (_) { /* se entrega el texto tal cual */ }
+    for (const cb of callbacks) {
+      try { cb(data, e) } catch (err) { console.error('❌ REALTIME: Error en handler de', e.event, err) }
+    }
+  }
+  // Se perdieron eventos mientras la app estaba en segundo plano
+  if (overflowed) overflowHandlers.forEach(cb => cb())
+}
+
+export const connectNativeRealtime = async ({ key, cluster, authEndpoint, token }) => {
+  const realtime = getPlugin()
+  if (!batchHandle) {
+    batchHandle = await realtime.addListener('realtimeEvents', dispatch)
+  }
+  await realtime.connect({ key, cluster, authEndpoint, token })
+}
+
+/**
+ * Escucha un evento de un canal. Devuelve la función para dejar de escuchar.
+ */
+export const listenNative = async (channel, event, callback) => {
+  let events = handlers.get(channel)
+  if (!events) {
+    events = new Map()
+    handlers.set(channel, events)
+    await getPlugin().subscribe({ channel })
+  }
+  if (!events.has(event)) events.set(event, new Set())
+  events.get(event).add(callback)
+
+  return () => {
+    const callbacks = handlers.get(channel)?.get(event)
+    if (!callbacks) return
+    callbacks.delete(callback)
+    if (!callbacks.size) events.delete(event)
+    if (!events.size) {
+      handlers.delete(channel)
+      getPlugin().unsubscribe({ channel }).catch(() => {})
+    }
+  }
+}
+
+/** Se llama cuando el buffer nativo desbordó: hay que recargar del API. */
+export const onNativeRealtimeOverflow = (callback) => {
+  overflowHandlers.add(callback)
+  return () => overflowHandlers.delete(callback)
+}
+
+export const disconnectNativeRealtime = async () => {
+  handlers.clear()
+  if (batchHandle) {
+    const handle = batchHandle
+    batchHandle = null
+    try { await handle.remove() } catch (_) { /* plugin ya destruido */ }
+  }
+  if (plugin) await plugin.disconnect().catch(() => {})
+}
+
+export default {
+  isNativeRealtimeAvailable,
+  connectNativeRealtime,
+  listenNative,
+  onNativeRealtimeOverflow,
+  disconnectNativeRealtime
+}
@@ -0,0 +1,65 @@
+/**
+ * Hojas de QR de mesas generadas en el dispositivo - Solo para Android
+ * El plugin QrSheet codifica y arma las páginas en paralelo sin pedirle cada QR
+ * a la API; las hojas quedan en la caché de la app y se leen por su webPath.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core'
+
+const QR_BASE_URL = import.meta.env.VITE_QR_BASE_URL || 'https://mozoqr.com'
+
+let plugin = null
+
+const isAvailable = () => Capacitor.isNativePlatform() && Capacitor.getPlatform() === 'android'
+
+const getPlugin = () => {
+  if (!plugin) plugin = registerPlugin('QrSheet')
+  return plugin
+}
+
+export const isQrSheetAvailable = isAvailable
+
+/** Lo que abre el QR de una mesa: el menú público (/table/:businessId/:tableId). */
+export const qrContentFor = (table, businessId) => `${QR_BASE_URL}/table/${businessId}/${table.id}`
+
+/**
+ * @param {Array} tables mesas del admin store
+ * @param {{ businessId: string|number, format?: 'pdf'|'png', columns?: number, rows?: number,
+ *           onPage?: Function, onProgress?: Function }} options
+ * @returns {Promise<{ tables: number, pages: number, durationMs: number,
+ *           files: Array<{ path: string, webPath: string, size: number }>, failed: Array }>}
+ */
+export const generateQrSheets = async (tables, { businessId, format = 'pdf', columns, rows, onPage, onProgress } = {}) => {
+  if (!isAvailable()) throw new Error('QrSheet solo disponible en Android')
+  const qr = getPlugin()
+  const listeners = []
+  if (onPage) listeners.push(await qr.addListener('qrSheetPage', onPage))
+  if (onProgress) listeners.push(await qr.addListener('qrSheetProgress', onProgress))
+  try {
+    const items = tables.map(table => ({
+      id: String(table.id),
+      label: table.name || `Mesa ${table.number}`,
+      content: qrContentFor(table, businessId)
+    }))
+    const result = await qr.generate({ items, format, columns, rows })
+    console.log(`🧾 QR SHEET: ${result.tables} mesas en ${result.pages} páginas (${result.durationMs} ms)`)
+    if (result.failed?.length) {
+      console.warn('⚠️ QR SHEET: Mesas sin QR', result.failed)
+    }
+    return result
+  } finally {
+    listeners.forEach(listener => listener.remove())
+  }
+}
+
+export const clearQrSheets = async () => {
+  if (!isAvailable()) return
+  await getPlugin().clear()
+}
+
+export default {
+  isQrSheetAvailable,
+  qrContentFor,
+  generateQrSheets,
+  clearQrSheets
+}
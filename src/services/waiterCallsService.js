@@ -6,6 +6,7 @@
  */
 
 import { apiService } from './api'
+import { acknowledgeEscalation } from './escalation'
 
 class WaiterCallsService {
   // ===== LLAMADAS DE MESA =====
@@ -50,6 +51,7 @@ class WaiterCallsService {
   async acknowledgCall(callId) {
     try {
       const response = await apiService.acknowledgeCall(callId)
+      acknowledgeEscalation(callId)
       return response.data
     } catch (error) {
   // console.error('Error acknowledging call:', error)
@@ -64,6 +66,7 @@ class WaiterCallsService {
   async completeCall(callId) {
     try {
       const response = await apiService.completeCall(callId)
+      acknowledgeEscalation(callId)
       return response.data
     } catch (error) {
   // console.error('Error completing call:', error)
@@ -2,6 +2,7 @@ import { defineStore } from 'pinia'
 import { ref, computed, unref } from 'vue'
 import apiService from '../services/api'
 import { loginWithFCM, logoutAndUnregister } from '@/utils/notificationClient'
+import { signOutCallOutbox } from '@/services/callOutbox'
 
 // Función utilitaria para obtener valores seguros de refs
 const safeValue = (value) => {
@@ -342,6 +343,7 @@ export const useAuthStore = defineStore('auth', () => {
     localStorage.removeItem('userRole')
     localStorage.removeItem('user')
     localStorage.removeItem('fcm_token')
+    await signOutCallOutbox()
     
     // Limpiar token FCM
     try {
@@ -1,6 +1,7 @@
 import { defineStore } from 'pinia'
 import { ref, computed } from 'vue'
 import { apiService } from '@/services/api'
+import { syncCallJournal, clearCallJournalCursor } from '@/services/callJournal'
 
 export const useWaiterStore = defineStore('waiter', () => {
   // --- STATE ---
@@ -76,6 +77,14 @@ export const useWaiterStore = defineStore('waiter', () => {
     }
   }
   
+  // Al volver al frente: primero el diario nativo de llamadas (sólo lo nuevo);
+  // la recarga completa queda para cuando el diario no alcanza.
+  const syncOnResume = async () => {
+    if (!isAssociated.value) return
+    const upToDate = await syncCallJournal()
+    if (!upToDate) await fetchInitialData()
+  }
+
   const toggleTableNotifications = async (table) => {
     const originalStatus = table.notifications_on
     table.notifications_on = !originalStatus
@@ -140,6 +149,7 @@ export const useWaiterStore = defineStore('waiter', () => {
     profiles.value = []
     notifications.value = []
     localStorage.removeItem('waiterBusinessId')
+    clearCallJournalCursor()
   }
 
   return {
@@ -157,6 +167,7 @@ export const useWaiterStore = defineStore('waiter', () => {
     // Actions
     associateBusiness,
     fetchInitialData,
+    syncOnResume,
     toggleTableNotifications,
     fetchNotifications,
     handleNotification,